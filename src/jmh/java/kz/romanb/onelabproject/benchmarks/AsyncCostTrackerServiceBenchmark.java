@@ -0,0 +1,81 @@
+package kz.romanb.onelabproject.benchmarks;
+
+import kz.romanb.onelabproject.async.AsyncCostTrackerService;
+import kz.romanb.onelabproject.async.AsyncProperties;
+import kz.romanb.onelabproject.async.UserDashboard;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.User;
+import kz.romanb.onelabproject.repositories.OperationRepositoryImpl;
+import kz.romanb.onelabproject.services.CostTrackerService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Threads(16)
+public class AsyncCostTrackerServiceBenchmark {
+    private static final int RECENT_OPERATIONS = 20;
+
+    @State(Scope.Benchmark)
+    public static class Loaded {
+        @Param({"1000000"})
+        private int size;
+
+        @Param({"PLATFORM", "AUTO"})
+        private AsyncProperties.ExecutorType executor;
+
+        private SyntheticData data;
+        private CostTrackerService costTrackerService;
+        private AsyncCostTrackerService asyncService;
+        private YearMonth month;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            data = SyntheticData.generate(size);
+            OperationRepositoryImpl operationRepository = new OperationRepositoryImpl();
+            costTrackerService = SyntheticData.newService(operationRepository);
+            data.load(operationRepository);
+            data.getUsers().forEach(costTrackerService::createNewUser);
+            AsyncProperties properties = new AsyncProperties();
+            properties.setExecutor(executor);
+            properties.setRecentOperations(RECENT_OPERATIONS);
+            asyncService = new AsyncCostTrackerService(costTrackerService, properties);
+            month = YearMonth.from(SyntheticData.START_DATE);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            asyncService.shutdown();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadRandom {
+        private final SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+    }
+
+    @Benchmark
+    public Object[] blockingDashboard(Loaded loaded, ThreadRandom random) {
+        User user = loaded.data.user(random.random);
+        CostTrackerService service = loaded.costTrackerService;
+        List<?> bankAccounts = List.copyOf(user.getBankAccounts());
+        List<?> costCategories = List.copyOf(user.getCostCategories());
+        List<?> recent = service.findOperationsPageByUser(user, null, RECENT_OPERATIONS).getOperations();
+        BigDecimal income = service.getSum(user, CostCategory.CostCategoryType.INCOME, loaded.month.atDay(1), loaded.month.atEndOfMonth());
+        BigDecimal expense = service.getSum(user, CostCategory.CostCategoryType.EXPENSE, loaded.month.atDay(1), loaded.month.atEndOfMonth());
+        return new Object[]{bankAccounts, costCategories, recent, income, expense};
+    }
+
+    @Benchmark
+    public UserDashboard asyncDashboard(Loaded loaded, ThreadRandom random) {
+        return loaded.asyncService.loadDashboard(loaded.data.user(random.random).getId(), loaded.month).join();
+    }
+}
@@ -0,0 +1,119 @@
+package kz.romanb.onelabproject.benchmarks;
+
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.User;
+import kz.romanb.onelabproject.reports.Report;
+import kz.romanb.onelabproject.reports.ReportDimension;
+import kz.romanb.onelabproject.reports.ReportRequest;
+import kz.romanb.onelabproject.repositories.OperationRepositoryImpl;
+import kz.romanb.onelabproject.services.CostTrackerService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class CostTrackerServiceBenchmark {
+    private static final BigDecimal AMOUNT = new BigDecimal("12.34");
+
+    @State(Scope.Benchmark)
+    public static class Loaded {
+        @Param({"10000", "1000000", "10000000"})
+        private int size;
+
+        private SyntheticData data;
+        private CostTrackerService costTrackerService;
+        private List<Operation> userOperations;
+        private User user;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            data = SyntheticData.generate(size);
+            OperationRepositoryImpl operationRepository = new OperationRepositoryImpl();
+            costTrackerService = SyntheticData.newService(operationRepository);
+            data.load(operationRepository);
+            user = data.getUsers().get(0);
+            userOperations = costTrackerService.findAllOperationsByUser(user);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Writes {
+        private SyntheticData data;
+        private CostTrackerService costTrackerService;
+        private BankAccount hotAccount;
+        private CostCategory expense;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            data = SyntheticData.generate(64_000);
+            costTrackerService = SyntheticData.newService(new OperationRepositoryImpl());
+            hotAccount = data.getBankAccounts().get(0);
+            expense = data.getCostCategories().get(1);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadRandom {
+        private final SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Operation createOperationSingleThreaded(Writes writes) {
+        return writes.costTrackerService.createOperation(writes.hotAccount, writes.expense, AMOUNT);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Operation createOperationContendedAccount(Writes writes) {
+        return writes.costTrackerService.createOperation(writes.hotAccount, writes.expense, AMOUNT);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Operation createOperationSpreadAccounts(Writes writes, ThreadRandom random) {
+        User user = writes.data.user(random.random);
+        return writes.costTrackerService.createOperation(
+                user.getBankAccounts().get(random.random.nextInt(user.getBankAccounts().size())),
+                user.getCostCategories().get(1),
+                AMOUNT);
+    }
+
+    @Benchmark
+    public BigDecimal getSumOverUserOperations(Loaded loaded) {
+        return loaded.costTrackerService.getSum(loaded.userOperations, CostCategory.CostCategoryType.EXPENSE);
+    }
+
+    @Benchmark
+    public BigDecimal getSumFromAggregates(Loaded loaded, ThreadRandom random) {
+        LocalDate start = SyntheticData.START_DATE.plusDays(random.random.nextInt(SyntheticData.DAYS - 90));
+        return loaded.costTrackerService.getSum(loaded.data.user(random.random), CostCategory.CostCategoryType.EXPENSE, start, start.plusDays(90));
+    }
+
+    @Benchmark
+    public List<Operation> findAllOperationsByUser(Loaded loaded, ThreadRandom random) {
+        return loaded.costTrackerService.findAllOperationsByUser(loaded.data.user(random.random));
+    }
+
+    @Benchmark
+    public Report buildMonthlyCategoryReport(Loaded loaded) {
+        return loaded.costTrackerService.buildReport(ReportRequest.builder()
+                .user(loaded.user)
+                .startDate(SyntheticData.START_DATE)
+                .endDate(SyntheticData.START_DATE.plusDays(SyntheticData.DAYS))
+                .groupBy(ReportDimension.MONTH)
+                .groupBy(ReportDimension.COST_CATEGORY)
+                .groupBy(ReportDimension.BANK_ACCOUNT)
+                .build());
+    }
+}
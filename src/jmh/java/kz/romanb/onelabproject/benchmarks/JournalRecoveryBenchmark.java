@@ -0,0 +1,75 @@
+package kz.romanb.onelabproject.benchmarks;
+
+import kz.romanb.onelabproject.aggregates.OperationAggregates;
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.User;
+import kz.romanb.onelabproject.ids.SnowflakeIdGenerator;
+import kz.romanb.onelabproject.persistence.JournalProperties;
+import kz.romanb.onelabproject.persistence.OperationJournal;
+import kz.romanb.onelabproject.persistence.PersistenceManager;
+import kz.romanb.onelabproject.repositories.BankAccountRepositoryImpl;
+import kz.romanb.onelabproject.repositories.CostCategoryRepositoryImpl;
+import kz.romanb.onelabproject.repositories.OperationRepositoryImpl;
+import kz.romanb.onelabproject.repositories.UserRepositoryImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms12g", "-Xmx12g"})
+public class JournalRecoveryBenchmark {
+    @Param({"1000000", "10000000"})
+    private int size;
+
+    private Path directory;
+    private JournalProperties properties;
+
+    @Setup(Level.Trial)
+    public void writeJournal() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        properties = new JournalProperties();
+        properties.setDirectory(directory);
+        properties.setSegmentSize(DataSize.ofMegabytes(256));
+        SyntheticData data = SyntheticData.generate(size);
+        OperationJournal journal = new OperationJournal(directory, (int) properties.getSegmentSize().toBytes(), properties.getFsyncEvery());
+        journal.open();
+        for (User user : data.getUsers()) {
+            journal.appendUser(user);
+        }
+        for (BankAccount bankAccount : data.getBankAccounts()) {
+            journal.appendBankAccount(bankAccount);
+        }
+        for (CostCategory costCategory : data.getCostCategories()) {
+            journal.appendCostCategory(costCategory);
+        }
+        for (Operation operation : data.operations()) {
+            journal.appendOperation(operation);
+        }
+        journal.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteJournal() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public long recover() {
+        OperationRepositoryImpl operationRepository = new OperationRepositoryImpl();
+        new OperationAggregates(operationRepository);
+        PersistenceManager manager = new PersistenceManager(new UserRepositoryImpl(), new BankAccountRepositoryImpl(),
+                new CostCategoryRepositoryImpl(), operationRepository, new SnowflakeIdGenerator(0), properties);
+        return manager.recover();
+    }
+}
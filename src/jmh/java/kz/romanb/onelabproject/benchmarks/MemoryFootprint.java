@@ -0,0 +1,47 @@
+package kz.romanb.onelabproject.benchmarks;
+
+import kz.romanb.onelabproject.repositories.ColumnarOperationRepository;
+import kz.romanb.onelabproject.repositories.OperationRepository;
+import kz.romanb.onelabproject.repositories.OperationRepositoryImpl;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+
+public class MemoryFootprint {
+    private static final long MB = 1024 * 1024;
+
+    public static void main(String[] args) {
+        String store = args.length > 0 ? args[0] : "indexed";
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        SyntheticData data = SyntheticData.generate(size);
+        long heapBefore = usedHeap();
+        long directBefore = usedDirect();
+        OperationRepository operationRepository = switch (store) {
+            case "columnar" -> new ColumnarOperationRepository(false);
+            case "columnar-off-heap" -> new ColumnarOperationRepository(true);
+            default -> new OperationRepositoryImpl();
+        };
+        data.load(operationRepository);
+        long heap = usedHeap() - heapBefore;
+        long direct = usedDirect() - directBefore;
+        System.out.printf("%s, %d operations: heap %d MB, direct %d MB, %.1f bytes/operation%n",
+                store, size, heap / MB, direct / MB, (double) (heap + direct) / size);
+        if (operationRepository.findById(1L).isEmpty()) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long usedDirect() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+}
@@ -0,0 +1,49 @@
+package kz.romanb.onelabproject.benchmarks;
+
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.repositories.OperationRepositoryImpl;
+import kz.romanb.onelabproject.services.CostTrackerService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class MoneyAggregationBenchmark {
+    @Param({"10000000"})
+    private int size;
+
+    private List<Operation> operations;
+    private BigDecimal[] amounts;
+    private CostTrackerService costTrackerService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        operations = SyntheticData.generate(size).operations();
+        amounts = operations.stream().map(Operation::getAmount).toArray(BigDecimal[]::new);
+        costTrackerService = SyntheticData.newService(new OperationRepositoryImpl());
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalReduce() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = 0; i < amounts.length; i++) {
+            if (operations.get(i).getCostCategory().getCategoryType() == CostCategory.CostCategoryType.EXPENSE) {
+                sum = sum.add(amounts[i]);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long minorUnitsSum() {
+        return costTrackerService.getSumMinor(operations, CostCategory.CostCategoryType.EXPENSE);
+    }
+}
@@ -0,0 +1,91 @@
+package kz.romanb.onelabproject.benchmarks;
+
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.OperationListener;
+import kz.romanb.onelabproject.events.EventProperties;
+import kz.romanb.onelabproject.events.OperationEventPipeline;
+import kz.romanb.onelabproject.events.WaitStrategy;
+import kz.romanb.onelabproject.repositories.OperationRepositoryImpl;
+import kz.romanb.onelabproject.services.CostTrackerService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class OperationEventPipelineBenchmark {
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+    private static final int CONSUMERS = 3;
+    private static final long CONSUMER_WORK = 500;
+
+    public enum SideEffects {
+        NONE, INLINE, PIPELINE
+    }
+
+    @State(Scope.Benchmark)
+    public static class Writes {
+        @Param({"NONE", "INLINE", "PIPELINE"})
+        private SideEffects sideEffects;
+
+        @Param({"SLEEPING"})
+        private WaitStrategy waitStrategy;
+
+        private SyntheticData data;
+        private CostTrackerService costTrackerService;
+        private OperationEventPipeline pipeline;
+        private CostCategory income;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            data = SyntheticData.generate(64_000);
+            OperationRepositoryImpl operationRepository = new OperationRepositoryImpl();
+            costTrackerService = SyntheticData.newService(operationRepository);
+            income = data.getCostCategories().get(0);
+            OperationListener sideEffect = new OperationListener() {
+                @Override
+                public void onSaved(Operation operation, Operation previous) {
+                    Blackhole.consumeCPU(CONSUMER_WORK);
+                }
+            };
+            if (sideEffects == SideEffects.INLINE) {
+                for (int i = 0; i < CONSUMERS; i++) {
+                    operationRepository.addListener(sideEffect);
+                }
+            } else if (sideEffects == SideEffects.PIPELINE) {
+                EventProperties properties = new EventProperties();
+                properties.setWaitStrategy(waitStrategy);
+                pipeline = new OperationEventPipeline(operationRepository, properties);
+                for (int i = 0; i < CONSUMERS; i++) {
+                    pipeline.addConsumer("consumer-" + i, sideEffect);
+                }
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            if (pipeline != null) {
+                pipeline.shutdown();
+                pipeline = null;
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadRandom {
+        private final SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+    }
+
+    @Benchmark
+    public Operation createOperation(Writes writes, ThreadRandom random) {
+        BankAccount bankAccount = writes.data.getBankAccounts().get(random.random.nextInt(writes.data.getBankAccounts().size()));
+        return writes.costTrackerService.createOperation(bankAccount, writes.income, AMOUNT);
+    }
+}
@@ -0,0 +1,69 @@
+package kz.romanb.onelabproject.benchmarks;
+
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.repositories.OperationRepositoryImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class OperationRepositoryBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    private int size;
+
+    private SyntheticData data;
+    private OperationRepositoryImpl operationRepository;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = SyntheticData.generate(size);
+        operationRepository = new OperationRepositoryImpl();
+        data.load(operationRepository);
+        random = new SplittableRandom(SyntheticData.SEED);
+    }
+
+    @Benchmark
+    public Optional<Operation> findById() {
+        return operationRepository.findById(1L + random.nextInt(size));
+    }
+
+    @Benchmark
+    public List<Operation> findAllOperationsByBankAccount() {
+        BankAccount bankAccount = data.getBankAccounts().get(random.nextInt(data.getBankAccounts().size()));
+        return operationRepository.findAllOperationsByBankAccount(bankAccount);
+    }
+
+    @Benchmark
+    public List<Operation> findAllOperationsByCostCategory() {
+        CostCategory costCategory = data.getCostCategories().get(random.nextInt(data.getCostCategories().size()));
+        return operationRepository.findAllOperationsByCostCategory(costCategory);
+    }
+
+    @Benchmark
+    public List<Operation> findAllOperationsByUser() {
+        return operationRepository.findAllOperationsByUser(data.user(random));
+    }
+
+    @Benchmark
+    public List<Operation> findAllOperationsForDate() {
+        return operationRepository.findAllOperationsForDate(SyntheticData.START_DATE.plusDays(random.nextInt(SyntheticData.DAYS)));
+    }
+
+    @Benchmark
+    public List<Operation> findAllOperationsBetweenDatesWeek() {
+        LocalDate start = SyntheticData.START_DATE.plusDays(random.nextInt(SyntheticData.DAYS - 7));
+        return operationRepository.findAllOperationsBetweenDates(start, start.plusDays(6));
+    }
+}
@@ -0,0 +1,74 @@
+package kz.romanb.onelabproject.benchmarks;
+
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.repositories.ShardedOperationRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class ShardedOperationRepositoryBenchmark {
+    @Param({"1000000"})
+    private int size;
+
+    @Param({"1", "4", "16"})
+    private int shards;
+
+    private SyntheticData data;
+    private ShardedOperationRepository operationRepository;
+    private AtomicLong ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = SyntheticData.generate(size);
+        operationRepository = new ShardedOperationRepository(shards);
+        data.load(operationRepository);
+        ids = new AtomicLong(size);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Operation save() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BankAccount bankAccount = data.getBankAccounts().get(random.nextInt(data.getBankAccounts().size()));
+        CostCategory costCategory = data.getCostCategories().get(random.nextInt(data.getCostCategories().size()));
+        return operationRepository.save(Operation.builder()
+                .id(ids.incrementAndGet())
+                .bankAccount(bankAccount)
+                .costCategory(costCategory)
+                .amountMinor(1 + random.nextInt(100_000))
+                .date(SyntheticData.START_DATE.plusDays(random.nextInt(SyntheticData.DAYS)))
+                .build());
+    }
+
+    @Benchmark
+    public List<Operation> findAllOperationsByUser() {
+        return operationRepository.findAllOperationsByUser(data.user(new SplittableRandom(ThreadLocalRandom.current().nextLong())));
+    }
+
+    @Benchmark
+    public List<Operation> findAllOperationsForDate() {
+        return operationRepository.findAllOperationsForDate(
+                SyntheticData.START_DATE.plusDays(ThreadLocalRandom.current().nextInt(SyntheticData.DAYS)));
+    }
+
+    @Benchmark
+    public long streamAllOperationsBetweenDatesPage() {
+        int day = ThreadLocalRandom.current().nextInt(SyntheticData.DAYS - 30);
+        return operationRepository.streamAllOperationsBetweenDates(
+                        SyntheticData.START_DATE.plusDays(day), SyntheticData.START_DATE.plusDays(day + 30), null)
+                .limit(100)
+                .count();
+    }
+}
@@ -0,0 +1,106 @@
+package kz.romanb.onelabproject.benchmarks;
+
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.User;
+import kz.romanb.onelabproject.repositories.OperationRepository;
+import kz.romanb.onelabproject.repositories.OperationRepositoryImpl;
+import kz.romanb.onelabproject.services.CostTrackerFixture;
+import kz.romanb.onelabproject.services.CostTrackerService;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+@Getter
+public class SyntheticData {
+    public static final long SEED = 20241017L;
+    public static final LocalDate START_DATE = LocalDate.of(2022, 1, 1);
+    public static final int DAYS = 3 * 365;
+
+    private static final int OPERATIONS_PER_USER = 1_000;
+    private static final int ACCOUNTS_PER_USER = 3;
+    private static final int CATEGORIES_PER_USER = 6;
+    private static final int BATCH_SIZE = 100_000;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<BankAccount> bankAccounts = new ArrayList<>();
+    private final List<CostCategory> costCategories = new ArrayList<>();
+    private final int operations;
+    private final long seed;
+
+    private SyntheticData(int operations, long seed) {
+        this.operations = operations;
+        this.seed = seed;
+        int userCount = Math.max(1, operations / OPERATIONS_PER_USER);
+        for (long u = 1; u <= userCount; u++) {
+            User user = User.builder().id(u).name("User " + u).build();
+            for (int a = 0; a < ACCOUNTS_PER_USER; a++) {
+                BankAccount bankAccount = BankAccount.builder()
+                        .id(u * ACCOUNTS_PER_USER + a)
+                        .userId(u)
+                        .name("Account " + a)
+                        .balanceMinor(1_000_000_000_000L)
+                        .build();
+                user.getBankAccounts().add(bankAccount);
+                bankAccounts.add(bankAccount);
+            }
+            for (int c = 0; c < CATEGORIES_PER_USER; c++) {
+                CostCategory costCategory = CostCategory.builder()
+                        .id(u * CATEGORIES_PER_USER + c)
+                        .userId(u)
+                        .name("Category " + c)
+                        .categoryType(c == 0 ? CostCategory.CostCategoryType.INCOME : CostCategory.CostCategoryType.EXPENSE)
+                        .build();
+                user.getCostCategories().add(costCategory);
+                costCategories.add(costCategory);
+            }
+            users.add(user);
+        }
+    }
+
+    public static SyntheticData generate(int operations) {
+        return new SyntheticData(operations, SEED);
+    }
+
+    public List<Operation> operations() {
+        List<Operation> result = new ArrayList<>(operations);
+        forEachBatch(BATCH_SIZE, result::addAll);
+        return result;
+    }
+
+    public void forEachBatch(int batchSize, Consumer<List<Operation>> consumer) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Operation> batch = new ArrayList<>(batchSize);
+        for (int i = 1; i <= operations; i++) {
+            User user = users.get(random.nextInt(users.size()));
+            batch.add(Operation.builder()
+                    .id(i)
+                    .bankAccount(user.getBankAccounts().get(random.nextInt(ACCOUNTS_PER_USER)))
+                    .costCategory(user.getCostCategories().get(random.nextInt(CATEGORIES_PER_USER)))
+                    .amountMinor(random.nextLong(100, 10_000_000))
+                    .date(START_DATE.plusDays(random.nextInt(DAYS)))
+                    .build());
+            if (batch.size() == batchSize || i == operations) {
+                consumer.accept(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+    }
+
+    public void load(OperationRepository operationRepository) {
+        forEachBatch(BATCH_SIZE, operationRepository::saveAll);
+    }
+
+    public User user(SplittableRandom random) {
+        return users.get(random.nextInt(users.size()));
+    }
+
+    public static CostTrackerService newService(OperationRepositoryImpl operationRepository) {
+        return new CostTrackerFixture(operationRepository).getCostTrackerService();
+    }
+}
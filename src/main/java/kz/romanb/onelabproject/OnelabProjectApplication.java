@@ -8,7 +8,9 @@ import kz.romanb.onelabproject.services.CostTrackerService;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -18,54 +20,60 @@ import java.util.List;
 public class OnelabProjectApplication {
 
     public static void main(String[] args) {
-        var context = SpringApplication.run(OnelabProjectApplication.class, args);
-        CostTrackerService costTrackerService = context.getBean(CostTrackerService.class);
-
-        User roman = costTrackerService.findUserById(1L).get();
-
-        getUserInfo(roman);
-
-        System.out.println("---------------------------------------");
-
-        User alex = costTrackerService.findUserById(2L).get();
-
-        getUserInfo(alex);
-
-        costTrackerService.createOperation(roman.getBankAccounts().get(0), roman.getCostCategories().get(1), new BigDecimal(515));
-        costTrackerService.createOperation(roman.getBankAccounts().get(1), roman.getCostCategories().get(2), new BigDecimal(1000));
-        costTrackerService.createOperation(roman.getBankAccounts().get(0), roman.getCostCategories().get(1), new BigDecimal(8866));
-
-        System.out.println("Все операции: ");
-        List<Operation> allOperations = costTrackerService.findAllOperations();
-        allOperations.forEach(System.out::println);
-        System.out.println();
-
-        System.out.println("Все операции пользователя " + roman.getName());
-        List<Operation> romanOperations = costTrackerService.findAllOperationsByUser(roman);
-        romanOperations.forEach(System.out::println);
-        System.out.println("Расходы - " + costTrackerService.getSum(romanOperations, CostCategory.CostCategoryType.EXPENSE));
-        System.out.println("Доходы - " + costTrackerService.getSum(romanOperations, CostCategory.CostCategoryType.INCOME));
-        System.out.println();
-
-        System.out.println("Все операции пользователя " + roman.getName() + " по категории " + roman.getCostCategories().get(1).getName());
-        List<Operation> romanCostCategoryOperations = costTrackerService.findAllOperationsByCostCategory(roman.getCostCategories().get(1));
-        romanCostCategoryOperations.forEach(System.out::println);
-        System.out.println("Сумма - " + costTrackerService.getSum(romanCostCategoryOperations, roman.getCostCategories().get(1).getCategoryType()));
-        System.out.println();
-
-        System.out.println("Все операции пользователя " + roman.getName() + " на 17.10.2024: ");
-        List<Operation> romanDateOperations = costTrackerService.findAllOperationsForDate(LocalDate.of(2024, 10, 17));
-        romanDateOperations.forEach(System.out::println);
-        System.out.println("Расходы - " + costTrackerService.getSum(romanDateOperations, CostCategory.CostCategoryType.EXPENSE));
-        System.out.println("Доходы - " + costTrackerService.getSum(romanDateOperations, CostCategory.CostCategoryType.INCOME));
-        System.out.println();
+        SpringApplication.run(OnelabProjectApplication.class, args);
+    }
 
-        System.out.println("Все операции пользователя " + roman.getName() + " c 03.10.2024 по 13.10.2024: ");
-        List<Operation> romanDatesOperations = costTrackerService.findAllOperationsBetweenDates(LocalDate.of(2024, 10, 3), LocalDate.of(2024, 10, 13));
-        romanDatesOperations.forEach(System.out::println);
-        System.out.println("Расходы - " + costTrackerService.getSum(romanDatesOperations, CostCategory.CostCategoryType.EXPENSE));
-        System.out.println("Доходы - " + costTrackerService.getSum(romanDatesOperations, CostCategory.CostCategoryType.INCOME));
-        System.out.println();
+    @Bean
+    @Order(1)
+    @ConditionalOnProperty(prefix = "onelab.loadtest", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public CommandLineRunner demo(CostTrackerService costTrackerService) {
+        return args -> {
+            User roman = costTrackerService.findUserById(1L).get();
+
+            getUserInfo(roman);
+
+            System.out.println("---------------------------------------");
+
+            User alex = costTrackerService.findUserById(2L).get();
+
+            getUserInfo(alex);
+
+            costTrackerService.createOperation(roman.getBankAccounts().get(0), roman.getCostCategories().get(1), new BigDecimal(515));
+            costTrackerService.createOperation(roman.getBankAccounts().get(1), roman.getCostCategories().get(2), new BigDecimal(1000));
+            costTrackerService.createOperation(roman.getBankAccounts().get(0), roman.getCostCategories().get(1), new BigDecimal(8866));
+
+            System.out.println("Все операции: ");
+            List<Operation> allOperations = costTrackerService.findAllOperations();
+            allOperations.forEach(System.out::println);
+            System.out.println();
+
+            System.out.println("Все операции пользователя " + roman.getName());
+            List<Operation> romanOperations = costTrackerService.findAllOperationsByUser(roman);
+            romanOperations.forEach(System.out::println);
+            System.out.println("Расходы - " + costTrackerService.getSum(roman, CostCategory.CostCategoryType.EXPENSE));
+            System.out.println("Доходы - " + costTrackerService.getSum(roman, CostCategory.CostCategoryType.INCOME));
+            System.out.println();
+
+            System.out.println("Все операции пользователя " + roman.getName() + " по категории " + roman.getCostCategories().get(1).getName());
+            List<Operation> romanCostCategoryOperations = costTrackerService.findAllOperationsByCostCategory(roman.getCostCategories().get(1));
+            romanCostCategoryOperations.forEach(System.out::println);
+            System.out.println("Сумма - " + costTrackerService.getSum(roman.getCostCategories().get(1)));
+            System.out.println();
+
+            System.out.println("Все операции пользователя " + roman.getName() + " на 17.10.2024: ");
+            List<Operation> romanDateOperations = costTrackerService.findAllOperationsForDate(LocalDate.of(2024, 10, 17));
+            romanDateOperations.forEach(System.out::println);
+            System.out.println("Расходы - " + costTrackerService.getSum(CostCategory.CostCategoryType.EXPENSE, LocalDate.of(2024, 10, 17), LocalDate.of(2024, 10, 17)));
+            System.out.println("Доходы - " + costTrackerService.getSum(CostCategory.CostCategoryType.INCOME, LocalDate.of(2024, 10, 17), LocalDate.of(2024, 10, 17)));
+            System.out.println();
+
+            System.out.println("Все операции пользователя " + roman.getName() + " c 03.10.2024 по 13.10.2024: ");
+            List<Operation> romanDatesOperations = costTrackerService.findAllOperationsBetweenDates(LocalDate.of(2024, 10, 3), LocalDate.of(2024, 10, 13));
+            romanDatesOperations.forEach(System.out::println);
+            System.out.println("Расходы - " + costTrackerService.getSum(CostCategory.CostCategoryType.EXPENSE, LocalDate.of(2024, 10, 3), LocalDate.of(2024, 10, 13)));
+            System.out.println("Доходы - " + costTrackerService.getSum(CostCategory.CostCategoryType.INCOME, LocalDate.of(2024, 10, 3), LocalDate.of(2024, 10, 13)));
+            System.out.println();
+        };
     }
 
     private static void getUserInfo(User user) {
@@ -94,8 +102,13 @@ public class OnelabProjectApplication {
     }
 
     @Bean
+    @Order(0)
+    @ConditionalOnProperty(prefix = "onelab.loadtest", name = "enabled", havingValue = "false", matchIfMissing = true)
     public CommandLineRunner dataLoader(CostTrackerService costTrackerService) {
         return args -> {
+            if (!costTrackerService.findAllUsers().isEmpty()) {
+                return;
+            }
             User roman = costTrackerService.createNewUser(User.builder()
                     .id(1L)
                     .name("Roman")
@@ -143,14 +156,14 @@ public class OnelabProjectApplication {
                             .categoryType(CostCategory.CostCategoryType.INCOME)
                             .build()
             );
-            costTrackerService.createOperation(roman.getBankAccounts().get(0), roman.getCostCategories().get(1), new BigDecimal("1330.7"));
-            costTrackerService.createOperation(roman.getBankAccounts().get(0), roman.getCostCategories().get(0), new BigDecimal(6000));
-            costTrackerService.createOperation(roman.getBankAccounts().get(0), roman.getCostCategories().get(1), new BigDecimal("2861.52"));
-            costTrackerService.createOperation(roman.getBankAccounts().get(0), roman.getCostCategories().get(3), new BigDecimal("9831.07"));
-            costTrackerService.findOperationById(1L).get().setDate(LocalDate.of(2024, 10, 13));
-            costTrackerService.findOperationById(2L).get().setDate(LocalDate.of(2024, 10, 13));
-            costTrackerService.findOperationById(3L).get().setDate(LocalDate.of(2024, 10, 3));
-            costTrackerService.findOperationById(4L).get().setDate(LocalDate.of(2024, 10, 1));
+            Operation first = costTrackerService.createOperation(roman.getBankAccounts().get(0), roman.getCostCategories().get(1), new BigDecimal("1330.7"));
+            Operation second = costTrackerService.createOperation(roman.getBankAccounts().get(0), roman.getCostCategories().get(0), new BigDecimal(6000));
+            Operation third = costTrackerService.createOperation(roman.getBankAccounts().get(0), roman.getCostCategories().get(1), new BigDecimal("2861.52"));
+            Operation fourth = costTrackerService.createOperation(roman.getBankAccounts().get(0), roman.getCostCategories().get(3), new BigDecimal("9831.07"));
+            costTrackerService.findOperationById(first.getId()).get().setDate(LocalDate.of(2024, 10, 13));
+            costTrackerService.findOperationById(second.getId()).get().setDate(LocalDate.of(2024, 10, 13));
+            costTrackerService.findOperationById(third.getId()).get().setDate(LocalDate.of(2024, 10, 3));
+            costTrackerService.findOperationById(fourth.getId()).get().setDate(LocalDate.of(2024, 10, 1));
 
             User alex = costTrackerService.createNewUser(User.builder()
                     .id(2L)
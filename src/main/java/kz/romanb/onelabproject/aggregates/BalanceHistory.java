@@ -0,0 +1,145 @@
+package kz.romanb.onelabproject.aggregates;
+
+import kz.romanb.onelabproject.dto.BalancePoint;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.OperationListener;
+import kz.romanb.onelabproject.repositories.OperationRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class BalanceHistory implements OperationListener {
+    public static final int MAX_SERIES_DAYS = 3_660;
+
+    private final Map<Long, Account> accounts = new ConcurrentHashMap<>();
+
+    public BalanceHistory(OperationRepository operationRepository) {
+        operationRepository.addListener(this);
+    }
+
+    @Override
+    public void onSaved(Operation operation, Operation previous) {
+        if (previous == operation) {
+            return;
+        }
+        if (previous != null) {
+            apply(previous, previous.getDate(), -signedAmount(previous, previous.getAmountMinor()));
+        }
+        apply(operation, operation.getDate(), signedAmount(operation, operation.getAmountMinor()));
+    }
+
+    @Override
+    public void onDateChanged(Operation operation, LocalDate oldDate) {
+        long amount = signedAmount(operation, operation.getAmountMinor());
+        apply(operation, oldDate, -amount);
+        apply(operation, operation.getDate(), amount);
+    }
+
+    @Override
+    public void onAmountChanged(Operation operation, long oldAmountMinor) {
+        apply(operation, operation.getDate(), signedAmount(operation, operation.getAmountMinor() - oldAmountMinor));
+    }
+
+    public long getBalanceAsOf(long bankAccountId, long currentBalanceMinor, LocalDate date) {
+        Account account = accounts.get(bankAccountId);
+        return account == null ? currentBalanceMinor : account.balanceAsOf(currentBalanceMinor, date.toEpochDay());
+    }
+
+    public List<BalancePoint> getBalanceSeries(long bankAccountId, long currentBalanceMinor, LocalDate startDate, LocalDate endDate) {
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_SERIES_DAYS) {
+            throw new IllegalArgumentException("Период графика баланса не может превышать " + MAX_SERIES_DAYS + " дней");
+        }
+        Account account = accounts.get(bankAccountId);
+        if (account == null) {
+            List<BalancePoint> points = new ArrayList<>();
+            for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+                points.add(new BalancePoint(date, currentBalanceMinor));
+            }
+            return points;
+        }
+        return account.series(currentBalanceMinor, startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    private void apply(Operation operation, LocalDate date, long amount) {
+        if (operation.getBankAccount() == null || date == null || amount == 0) {
+            return;
+        }
+        accounts.computeIfAbsent(operation.getBankAccount().getId(), k -> new Account()).add(date.toEpochDay(), amount);
+    }
+
+    private static long signedAmount(Operation operation, long amountMinor) {
+        CostCategory costCategory = operation.getCostCategory();
+        if (costCategory == null) {
+            return 0;
+        }
+        return costCategory.getCategoryType() == CostCategory.CostCategoryType.EXPENSE ? -amountMinor : amountMinor;
+    }
+
+    private static long month(long epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return date.getYear() * 12L + date.getMonthValue() - 1;
+    }
+
+    private static class Account {
+        private final TreeMap<Long, Long> days = new TreeMap<>();
+        private final TreeMap<Long, Long> checkpoints = new TreeMap<>();
+        private long total;
+
+        private synchronized void add(long epochDay, long amount) {
+            days.merge(epochDay, amount, Long::sum);
+            total = Math.addExact(total, amount);
+            long month = month(epochDay);
+            checkpoints.computeIfAbsent(month, this::closingBefore);
+            for (Map.Entry<Long, Long> checkpoint : checkpoints.tailMap(month, true).entrySet()) {
+                checkpoint.setValue(Math.addExact(checkpoint.getValue(), amount));
+            }
+        }
+
+        private synchronized long balanceAsOf(long currentBalance, long epochDay) {
+            return currentBalance - total + closingAt(epochDay);
+        }
+
+        private synchronized List<BalancePoint> series(long currentBalance, long startEpochDay, long endEpochDay) {
+            List<BalancePoint> points = new ArrayList<>((int) Math.max(0, endEpochDay - startEpochDay + 1));
+            if (startEpochDay > endEpochDay) {
+                return points;
+            }
+            long balance = currentBalance - total + closingAt(startEpochDay);
+            points.add(new BalancePoint(LocalDate.ofEpochDay(startEpochDay), balance));
+            Iterator<Map.Entry<Long, Long>> changes = days.subMap(startEpochDay, false, endEpochDay, true).entrySet().iterator();
+            Map.Entry<Long, Long> change = changes.hasNext() ? changes.next() : null;
+            for (long day = startEpochDay + 1; day <= endEpochDay; day++) {
+                if (change != null && change.getKey() == day) {
+                    balance += change.getValue();
+                    change = changes.hasNext() ? changes.next() : null;
+                }
+                points.add(new BalancePoint(LocalDate.ofEpochDay(day), balance));
+            }
+            return points;
+        }
+
+        private long closingAt(long epochDay) {
+            long month = month(epochDay);
+            long firstDay = LocalDate.ofEpochDay(epochDay).withDayOfMonth(1).toEpochDay();
+            long result = closingBefore(month);
+            for (long amount : days.subMap(firstDay, true, epochDay, true).values()) {
+                result += amount;
+            }
+            return result;
+        }
+
+        private long closingBefore(long month) {
+            Map.Entry<Long, Long> checkpoint = checkpoints.floorEntry(month - 1);
+            return checkpoint == null ? 0 : checkpoint.getValue();
+        }
+    }
+}
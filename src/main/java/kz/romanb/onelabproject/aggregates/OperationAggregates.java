@@ -0,0 +1,217 @@
+package kz.romanb.onelabproject.aggregates;
+
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.OperationListener;
+import kz.romanb.onelabproject.repositories.OperationRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Component
+public class OperationAggregates implements OperationListener {
+    private static final long ALL = 0L;
+
+    private final Map<Key, Series> series = new ConcurrentHashMap<>();
+
+    public OperationAggregates(OperationRepository operationRepository) {
+        operationRepository.addListener(this);
+    }
+
+    public enum Dimension {
+        USER, BANK_ACCOUNT, COST_CATEGORY, CATEGORY_TYPE
+    }
+
+    @Override
+    public void onSaved(Operation operation, Operation previous) {
+        if (previous == operation) {
+            return;
+        }
+        if (previous != null) {
+            apply(previous, previous.getDate(), -previous.getAmountMinor(), -1);
+        }
+        apply(operation, operation.getDate(), operation.getAmountMinor(), 1);
+    }
+
+    @Override
+    public void onDateChanged(Operation operation, LocalDate oldDate) {
+        apply(operation, oldDate, -operation.getAmountMinor(), -1);
+        apply(operation, operation.getDate(), operation.getAmountMinor(), 1);
+    }
+
+    @Override
+    public void onAmountChanged(Operation operation, long oldAmountMinor) {
+        apply(operation, operation.getDate(), operation.getAmountMinor() - oldAmountMinor, 0);
+    }
+
+    public long getSum(Dimension dimension, long id, CostCategory.CostCategoryType categoryType) {
+        Series s = series.get(Key.of(dimension, id, categoryType));
+        return s == null ? 0 : s.total(true);
+    }
+
+    public long getSum(Dimension dimension, long id, CostCategory.CostCategoryType categoryType, LocalDate startDate, LocalDate endDate) {
+        Series s = series.get(Key.of(dimension, id, categoryType));
+        return s == null || startDate.isAfter(endDate) ? 0 : s.fold(startDate, endDate, true);
+    }
+
+    public long getMonthSum(Dimension dimension, long id, CostCategory.CostCategoryType categoryType, YearMonth month) {
+        Series s = series.get(Key.of(dimension, id, categoryType));
+        return s == null ? 0 : s.month(month);
+    }
+
+    public long getCount(Dimension dimension, long id, CostCategory.CostCategoryType categoryType) {
+        Series s = series.get(Key.of(dimension, id, categoryType));
+        return s == null ? 0 : s.total(false);
+    }
+
+    public long getCount(Dimension dimension, long id, CostCategory.CostCategoryType categoryType, LocalDate startDate, LocalDate endDate) {
+        Series s = series.get(Key.of(dimension, id, categoryType));
+        return s == null || startDate.isAfter(endDate) ? 0 : s.fold(startDate, endDate, false);
+    }
+
+    private void apply(Operation operation, LocalDate date, long amount, int count) {
+        CostCategory costCategory = operation.getCostCategory();
+        BankAccount bankAccount = operation.getBankAccount();
+        if (costCategory == null || date == null) {
+            return;
+        }
+        CostCategory.CostCategoryType categoryType = costCategory.getCategoryType();
+        if (bankAccount != null) {
+            add(new Key(Dimension.BANK_ACCOUNT, bankAccount.getId(), categoryType), date, amount, count);
+            if (bankAccount.getUserId() != null) {
+                add(new Key(Dimension.USER, bankAccount.getUserId(), categoryType), date, amount, count);
+            }
+        }
+        if (costCategory.getId() != null) {
+            add(new Key(Dimension.COST_CATEGORY, costCategory.getId(), categoryType), date, amount, count);
+        }
+        add(new Key(Dimension.CATEGORY_TYPE, ALL, categoryType), date, amount, count);
+    }
+
+    private void add(Key key, LocalDate date, long amount, int count) {
+        Series s = series.get(key);
+        if (s == null) {
+            s = series.computeIfAbsent(key, k -> new Series());
+        }
+        s.add(date, amount, count);
+    }
+
+    private record Key(Dimension dimension, long id, CostCategory.CostCategoryType categoryType) {
+        private static Key of(Dimension dimension, long id, CostCategory.CostCategoryType categoryType) {
+            return new Key(dimension, dimension == Dimension.CATEGORY_TYPE ? ALL : id, categoryType);
+        }
+    }
+
+    private static class Year {
+        private final int year;
+        private final long firstEpochDay;
+        private final AtomicLongArray daySums = new AtomicLongArray(366);
+        private final AtomicLongArray dayCounts = new AtomicLongArray(366);
+        private final AtomicLongArray monthSums = new AtomicLongArray(12);
+        private final AtomicLongArray monthCounts = new AtomicLongArray(12);
+
+        private Year(int year) {
+            this.year = year;
+            this.firstEpochDay = LocalDate.ofYearDay(year, 1).toEpochDay();
+        }
+
+        private void add(LocalDate date, long amount, int count) {
+            int day = date.getDayOfYear() - 1;
+            int month = date.getMonthValue() - 1;
+            daySums.addAndGet(day, amount);
+            monthSums.addAndGet(month, amount);
+            if (count != 0) {
+                dayCounts.addAndGet(day, count);
+                monthCounts.addAndGet(month, count);
+            }
+        }
+
+        private long days(long fromEpochDay, long toEpochDay, boolean sum) {
+            AtomicLongArray values = sum ? daySums : dayCounts;
+            long result = 0;
+            for (int i = (int) (fromEpochDay - firstEpochDay); i <= toEpochDay - firstEpochDay; i++) {
+                result = Math.addExact(result, values.get(i));
+            }
+            return result;
+        }
+
+        private long months(int fromMonth, int toMonth, boolean sum) {
+            AtomicLongArray values = sum ? monthSums : monthCounts;
+            long result = 0;
+            for (int i = fromMonth - 1; i <= toMonth - 1; i++) {
+                result = Math.addExact(result, values.get(i));
+            }
+            return result;
+        }
+    }
+
+    private static class Series {
+        private final Map<Integer, Year> years = new ConcurrentHashMap<>();
+        private final AtomicLong totalSum = new AtomicLong();
+        private final AtomicLong totalCount = new AtomicLong();
+        private volatile Year lastYear;
+
+        private void add(LocalDate date, long amount, int count) {
+            year(date.getYear()).add(date, amount, count);
+            totalSum.addAndGet(amount);
+            if (count != 0) {
+                totalCount.addAndGet(count);
+            }
+        }
+
+        private long total(boolean sum) {
+            return sum ? totalSum.get() : totalCount.get();
+        }
+
+        private long month(YearMonth month) {
+            Year year = years.get(month.getYear());
+            return year == null ? 0 : year.monthSums.get(month.getMonthValue() - 1);
+        }
+
+        private long fold(LocalDate startDate, LocalDate endDate, boolean sum) {
+            long result = 0;
+            for (int y = startDate.getYear(); y <= endDate.getYear(); y++) {
+                Year year = years.get(y);
+                if (year == null) {
+                    continue;
+                }
+                LocalDate from = y == startDate.getYear() ? startDate : LocalDate.of(y, 1, 1);
+                LocalDate to = y == endDate.getYear() ? endDate : LocalDate.of(y, 12, 31);
+                result = Math.addExact(result, fold(year, from, to, sum));
+            }
+            return result;
+        }
+
+        private static long fold(Year year, LocalDate from, LocalDate to, boolean sum) {
+            LocalDate firstFullMonth = from.getDayOfMonth() == 1
+                    ? from
+                    : from.with(TemporalAdjusters.firstDayOfNextMonth());
+            LocalDate lastFullMonth = to.equals(to.with(TemporalAdjusters.lastDayOfMonth()))
+                    ? to
+                    : to.withDayOfMonth(1).minusDays(1);
+            if (firstFullMonth.isAfter(lastFullMonth)) {
+                return year.days(from.toEpochDay(), to.toEpochDay(), sum);
+            }
+            return year.days(from.toEpochDay(), firstFullMonth.toEpochDay() - 1, sum)
+                    + year.months(firstFullMonth.getMonthValue(), lastFullMonth.getMonthValue(), sum)
+                    + year.days(lastFullMonth.toEpochDay() + 1, to.toEpochDay(), sum);
+        }
+
+        private Year year(int y) {
+            Year year = lastYear;
+            if (year != null && year.year == y) {
+                return year;
+            }
+            year = years.computeIfAbsent(y, Year::new);
+            lastYear = year;
+            return year;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package kz.romanb.onelabproject.async;
+
+import jakarta.annotation.PreDestroy;
+import kz.romanb.onelabproject.dto.BatchMode;
+import kz.romanb.onelabproject.dto.BatchResult;
+import kz.romanb.onelabproject.dto.OperationRequest;
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.User;
+import kz.romanb.onelabproject.reports.Report;
+import kz.romanb.onelabproject.reports.ReportRequest;
+import kz.romanb.onelabproject.services.CostTrackerService;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+@Service
+@EnableConfigurationProperties(AsyncProperties.class)
+public class AsyncCostTrackerService {
+    private final CostTrackerService costTrackerService;
+    private final AsyncProperties properties;
+    private final ExecutorService executor;
+
+    public AsyncCostTrackerService(CostTrackerService costTrackerService, AsyncProperties properties) {
+        this.costTrackerService = costTrackerService;
+        this.properties = properties;
+        this.executor = AsyncExecutors.create(properties);
+    }
+
+    public <T> CompletableFuture<T> call(Function<CostTrackerService, T> call) {
+        return call(call, properties.getTimeout());
+    }
+
+    public <T> CompletableFuture<T> call(Function<CostTrackerService, T> call, Duration timeout) {
+        return write(call).orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    public <T> CompletableFuture<T> write(Function<CostTrackerService, T> write) {
+        return CompletableFuture.supplyAsync(() -> write.apply(costTrackerService), executor);
+    }
+
+    public CompletableFuture<Optional<User>> findUserById(Long id) {
+        return call(s -> s.findUserById(id));
+    }
+
+    public CompletableFuture<List<Operation>> findAllOperationsByUser(User user) {
+        return call(s -> s.findAllOperationsByUser(user));
+    }
+
+    public CompletableFuture<BigDecimal> getSum(User user, CostCategory.CostCategoryType categoryType, LocalDate startDate, LocalDate endDate) {
+        return call(s -> s.getSum(user, categoryType, startDate, endDate));
+    }
+
+    public CompletableFuture<BigDecimal> getBalanceAsOf(BankAccount bankAccount, LocalDate date) {
+        return call(s -> s.getBalanceAsOf(bankAccount, date));
+    }
+
+    public CompletableFuture<Report> buildReport(ReportRequest request) {
+        return call(s -> s.buildReport(request));
+    }
+
+    public CompletableFuture<Operation> createOperation(BankAccount bankAccount, CostCategory costCategory, BigDecimal amount) {
+        return write(s -> s.createOperation(bankAccount, costCategory, amount));
+    }
+
+    public CompletableFuture<BatchResult> createOperations(List<OperationRequest> requests, BatchMode mode) {
+        return write(s -> s.createOperations(requests, mode));
+    }
+
+    public CompletableFuture<UserDashboard> loadDashboard(Long userId, YearMonth month) {
+        LocalDate startDate = month.atDay(1);
+        LocalDate endDate = month.atEndOfMonth();
+        return call(s -> s.findUserById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("Пользователь с id " + userId + " не найден")))
+                .thenCompose(user -> {
+                    CompletableFuture<List<BankAccount>> bankAccounts = call(s -> List.copyOf(user.getBankAccounts()));
+                    CompletableFuture<List<CostCategory>> costCategories = call(s -> List.copyOf(user.getCostCategories()));
+                    CompletableFuture<List<Operation>> recentOperations = call(s -> s
+                            .findOperationsPageByUser(user, null, properties.getRecentOperations())
+                            .getOperations());
+                    CompletableFuture<BigDecimal> income = getSum(user, CostCategory.CostCategoryType.INCOME, startDate, endDate);
+                    CompletableFuture<BigDecimal> expense = getSum(user, CostCategory.CostCategoryType.EXPENSE, startDate, endDate);
+                    return CompletableFuture.allOf(bankAccounts, costCategories, recentOperations, income, expense)
+                            .thenApply(v -> new UserDashboard(user, month, bankAccounts.join(), costCategories.join(),
+                                    recentOperations.join(), income.join(), expense.join()));
+                })
+                .orTimeout(properties.getTimeout().toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,57 @@
+package kz.romanb.onelabproject.async;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public final class AsyncExecutors {
+    private AsyncExecutors() {
+    }
+
+    public static ExecutorService create(AsyncProperties properties) {
+        if (properties.getExecutor() != AsyncProperties.ExecutorType.PLATFORM) {
+            ExecutorService virtual = virtualThreadPerTask();
+            if (virtual != null) {
+                log.info("Асинхронные вызовы выполняются на виртуальных потоках");
+                return virtual;
+            }
+            if (properties.getExecutor() == AsyncProperties.ExecutorType.VIRTUAL) {
+                throw new IllegalStateException("Виртуальные потоки не поддерживаются в Java " + Runtime.version().feature());
+            }
+        }
+        log.info("Асинхронные вызовы выполняются в пуле из {} потоков", properties.getPoolSize());
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(properties.getPoolSize(), properties.getPoolSize(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()), daemon("cost-tracker-async"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ExecutorService virtualThreadPerTask() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Не удалось создать исполнитель на виртуальных потоках", e);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package kz.romanb.onelabproject.async;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "onelab.async")
+public class AsyncProperties {
+    private ExecutorType executor = ExecutorType.AUTO;
+    private int poolSize = Runtime.getRuntime().availableProcessors() * 4;
+    private int queueCapacity = 10_000;
+    private Duration timeout = Duration.ofSeconds(5);
+    private int recentOperations = 20;
+
+    public enum ExecutorType {
+        AUTO, VIRTUAL, PLATFORM
+    }
+}
@@ -0,0 +1,26 @@
+package kz.romanb.onelabproject.async;
+
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class UserDashboard {
+    private final User user;
+    private final YearMonth month;
+    private final List<BankAccount> bankAccounts;
+    private final List<CostCategory> costCategories;
+    private final List<Operation> recentOperations;
+    private final BigDecimal income;
+    private final BigDecimal expense;
+}
@@ -0,0 +1,5 @@
+package kz.romanb.onelabproject.budgets;
+
+public interface BudgetListener {
+    void onBudgetWarning(BudgetWarning warning);
+}
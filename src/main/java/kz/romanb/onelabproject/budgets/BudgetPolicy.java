@@ -0,0 +1,5 @@
+package kz.romanb.onelabproject.budgets;
+
+public enum BudgetPolicy {
+    REJECT, WARN
+}
@@ -0,0 +1,34 @@
+package kz.romanb.onelabproject.budgets;
+
+import kz.romanb.onelabproject.utils.Money;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+@Getter
+@ToString
+@Builder
+public class BudgetRule {
+    private final long limitMinor;
+    @Builder.Default
+    private final int warningPercent = 80;
+    @Builder.Default
+    private final BudgetPolicy policy = BudgetPolicy.REJECT;
+
+    public BigDecimal getLimit() {
+        return Money.toBigDecimal(limitMinor);
+    }
+
+    public long getWarningMinor() {
+        return Math.multiplyExact(limitMinor, warningPercent) / 100;
+    }
+
+    public static class BudgetRuleBuilder {
+        public BudgetRuleBuilder limit(BigDecimal limit) {
+            this.limitMinor = Money.toMinorUnits(limit);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package kz.romanb.onelabproject.budgets;
+
+import kz.romanb.onelabproject.aggregates.OperationAggregates;
+import kz.romanb.onelabproject.concurrent.StripedLock;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.OperationListener;
+import kz.romanb.onelabproject.exceptions.BudgetExceededException;
+import kz.romanb.onelabproject.repositories.OperationRepository;
+import kz.romanb.onelabproject.utils.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+
+@Slf4j
+@Component
+public class BudgetTracker implements OperationListener {
+    private final OperationAggregates operationAggregates;
+    private final Map<Long, BudgetRule> rules = new ConcurrentHashMap<>();
+    private final List<BudgetListener> listeners = new CopyOnWriteArrayList<>();
+    private final StripedLock locks = new StripedLock(64);
+
+    public BudgetTracker(OperationRepository operationRepository, OperationAggregates operationAggregates) {
+        this.operationAggregates = operationAggregates;
+        operationRepository.addListener(this);
+    }
+
+    public void addListener(BudgetListener listener) {
+        listeners.add(listener);
+    }
+
+    public void setRule(CostCategory costCategory, BudgetRule rule) {
+        if (costCategory.getId() == null || costCategory.getCategoryType() != CostCategory.CostCategoryType.EXPENSE) {
+            throw new IllegalArgumentException("Лимит можно установить только для категории расходов");
+        }
+        if (rule.getLimitMinor() <= 0) {
+            throw new IllegalArgumentException("Лимит бюджета должен быть больше нуля");
+        }
+        if (rule.getWarningPercent() <= 0 || rule.getWarningPercent() > 100) {
+            throw new IllegalArgumentException("Порог предупреждения должен быть от 1 до 100 процентов");
+        }
+        rules.put(costCategory.getId(), rule);
+    }
+
+    public void removeRule(CostCategory costCategory) {
+        rules.remove(costCategory.getId());
+    }
+
+    public Optional<BudgetRule> getRule(CostCategory costCategory) {
+        return costCategory.getId() == null ? Optional.empty() : Optional.ofNullable(rules.get(costCategory.getId()));
+    }
+
+    public long getSpentMinor(CostCategory costCategory, YearMonth month) {
+        if (costCategory.getId() == null) {
+            return 0;
+        }
+        return operationAggregates.getMonthSum(OperationAggregates.Dimension.COST_CATEGORY, costCategory.getId(),
+                CostCategory.CostCategoryType.EXPENSE, month);
+    }
+
+    public List<? extends Lock> locksFor(Collection<CostCategory> costCategories) {
+        List<Long> ids = new ArrayList<>();
+        for (CostCategory costCategory : costCategories) {
+            BudgetRule rule = getRule(costCategory).orElse(null);
+            if (rule != null && rule.getPolicy() == BudgetPolicy.REJECT) {
+                ids.add(costCategory.getId());
+            }
+        }
+        return ids.isEmpty() ? List.of() : locks.getAll(ids);
+    }
+
+    public void check(CostCategory costCategory, LocalDate date, long pendingMinor, long amountMinor) {
+        if (costCategory.getCategoryType() != CostCategory.CostCategoryType.EXPENSE) {
+            return;
+        }
+        BudgetRule rule = getRule(costCategory).orElse(null);
+        if (rule == null || rule.getPolicy() != BudgetPolicy.REJECT) {
+            return;
+        }
+        long spent = Money.add(Money.add(getSpentMinor(costCategory, YearMonth.from(date)), pendingMinor), amountMinor);
+        if (spent > rule.getLimitMinor()) {
+            throw new BudgetExceededException("Превышен лимит бюджета по категории " + costCategory.getName()
+                    + ": " + Money.toBigDecimal(spent).toPlainString() + " из " + rule.getLimit().toPlainString());
+        }
+    }
+
+    @Override
+    public void onSaved(Operation operation, Operation previous) {
+        if (previous == operation) {
+            return;
+        }
+        if (previous != null && sameMonth(previous.getDate(), operation.getDate()) && previous.getCostCategory() == operation.getCostCategory()) {
+            changed(operation, operation.getDate(), operation.getAmountMinor() - previous.getAmountMinor());
+        } else {
+            changed(operation, operation.getDate(), operation.getAmountMinor());
+        }
+    }
+
+    @Override
+    public void onDateChanged(Operation operation, LocalDate oldDate) {
+        if (!sameMonth(oldDate, operation.getDate())) {
+            changed(operation, operation.getDate(), operation.getAmountMinor());
+        }
+    }
+
+    @Override
+    public void onAmountChanged(Operation operation, long oldAmountMinor) {
+        changed(operation, operation.getDate(), operation.getAmountMinor() - oldAmountMinor);
+    }
+
+    private void changed(Operation operation, LocalDate date, long deltaMinor) {
+        CostCategory costCategory = operation.getCostCategory();
+        if (deltaMinor <= 0 || date == null || costCategory == null
+                || costCategory.getCategoryType() != CostCategory.CostCategoryType.EXPENSE) {
+            return;
+        }
+        BudgetRule rule = getRule(costCategory).orElse(null);
+        if (rule == null) {
+            return;
+        }
+        YearMonth month = YearMonth.from(date);
+        long after = getSpentMinor(costCategory, month);
+        long before = after - deltaMinor;
+        boolean exceeded = before <= rule.getLimitMinor() && after > rule.getLimitMinor();
+        if (exceeded || before < rule.getWarningMinor() && after >= rule.getWarningMinor()) {
+            BudgetWarning warning = new BudgetWarning(costCategory, month, after, rule.getLimitMinor(), exceeded);
+            for (BudgetListener listener : listeners) {
+                try {
+                    listener.onBudgetWarning(warning);
+                } catch (RuntimeException e) {
+                    log.error("Ошибка обработчика предупреждения о бюджете", e);
+                }
+            }
+        }
+    }
+
+    private static boolean sameMonth(LocalDate first, LocalDate second) {
+        return first != null && second != null && YearMonth.from(first).equals(YearMonth.from(second));
+    }
+}
@@ -0,0 +1,29 @@
+package kz.romanb.onelabproject.budgets;
+
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.utils.Money;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class BudgetWarning {
+    private final CostCategory costCategory;
+    private final YearMonth month;
+    private final long spentMinor;
+    private final long limitMinor;
+    private final boolean exceeded;
+
+    public BigDecimal getSpent() {
+        return Money.toBigDecimal(spentMinor);
+    }
+
+    public BigDecimal getLimit() {
+        return Money.toBigDecimal(limitMinor);
+    }
+}
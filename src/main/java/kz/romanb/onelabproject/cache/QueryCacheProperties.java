@@ -0,0 +1,16 @@
+package kz.romanb.onelabproject.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "onelab.cache")
+public class QueryCacheProperties {
+    private boolean enabled = true;
+    private long maximumWeight = 1_000_000;
+    private Duration ttl = Duration.ofMinutes(5);
+}
@@ -0,0 +1,118 @@
+package kz.romanb.onelabproject.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import kz.romanb.onelabproject.dto.OperationPage;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.OperationListener;
+import kz.romanb.onelabproject.reports.Report;
+import kz.romanb.onelabproject.repositories.OperationRepository;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Component
+@DependsOn({"operationAggregates", "operationSnapshots"})
+@EnableConfigurationProperties(QueryCacheProperties.class)
+public class UserQueryCache implements OperationListener {
+    private final boolean enabled;
+    private final Cache<Key, Object> cache;
+    private final ConcurrentMap<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public UserQueryCache(OperationRepository operationRepository, QueryCacheProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumWeight())
+                .weigher((Key key, Object value) -> weigh(value))
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, cache, "onelab.userQueries");
+        operationRepository.addListener(this);
+    }
+
+    // Cached lists are shared between callers, so they are returned as read-only copies.
+    @SuppressWarnings("unchecked")
+    public <T> T get(Long userId, String query, List<?> arguments, Supplier<T> loader) {
+        if (!enabled || userId == null) {
+            return loader.get();
+        }
+        Key key = new Key(userId, generation(userId).get(), query, arguments);
+        return (T) cache.get(key, k -> {
+            T value = loader.get();
+            return value instanceof List<?> list ? List.copyOf(list) : value;
+        });
+    }
+
+    static int weigh(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return collection.size() + 1;
+        }
+        if (value instanceof Map<?, ?> map) {
+            return map.size() + 1;
+        }
+        if (value instanceof Report report) {
+            return report.getRows().size() + 1;
+        }
+        if (value instanceof OperationPage page) {
+            return page.getOperations().size() + 1;
+        }
+        return 1;
+    }
+
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            generation(userId).incrementAndGet();
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void onSaved(Operation operation, Operation previous) {
+        invalidate(operation);
+        if (previous != null && previous != operation) {
+            invalidate(previous);
+        }
+    }
+
+    @Override
+    public void onDateChanged(Operation operation, LocalDate oldDate) {
+        invalidate(operation);
+    }
+
+    @Override
+    public void onAmountChanged(Operation operation, long oldAmountMinor) {
+        invalidate(operation);
+    }
+
+    private void invalidate(Operation operation) {
+        if (operation.getBankAccount() != null) {
+            invalidate(operation.getBankAccount().getUserId());
+        }
+        if (operation.getCostCategory() != null) {
+            invalidate(operation.getCostCategory().getUserId());
+        }
+    }
+
+    private AtomicLong generation(Long userId) {
+        return generations.computeIfAbsent(userId, k -> new AtomicLong());
+    }
+
+    private record Key(long userId, long generation, String query, List<?> arguments) {
+    }
+}
@@ -0,0 +1,40 @@
+package kz.romanb.onelabproject.concurrent;
+
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class StripedLock {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public StripedLock(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Количество блокировок должно быть больше нуля");
+        }
+        int size = Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new ReentrantLock[Math.max(size, 1)];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = this.stripes.length - 1;
+    }
+
+    public ReentrantLock get(long key) {
+        return stripes[indexOf(key)];
+    }
+
+    public List<ReentrantLock> getAll(Iterable<Long> keys) {
+        TreeMap<Integer, ReentrantLock> locks = new TreeMap<>();
+        for (Long key : keys) {
+            int index = indexOf(key);
+            locks.put(index, stripes[index]);
+        }
+        return List.copyOf(locks.values());
+    }
+
+    private int indexOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
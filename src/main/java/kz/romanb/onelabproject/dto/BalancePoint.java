@@ -0,0 +1,21 @@
+package kz.romanb.onelabproject.dto;
+
+import kz.romanb.onelabproject.utils.Money;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class BalancePoint {
+    private final LocalDate date;
+    private final long balanceMinor;
+
+    public BigDecimal getBalance() {
+        return Money.toBigDecimal(balanceMinor);
+    }
+}
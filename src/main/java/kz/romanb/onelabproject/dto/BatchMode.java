@@ -0,0 +1,5 @@
+package kz.romanb.onelabproject.dto;
+
+public enum BatchMode {
+    ALL_OR_NOTHING, PER_ITEM
+}
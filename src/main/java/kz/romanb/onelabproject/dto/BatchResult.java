@@ -0,0 +1,26 @@
+package kz.romanb.onelabproject.dto;
+
+import kz.romanb.onelabproject.entities.Operation;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class BatchResult {
+    private final List<Operation> operations;
+    private final List<Failure> failures;
+
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Failure {
+        private final int index;
+        private final OperationRequest request;
+        private final String message;
+    }
+}
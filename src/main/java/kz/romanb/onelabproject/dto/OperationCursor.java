@@ -0,0 +1,24 @@
+package kz.romanb.onelabproject.dto;
+
+import kz.romanb.onelabproject.entities.Operation;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class OperationCursor {
+    private final long key;
+    private final long id;
+
+    public static OperationCursor byDate(Operation operation) {
+        return new OperationCursor(operation.getDate().toEpochDay(), operation.getId());
+    }
+
+    public static OperationCursor byBankAccount(Operation operation) {
+        return new OperationCursor(operation.getBankAccount().getId(), operation.getId());
+    }
+}
@@ -0,0 +1,18 @@
+package kz.romanb.onelabproject.dto;
+
+import kz.romanb.onelabproject.entities.Operation;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class OperationPage {
+    private final List<Operation> operations;
+    private final OperationCursor next;
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
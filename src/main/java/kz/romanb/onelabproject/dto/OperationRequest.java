@@ -0,0 +1,20 @@
+package kz.romanb.onelabproject.dto;
+
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OperationRequest {
+    private BankAccount bankAccount;
+    private CostCategory costCategory;
+    private BigDecimal amount;
+    private LocalDate date;
+}
@@ -0,0 +1,20 @@
+package kz.romanb.onelabproject.dto;
+
+import kz.romanb.onelabproject.utils.Money;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class RankedTotal<T> {
+    private final T item;
+    private final long totalMinor;
+
+    public BigDecimal getTotal() {
+        return Money.toBigDecimal(totalMinor);
+    }
+}
@@ -1,5 +1,6 @@
 package kz.romanb.onelabproject.entities;
 
+import kz.romanb.onelabproject.utils.Money;
 import lombok.*;
 
 import java.math.BigDecimal;
@@ -12,5 +13,21 @@ import java.math.BigDecimal;
 public class BankAccount {
     private Long id;
     private String name;
-    private BigDecimal balance;
+    private volatile long balanceMinor;
+    private Long userId;
+
+    public BigDecimal getBalance() {
+        return Money.toBigDecimal(balanceMinor);
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balanceMinor = Money.toMinorUnits(balance);
+    }
+
+    public static class BankAccountBuilder {
+        public BankAccountBuilder balance(BigDecimal balance) {
+            this.balanceMinor = Money.toMinorUnits(balance);
+            return this;
+        }
+    }
 }
@@ -11,6 +11,7 @@ public class CostCategory {
     private Long id;
     private String name;
     private CostCategoryType categoryType;
+    private Long userId;
 
     public enum CostCategoryType {
         EXPENSE, INCOME
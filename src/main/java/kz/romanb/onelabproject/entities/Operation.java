@@ -1,28 +1,72 @@
 package kz.romanb.onelabproject.entities;
 
+import kz.romanb.onelabproject.utils.Money;
 import lombok.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Objects;
 
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
-@Builder
 public class Operation {
     private long id;
-    private BigDecimal amount;
-    @Builder.Default
+    private long amountMinor;
     private LocalDate date = LocalDate.now();
     private BankAccount bankAccount;
     private CostCategory costCategory;
+    private Long balanceAfterMinor;
+    @Getter(AccessLevel.NONE)
+    private transient OperationListener listener;
+
+    @Builder
+    public Operation(long id, long amountMinor, LocalDate date, BankAccount bankAccount, CostCategory costCategory,
+                     Long balanceAfterMinor) {
+        this.id = id;
+        this.amountMinor = amountMinor;
+        this.date = date == null ? LocalDate.now() : date;
+        this.bankAccount = bankAccount;
+        this.costCategory = costCategory;
+        this.balanceAfterMinor = balanceAfterMinor;
+    }
+
+    public BigDecimal getAmount() {
+        return Money.toBigDecimal(amountMinor);
+    }
+
+    public void setAmount(BigDecimal amount) {
+        setAmountMinor(Money.toMinorUnits(amount));
+    }
+
+    public void setAmountMinor(long amountMinor) {
+        long oldAmountMinor = this.amountMinor;
+        this.amountMinor = amountMinor;
+        if (listener != null && oldAmountMinor != amountMinor) {
+            listener.onAmountChanged(this, oldAmountMinor);
+        }
+    }
+
+    public void setDate(LocalDate date) {
+        LocalDate oldDate = this.date;
+        this.date = date;
+        if (listener != null && !Objects.equals(oldDate, date)) {
+            listener.onDateChanged(this, oldDate);
+        }
+    }
+
+    public static class OperationBuilder {
+        public OperationBuilder amount(BigDecimal amount) {
+            this.amountMinor = Money.toMinorUnits(amount);
+            return this;
+        }
+    }
 
     @Override
     public String toString() {
         if (costCategory.getCategoryType().equals(CostCategory.CostCategoryType.EXPENSE))
-            return "Операция " + id + ". Дата - " + date + ". Потрачено " + amount.toString() + " на категорию " + costCategory.getName() + " со счета " + bankAccount.getName();
+            return "Операция " + id + ". Дата - " + date + ". Потрачено " + getAmount().toString() + " на категорию " + costCategory.getName() + " со счета " + bankAccount.getName();
         else
-            return "Операция " + id + ". Дата - " + date + ". Получено " + amount.toString() + " " + costCategory.getName() + " на счет " + bankAccount.getName();
+            return "Операция " + id + ". Дата - " + date + ". Получено " + getAmount().toString() + " " + costCategory.getName() + " на счет " + bankAccount.getName();
     }
 }
@@ -0,0 +1,14 @@
+package kz.romanb.onelabproject.entities;
+
+import java.time.LocalDate;
+
+public interface OperationListener {
+    default void onSaved(Operation operation, Operation previous) {
+    }
+
+    default void onDateChanged(Operation operation, LocalDate oldDate) {
+    }
+
+    default void onAmountChanged(Operation operation, long oldAmountMinor) {
+    }
+}
@@ -0,0 +1,15 @@
+package kz.romanb.onelabproject.events;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "onelab.events")
+public class EventProperties {
+    private boolean enabled = true;
+    private int bufferSize = 65_536;
+    private int maxBatchSize = 1024;
+    private WaitStrategy waitStrategy = WaitStrategy.SLEEPING;
+}
@@ -0,0 +1,88 @@
+package kz.romanb.onelabproject.events;
+
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+@Getter
+public class OperationEvent {
+    private long sequence;
+    private Type type;
+    private final Values operation = new Values();
+    @Getter(AccessLevel.NONE)
+    private final Values previous = new Values();
+    @Getter(AccessLevel.NONE)
+    private boolean hasPrevious;
+    private long oldEpochDay;
+    private long oldAmountMinor;
+
+    public enum Type {
+        SAVED, DATE_CHANGED, AMOUNT_CHANGED
+    }
+
+    public Values getPrevious() {
+        return hasPrevious ? previous : null;
+    }
+
+    public LocalDate getOldDate() {
+        return LocalDate.ofEpochDay(oldEpochDay);
+    }
+
+    void set(long sequence, Type type, Operation operation, Operation previous, LocalDate oldDate, long oldAmountMinor) {
+        this.sequence = sequence;
+        this.type = type;
+        this.operation.copy(operation);
+        this.hasPrevious = previous != null;
+        if (previous != null) {
+            this.previous.copy(previous);
+        }
+        this.oldEpochDay = oldDate == null ? 0 : oldDate.toEpochDay();
+        this.oldAmountMinor = oldAmountMinor;
+    }
+
+    @Getter
+    public static class Values {
+        private long id;
+        private long amountMinor;
+        private long epochDay;
+        private Long balanceAfterMinor;
+        private BankAccount bankAccount;
+        private Long bankAccountId;
+        private Long bankAccountUserId;
+        private CostCategory costCategory;
+        private Long costCategoryId;
+        private Long costCategoryUserId;
+
+        public LocalDate getDate() {
+            return LocalDate.ofEpochDay(epochDay);
+        }
+
+        public Operation toOperation() {
+            return Operation.builder()
+                    .id(id)
+                    .amountMinor(amountMinor)
+                    .date(getDate())
+                    .bankAccount(bankAccount)
+                    .costCategory(costCategory)
+                    .balanceAfterMinor(balanceAfterMinor)
+                    .build();
+        }
+
+        private void copy(Operation operation) {
+            id = operation.getId();
+            amountMinor = operation.getAmountMinor();
+            epochDay = operation.getDate().toEpochDay();
+            balanceAfterMinor = operation.getBalanceAfterMinor();
+            bankAccount = operation.getBankAccount();
+            bankAccountId = bankAccount == null ? null : bankAccount.getId();
+            bankAccountUserId = bankAccount == null ? null : bankAccount.getUserId();
+            costCategory = operation.getCostCategory();
+            costCategoryId = costCategory == null ? null : costCategory.getId();
+            costCategoryUserId = costCategory == null ? null : costCategory.getUserId();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package kz.romanb.onelabproject.events;
+
+import kz.romanb.onelabproject.entities.OperationListener;
+
+public interface OperationEventHandler {
+    void onEvent(OperationEvent event, boolean endOfBatch);
+
+    static OperationEventHandler of(OperationListener listener) {
+        return (event, endOfBatch) -> {
+            switch (event.getType()) {
+                case SAVED -> listener.onSaved(event.getOperation().toOperation(),
+                        event.getPrevious() == null ? null : event.getPrevious().toOperation());
+                case DATE_CHANGED -> listener.onDateChanged(event.getOperation().toOperation(), event.getOldDate());
+                case AMOUNT_CHANGED -> listener.onAmountChanged(event.getOperation().toOperation(), event.getOldAmountMinor());
+            }
+        };
+    }
+}
@@ -0,0 +1,334 @@
+package kz.romanb.onelabproject.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PreDestroy;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.OperationListener;
+import kz.romanb.onelabproject.repositories.OperationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+@Slf4j
+@Component
+@DependsOn({"operationAggregates", "operationSnapshots"})
+@ConditionalOnProperty(prefix = "onelab.events", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(EventProperties.class)
+public class OperationEventPipeline implements OperationListener {
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 200;
+    private static final long PARK_NANOS = 100_000;
+
+    private final OperationEvent[] ring;
+    private final int mask;
+    private final int shift;
+    private final AtomicIntegerArray available;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final AtomicLong gatingCache = new AtomicLong(-1);
+    private final AtomicInteger publishing = new AtomicInteger();
+    private final ReentrantLock gatingLock = new ReentrantLock();
+    private final List<EventConsumer> consumers = new CopyOnWriteArrayList<>();
+    private final WaitStrategy waitStrategy;
+    private final int maxBatchSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    private final AtomicBoolean signalNeeded = new AtomicBoolean();
+    private final Counter backpressure;
+    private final Counter errors;
+    private volatile boolean running = true;
+    private volatile IllegalStateException failure;
+
+    public OperationEventPipeline(OperationRepository operationRepository, EventProperties properties) {
+        int size = properties.getBufferSize();
+        if (size <= 0 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Размер буфера событий должен быть степенью двойки: " + size);
+        }
+        this.ring = new OperationEvent[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = new OperationEvent();
+        }
+        this.mask = size - 1;
+        this.shift = Integer.numberOfTrailingZeros(size);
+        this.available = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            available.set(i, -1);
+        }
+        this.waitStrategy = properties.getWaitStrategy();
+        this.maxBatchSize = Math.max(1, properties.getMaxBatchSize());
+        this.backpressure = Counter.builder("onelab.events.backpressure").register(Metrics.globalRegistry);
+        this.errors = Counter.builder("onelab.events.errors").register(Metrics.globalRegistry);
+        operationRepository.addListener(this);
+    }
+
+    public LongSupplier addConsumer(String name, OperationEventHandler handler) {
+        EventConsumer consumer;
+        gatingLock.lock();
+        try {
+            consumer = new EventConsumer(name, handler, claimed.get());
+            consumers.add(consumer);
+            gatingCache.set(Math.min(gatingCache.get(), consumer.sequence.get()));
+        } finally {
+            gatingLock.unlock();
+        }
+        Gauge.builder("onelab.events.lag", this, p -> p.getLag(consumer))
+                .tag("consumer", name)
+                .register(Metrics.globalRegistry);
+        Thread thread = new Thread(consumer, "operation-events-" + name);
+        thread.setDaemon(true);
+        consumer.thread = thread;
+        thread.start();
+        return consumer.sequence::get;
+    }
+
+    public LongSupplier addConsumer(String name, OperationListener listener) {
+        return addConsumer(name, OperationEventHandler.of(listener));
+    }
+
+    public long getPublished() {
+        return claimed.get();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getLag(String name) {
+        return consumers.stream()
+                .filter(c -> c.name.equals(name))
+                .mapToLong(this::getLag)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Нет обработчика событий " + name));
+    }
+
+    public boolean awaitConsumers(Duration timeout) {
+        long target = claimed.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (consumers.stream().anyMatch(c -> c.sequence.get() < target)) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        return true;
+    }
+
+    @Override
+    public void onSaved(Operation operation, Operation previous) {
+        publish(OperationEvent.Type.SAVED, operation, previous, null, 0);
+    }
+
+    @Override
+    public void onDateChanged(Operation operation, LocalDate oldDate) {
+        publish(OperationEvent.Type.DATE_CHANGED, operation, null, oldDate, 0);
+    }
+
+    @Override
+    public void onAmountChanged(Operation operation, long oldAmountMinor) {
+        publish(OperationEvent.Type.AMOUNT_CHANGED, operation, null, null, oldAmountMinor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        signalConsumers();
+        for (EventConsumer consumer : consumers) {
+            try {
+                consumer.thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (consumer.thread.isAlive()) {
+                log.warn("Обработчик событий {} не успел обработать очередь при остановке, отставание {}", consumer.name, getLag(consumer));
+            }
+        }
+    }
+
+    private void publish(OperationEvent.Type type, Operation operation, Operation previous, LocalDate oldDate, long oldAmountMinor) {
+        if (consumers.isEmpty()) {
+            return;
+        }
+        publishing.incrementAndGet();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Конвейер событий остановлен, запись операций отклонена");
+            }
+            checkFailure();
+            long sequence = claimed.incrementAndGet();
+            awaitCapacity(sequence);
+            int index = (int) sequence & mask;
+            ring[index].set(sequence, type, operation, previous, oldDate, oldAmountMinor);
+            available.set(index, (int) (sequence >>> shift));
+            if (waitStrategy == WaitStrategy.BLOCKING && signalNeeded.getAndSet(false)) {
+                signalConsumers();
+            }
+        } finally {
+            publishing.decrementAndGet();
+        }
+    }
+
+    private void awaitCapacity(long sequence) {
+        long wrapPoint = sequence - ring.length;
+        if (wrapPoint <= gatingCache.get()) {
+            return;
+        }
+        boolean counted = false;
+        while (wrapPoint > refreshGating(sequence - 1)) {
+            checkFailure();
+            if (!counted) {
+                backpressure.increment();
+                counted = true;
+            }
+            LockSupport.parkNanos(1_000);
+        }
+    }
+
+    private void checkFailure() {
+        IllegalStateException failure = this.failure;
+        if (failure != null) {
+            throw new IllegalStateException(failure.getMessage(), failure.getCause());
+        }
+    }
+
+    private long refreshGating(long defaultSequence) {
+        gatingLock.lock();
+        try {
+            long slowest = slowestConsumer(defaultSequence);
+            gatingCache.set(slowest);
+            return slowest;
+        } finally {
+            gatingLock.unlock();
+        }
+    }
+
+    private long slowestConsumer(long defaultSequence) {
+        long slowest = defaultSequence;
+        for (EventConsumer consumer : consumers) {
+            slowest = Math.min(slowest, consumer.sequence.get());
+        }
+        return slowest;
+    }
+
+    private boolean isAvailable(long sequence) {
+        return available.get((int) sequence & mask) == (int) (sequence >>> shift);
+    }
+
+    private long getLag(EventConsumer consumer) {
+        return Math.max(0, claimed.get() - consumer.sequence.get());
+    }
+
+    private void signalConsumers() {
+        lock.lock();
+        try {
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void idle(long sequence, int attempt) {
+        switch (waitStrategy) {
+            case BUSY_SPIN -> Thread.onSpinWait();
+            case YIELDING -> {
+                if (attempt < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+            case SLEEPING -> {
+                if (attempt < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else if (attempt < YIELD_TRIES) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+            }
+            case BLOCKING -> {
+                lock.lock();
+                try {
+                    signalNeeded.set(true);
+                    if (!isAvailable(sequence) && running) {
+                        published.await(1, TimeUnit.MILLISECONDS);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private class EventConsumer implements Runnable {
+        private final String name;
+        private final OperationEventHandler handler;
+        private final AtomicLong sequence;
+        private final DistributionSummary batchSizes;
+        private Thread thread;
+
+        private EventConsumer(String name, OperationEventHandler handler, long sequence) {
+            this.name = name;
+            this.handler = handler;
+            this.sequence = new AtomicLong(sequence);
+            this.batchSizes = DistributionSummary.builder("onelab.events.batch.size")
+                    .tag("consumer", name)
+                    .register(Metrics.globalRegistry);
+        }
+
+        @Override
+        public void run() {
+            long next = sequence.get() + 1;
+            int attempt = 0;
+            while (true) {
+                if (!isAvailable(next)) {
+                    if (!running && publishing.get() == 0 && next > claimed.get()) {
+                        return;
+                    }
+                    idle(next, attempt++);
+                    continue;
+                }
+                attempt = 0;
+                long last = next;
+                long limit = next + maxBatchSize - 1;
+                while (last < limit && isAvailable(last + 1)) {
+                    last++;
+                }
+                for (long s = next; s <= last; s++) {
+                    try {
+                        handler.onEvent(ring[(int) s & mask], s == last);
+                    } catch (RuntimeException e) {
+                        errors.increment();
+                        log.error("Ошибка обработчика событий {} на событии {}, запись операций остановлена", name, s, e);
+                        sequence.set(s - 1);
+                        failure = new IllegalStateException("Обработчик событий " + name + " остановлен после ошибки на событии " + s, e);
+                        return;
+                    }
+                }
+                sequence.set(last);
+                batchSizes.record(last - next + 1);
+                next = last + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package kz.romanb.onelabproject.events;
+
+public enum WaitStrategy {
+    BUSY_SPIN, YIELDING, SLEEPING, BLOCKING
+}
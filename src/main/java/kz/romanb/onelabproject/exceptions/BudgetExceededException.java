@@ -0,0 +1,7 @@
+package kz.romanb.onelabproject.exceptions;
+
+public class BudgetExceededException extends RuntimeException {
+    public BudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,146 @@
+package kz.romanb.onelabproject.exports;
+
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+public enum ExportFormat {
+    CSV {
+        private static final byte[] HEADER = "id,date,bank_account_id,cost_category_id,category_type,amount\n"
+                .getBytes(StandardCharsets.US_ASCII);
+
+        @Override
+        int maxRowSize() {
+            return 128;
+        }
+
+        @Override
+        void writeHeader(ByteBuffer buffer) {
+            buffer.put(HEADER);
+        }
+
+        @Override
+        void writeRow(ByteBuffer buffer, Operation operation) {
+            putLong(buffer, operation.getId());
+            buffer.put((byte) ',');
+            putDate(buffer, operation.getDate());
+            buffer.put((byte) ',');
+            putLong(buffer, operation.getBankAccount().getId());
+            buffer.put((byte) ',');
+            putLong(buffer, operation.getCostCategory().getId());
+            buffer.put((byte) ',');
+            buffer.put(CATEGORY_TYPES[operation.getCostCategory().getCategoryType().ordinal()]);
+            buffer.put((byte) ',');
+            putAmount(buffer, operation.getAmountMinor());
+            buffer.put((byte) '\n');
+        }
+    },
+    BINARY {
+        @Override
+        int maxRowSize() {
+            return BINARY_ROW_SIZE;
+        }
+
+        @Override
+        void writeHeader(ByteBuffer buffer) {
+            buffer.putInt(BINARY_MAGIC);
+            buffer.putShort(BINARY_VERSION);
+            buffer.putShort((short) BINARY_ROW_SIZE);
+            buffer.putLong(0);
+        }
+
+        @Override
+        void writeRow(ByteBuffer buffer, Operation operation) {
+            buffer.putLong(operation.getId());
+            buffer.putInt((int) operation.getDate().toEpochDay());
+            buffer.putLong(operation.getBankAccount().getId());
+            buffer.putLong(operation.getCostCategory().getId());
+            buffer.put((byte) operation.getCostCategory().getCategoryType().ordinal());
+            buffer.putLong(operation.getAmountMinor());
+        }
+
+        @Override
+        void writeFooter(ByteBuffer buffer, long rows) {
+            buffer.putLong(BINARY_ROW_COUNT_OFFSET, rows);
+        }
+    };
+
+    public static final int BINARY_MAGIC = 0x4F4C4F50;
+    public static final short BINARY_VERSION = 1;
+    public static final int BINARY_HEADER_SIZE = 16;
+    public static final int BINARY_ROW_COUNT_OFFSET = 8;
+    public static final int BINARY_ROW_SIZE = 8 + 4 + 8 + 8 + 1 + 8;
+
+    private static final byte[][] CATEGORY_TYPES = categoryTypes();
+    private static final byte[] DIGITS = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    abstract int maxRowSize();
+
+    abstract void writeHeader(ByteBuffer buffer);
+
+    abstract void writeRow(ByteBuffer buffer, Operation operation);
+
+    void writeFooter(ByteBuffer header, long rows) {
+    }
+
+    private static byte[][] categoryTypes() {
+        CostCategory.CostCategoryType[] types = CostCategory.CostCategoryType.values();
+        byte[][] names = new byte[types.length][];
+        for (CostCategory.CostCategoryType type : types) {
+            names[type.ordinal()] = type.name().getBytes(StandardCharsets.US_ASCII);
+        }
+        return names;
+    }
+
+    private static void putLong(ByteBuffer buffer, long value) {
+        if (value < 0) {
+            buffer.put((byte) '-');
+        } else {
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v <= -10; v /= 10) {
+            digits++;
+        }
+        int end = buffer.position() + digits;
+        for (int i = end - 1; i >= end - digits; i--) {
+            buffer.put(i, DIGITS[(int) -(value % 10)]);
+            value /= 10;
+        }
+        buffer.position(end);
+    }
+
+    private static void putAmount(ByteBuffer buffer, long minor) {
+        if (minor < 0) {
+            buffer.put((byte) '-');
+        }
+        long units = Math.abs(minor / 100);
+        int cents = (int) Math.abs(minor % 100);
+        putLong(buffer, units);
+        buffer.put((byte) '.');
+        buffer.put(DIGITS[cents / 10]);
+        buffer.put(DIGITS[cents % 10]);
+    }
+
+    private static void putDate(ByteBuffer buffer, LocalDate date) {
+        int year = date.getYear();
+        if (year < 1000 || year > 9999) {
+            putLong(buffer, year);
+        } else {
+            putDigits(buffer, year / 100);
+            putDigits(buffer, year % 100);
+        }
+        buffer.put((byte) '-');
+        putDigits(buffer, date.getMonthValue());
+        buffer.put((byte) '-');
+        putDigits(buffer, date.getDayOfMonth());
+    }
+
+    private static void putDigits(ByteBuffer buffer, int twoDigits) {
+        buffer.put(DIGITS[twoDigits / 10]);
+        buffer.put(DIGITS[twoDigits % 10]);
+    }
+}
@@ -0,0 +1,19 @@
+package kz.romanb.onelabproject.exports;
+
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.User;
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExportRequest {
+    private User user;
+    private BankAccount bankAccount;
+    private LocalDate startDate;
+    private LocalDate endDate;
+}
@@ -0,0 +1,26 @@
+package kz.romanb.onelabproject.exports;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class ExportResult {
+    private final Path file;
+    private final long rows;
+    private final long bytes;
+    private final long elapsedNanos;
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * 1e9 / elapsedNanos;
+    }
+}
@@ -0,0 +1,111 @@
+package kz.romanb.onelabproject.exports;
+
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.repositories.OperationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OperationExporter {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final OperationRepository operationRepository;
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+
+    public ExportResult export(ExportRequest request, ExportFormat format, Path target) {
+        long started = System.nanoTime();
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        ByteBuffer buffer = acquireBuffer();
+        long rows = 0;
+        long bytes = 0;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             Stream<Operation> operations = select(request)) {
+            format.writeHeader(buffer);
+            Iterator<Operation> iterator = operations.iterator();
+            while (iterator.hasNext()) {
+                if (buffer.remaining() < format.maxRowSize()) {
+                    bytes += flush(channel, buffer);
+                }
+                format.writeRow(buffer, iterator.next());
+                rows++;
+            }
+            bytes += flush(channel, buffer);
+            format.writeHeader(buffer);
+            format.writeFooter(buffer, rows);
+            buffer.flip();
+            channel.write(buffer, 0);
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            releaseBuffer(buffer);
+        }
+        try {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ExportResult result = new ExportResult(target, rows, bytes, System.nanoTime() - started);
+        log.info("Выгружено {} операций ({} байт) в {} за {} мс", rows, bytes, target, result.getElapsedMillis());
+        return result;
+    }
+
+    private Stream<Operation> select(ExportRequest request) {
+        LocalDate startDate = request.getStartDate() == null ? LocalDate.MIN : request.getStartDate();
+        LocalDate endDate = request.getEndDate() == null ? LocalDate.MAX : request.getEndDate();
+        Stream<Operation> operations;
+        if (request.getBankAccount() != null) {
+            operations = operationRepository.streamAllOperationsByBankAccount(request.getBankAccount());
+        } else if (request.getUser() != null) {
+            operations = operationRepository.streamAllOperationsByUserBetweenDates(request.getUser(), startDate, endDate);
+        } else if (request.getStartDate() != null || request.getEndDate() != null) {
+            operations = operationRepository.streamAllOperationsBetweenDates(startDate, endDate, null);
+        } else {
+            operations = operationRepository.streamAll(null);
+        }
+        Predicate<Operation> matches = o -> !o.getDate().isBefore(startDate) && !o.getDate().isAfter(endDate);
+        if (request.getUser() != null) {
+            Long userId = request.getUser().getId();
+            matches = matches.and(o -> userId.equals(o.getBankAccount().getUserId()));
+        }
+        return operations.filter(matches);
+    }
+
+    private static long flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        long written = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        return written;
+    }
+
+    private ByteBuffer acquireBuffer() {
+        ByteBuffer buffer = buffers.poll();
+        return buffer == null ? ByteBuffer.allocateDirect(BUFFER_SIZE) : buffer.clear();
+    }
+
+    private void releaseBuffer(ByteBuffer buffer) {
+        buffers.offer(buffer.clear());
+    }
+}
@@ -0,0 +1,9 @@
+package kz.romanb.onelabproject.ids;
+
+public interface IdGenerator {
+    long nextId();
+
+    long[] nextIds(int count);
+
+    void advanceTo(long highWaterMark);
+}
@@ -0,0 +1,17 @@
+package kz.romanb.onelabproject.ids;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(IdProperties.class)
+public class IdGeneratorConfiguration {
+    @Bean
+    public IdGenerator idGenerator(IdProperties properties) {
+        SnowflakeIdGenerator snowflake = new SnowflakeIdGenerator(properties.getNodeId());
+        return properties.getBlockSize() > 1
+                ? new ThreadLocalBlockIdGenerator(snowflake, properties.getBlockSize())
+                : snowflake;
+    }
+}
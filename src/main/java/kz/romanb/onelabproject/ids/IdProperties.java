@@ -0,0 +1,13 @@
+package kz.romanb.onelabproject.ids;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "onelab.ids")
+public class IdProperties {
+    private int nodeId = 0;
+    private int blockSize = 1;
+}
@@ -0,0 +1,71 @@
+package kz.romanb.onelabproject.ids;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SnowflakeIdGenerator implements IdGenerator {
+    public static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+    public static final long SEQUENCE_STEP = 1L << NODE_BITS;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private final int nodeId;
+    private final Clock clock;
+    private final AtomicLong last;
+
+    public SnowflakeIdGenerator(int nodeId) {
+        this(nodeId, Clock.systemUTC());
+    }
+
+    public SnowflakeIdGenerator(int nodeId, Clock clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Некорректный идентификатор узла: " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+        this.last = new AtomicLong(nodeId);
+    }
+
+    @Override
+    public long nextId() {
+        return reserve(1);
+    }
+
+    @Override
+    public long[] nextIds(int count) {
+        long[] ids = new long[count];
+        if (count == 0) {
+            return ids;
+        }
+        long id = reserve(count);
+        for (int i = 0; i < count; i++, id += SEQUENCE_STEP) {
+            ids[i] = id;
+        }
+        return ids;
+    }
+
+    public long reserve(int count) {
+        long block = (count - 1L) * SEQUENCE_STEP;
+        while (true) {
+            long previous = last.get();
+            long now = ((clock.millis() - EPOCH) << TIMESTAMP_SHIFT) | nodeId;
+            long first = Math.max(previous + SEQUENCE_STEP, now);
+            if (last.compareAndSet(previous, first + block)) {
+                return first;
+            }
+        }
+    }
+
+    @Override
+    public void advanceTo(long highWaterMark) {
+        long aligned = (highWaterMark >>> NODE_BITS << NODE_BITS) | nodeId;
+        last.accumulateAndGet(aligned, Math::max);
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+}
@@ -0,0 +1,50 @@
+package kz.romanb.onelabproject.ids;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ThreadLocalBlockIdGenerator implements IdGenerator {
+    private final SnowflakeIdGenerator source;
+    private final int blockSize;
+    private final AtomicLong generation = new AtomicLong();
+    private final ThreadLocal<Block> blocks = ThreadLocal.withInitial(Block::new);
+
+    public ThreadLocalBlockIdGenerator(SnowflakeIdGenerator source, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Размер блока идентификаторов должен быть больше нуля");
+        }
+        this.source = source;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public long nextId() {
+        Block block = blocks.get();
+        long currentGeneration = generation.get();
+        if (block.remaining == 0 || block.generation != currentGeneration) {
+            block.next = source.reserve(blockSize);
+            block.remaining = blockSize;
+            block.generation = currentGeneration;
+        }
+        long id = block.next;
+        block.next += SnowflakeIdGenerator.SEQUENCE_STEP;
+        block.remaining--;
+        return id;
+    }
+
+    @Override
+    public long[] nextIds(int count) {
+        return source.nextIds(count);
+    }
+
+    @Override
+    public void advanceTo(long highWaterMark) {
+        source.advanceTo(highWaterMark);
+        generation.incrementAndGet();
+    }
+
+    private static class Block {
+        private long next;
+        private int remaining;
+        private long generation = -1;
+    }
+}
@@ -0,0 +1,13 @@
+package kz.romanb.onelabproject.imports;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class ImportError {
+    private final long line;
+    private final String message;
+}
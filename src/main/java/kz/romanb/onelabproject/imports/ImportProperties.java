@@ -0,0 +1,21 @@
+package kz.romanb.onelabproject.imports;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "onelab.import")
+public class ImportProperties {
+    private Path file;
+    private char delimiter = ',';
+    private DataSize chunkSize = DataSize.ofMegabytes(4);
+    private int parserThreads = Runtime.getRuntime().availableProcessors();
+    private int maxChunksInFlight = 4;
+    private int batchSize = 10_000;
+    private int maxReportedErrors = 1000;
+}
@@ -0,0 +1,32 @@
+package kz.romanb.onelabproject.imports;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class ImportResult {
+    private final long bytes;
+    private final long lines;
+    private final long imported;
+    private final long rejected;
+    private final List<ImportError> errors;
+    private final long elapsedNanos;
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    public double getLinesPerSecond() {
+        return elapsedNanos == 0 ? 0 : lines * 1e9 / elapsedNanos;
+    }
+
+    public double getMegabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytes * 1e9 / elapsedNanos / (1024 * 1024);
+    }
+}
@@ -0,0 +1,128 @@
+package kz.romanb.onelabproject.imports;
+
+import kz.romanb.onelabproject.dto.OperationRequest;
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+
+class StatementChunkParser {
+    private static final int FIELDS = 4;
+
+    private final byte delimiter;
+    private final LongFunction<BankAccount> bankAccounts;
+    private final LongFunction<CostCategory> costCategories;
+
+    StatementChunkParser(char delimiter, LongFunction<BankAccount> bankAccounts, LongFunction<CostCategory> costCategories) {
+        this.delimiter = (byte) delimiter;
+        this.bankAccounts = bankAccounts;
+        this.costCategories = costCategories;
+    }
+
+    Chunk parse(byte[] data, int length, boolean first) {
+        Chunk chunk = new Chunk();
+        int[] bounds = new int[FIELDS + 1];
+        int start = 0;
+        while (start < length) {
+            int end = start;
+            while (end < length && data[end] != '\n') {
+                end++;
+            }
+            int lineEnd = end > start && data[end - 1] == '\r' ? end - 1 : end;
+            chunk.lines++;
+            if (lineEnd > start && !(first && chunk.lines == 1 && isHeader(data[start]))) {
+                try {
+                    chunk.records.add(new Record(chunk.lines, parseLine(data, start, lineEnd, bounds)));
+                } catch (IllegalArgumentException | DateTimeException | ArithmeticException e) {
+                    chunk.errors.add(new ImportError(chunk.lines, e.getMessage()));
+                }
+            }
+            start = end + 1;
+        }
+        return chunk;
+    }
+
+    private OperationRequest parseLine(byte[] data, int start, int end, int[] bounds) {
+        int fields = 0;
+        bounds[0] = start;
+        for (int i = start; i < end; i++) {
+            if (data[i] == delimiter) {
+                if (++fields == FIELDS) {
+                    throw new IllegalArgumentException("Ожидается " + FIELDS + " поля, строка: " + text(data, start, end));
+                }
+                bounds[fields] = i + 1;
+            }
+        }
+        if (fields != FIELDS - 1) {
+            throw new IllegalArgumentException("Ожидается " + FIELDS + " поля, строка: " + text(data, start, end));
+        }
+        bounds[FIELDS] = end + 1;
+
+        LocalDate date = parseDate(data, bounds[0], bounds[1] - 1);
+        long bankAccountId = parseLong(data, bounds[1], bounds[2] - 1);
+        long costCategoryId = parseLong(data, bounds[2], bounds[3] - 1);
+        BigDecimal amount = new BigDecimal(text(data, bounds[3], bounds[4] - 1).trim());
+        BankAccount bankAccount = bankAccounts.apply(bankAccountId);
+        if (bankAccount == null) {
+            throw new IllegalArgumentException("Не найден счет " + bankAccountId);
+        }
+        CostCategory costCategory = costCategories.apply(costCategoryId);
+        if (costCategory == null) {
+            throw new IllegalArgumentException("Не найдена категория " + costCategoryId);
+        }
+        return OperationRequest.builder()
+                .bankAccount(bankAccount)
+                .costCategory(costCategory)
+                .amount(amount)
+                .date(date)
+                .build();
+    }
+
+    private static LocalDate parseDate(byte[] data, int start, int end) {
+        if (end - start != 10 || data[start + 4] != '-' || data[start + 7] != '-') {
+            throw new IllegalArgumentException("Некорректная дата: " + text(data, start, end));
+        }
+        return LocalDate.of(
+                (int) parseLong(data, start, start + 4),
+                (int) parseLong(data, start + 5, start + 7),
+                (int) parseLong(data, start + 8, end));
+    }
+
+    private static long parseLong(byte[] data, int start, int end) {
+        if (start >= end) {
+            throw new IllegalArgumentException("Пустое числовое поле");
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = data[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Некорректное число: " + text(data, start, end));
+            }
+            value = Math.addExact(Math.multiplyExact(value, 10), digit);
+        }
+        return value;
+    }
+
+    private static boolean isHeader(byte b) {
+        return (b < '0' || b > '9') && b != '-';
+    }
+
+    private static String text(byte[] data, int start, int end) {
+        return new String(data, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    static class Chunk {
+        int lines;
+        final List<Record> records = new ArrayList<>();
+        final List<ImportError> errors = new ArrayList<>();
+    }
+
+    record Record(int line, OperationRequest request) {
+    }
+}
@@ -0,0 +1,22 @@
+package kz.romanb.onelabproject.imports;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "onelab.import", name = "file")
+public class StatementImportRunner implements CommandLineRunner {
+    private final StatementImporter statementImporter;
+    private final ImportProperties properties;
+
+    @Override
+    public void run(String... args) {
+        statementImporter.importFile(properties.getFile());
+    }
+}
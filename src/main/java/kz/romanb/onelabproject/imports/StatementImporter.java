@@ -0,0 +1,185 @@
+package kz.romanb.onelabproject.imports;
+
+import kz.romanb.onelabproject.dto.BatchMode;
+import kz.romanb.onelabproject.dto.BatchResult;
+import kz.romanb.onelabproject.dto.OperationRequest;
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.repositories.BankAccountRepository;
+import kz.romanb.onelabproject.repositories.CostCategoryRepository;
+import kz.romanb.onelabproject.services.CostTrackerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@EnableConfigurationProperties(ImportProperties.class)
+public class StatementImporter {
+    private final CostTrackerService costTrackerService;
+    private final BankAccountRepository bankAccountRepository;
+    private final CostCategoryRepository costCategoryRepository;
+    private final ImportProperties properties;
+
+    public ImportResult importFile(Path file) {
+        long started = System.nanoTime();
+        Map<Long, Optional<BankAccount>> bankAccounts = new ConcurrentHashMap<>();
+        Map<Long, Optional<CostCategory>> costCategories = new ConcurrentHashMap<>();
+        StatementChunkParser parser = new StatementChunkParser(properties.getDelimiter(),
+                id -> bankAccounts.computeIfAbsent(id, bankAccountRepository::findById).orElse(null),
+                id -> costCategories.computeIfAbsent(id, costCategoryRepository::findById).orElse(null));
+        Progress progress = new Progress();
+        ExecutorService parsers = Executors.newFixedThreadPool(Math.max(1, properties.getParserThreads()), daemon("statement-parser"));
+        Deque<Future<StatementChunkParser.Chunk>> inFlight = new ArrayDeque<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            byte[] buffer = new byte[(int) Math.max(1, properties.getChunkSize().toBytes())];
+            int length = 0;
+            while (position < size || length > 0) {
+                int read = position < size ? readFully(channel, buffer, length, position) : 0;
+                position += read;
+                length += read;
+                int chunkLength = lastLineEnd(buffer, length);
+                if (chunkLength == 0) {
+                    if (position < size) {
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                        continue;
+                    }
+                    chunkLength = length;
+                }
+                byte[] chunk = buffer;
+                int chunkEnd = chunkLength;
+                boolean first = progress.chunks++ == 0;
+                inFlight.add(parsers.submit(() -> parser.parse(chunk, chunkEnd, first)));
+                byte[] next = new byte[(int) Math.max(1, properties.getChunkSize().toBytes())];
+                length -= chunkLength;
+                if (length > next.length) {
+                    next = new byte[length * 2];
+                }
+                System.arraycopy(buffer, chunkLength, next, 0, length);
+                buffer = next;
+                progress.bytes += chunkLength;
+                while (inFlight.size() >= Math.max(1, properties.getMaxChunksInFlight())) {
+                    apply(inFlight.poll(), progress);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                apply(inFlight.poll(), progress);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            inFlight.forEach(f -> f.cancel(true));
+            parsers.shutdownNow();
+        }
+        ImportResult result = new ImportResult(progress.bytes, progress.lines, progress.imported, progress.rejected,
+                progress.errors.stream().sorted(Comparator.comparingLong(ImportError::getLine)).toList(), System.nanoTime() - started);
+        log.info("Импортировано {} операций из {} строк файла {} за {} мс ({} строк/с, {} МБ/с), отклонено {}",
+                result.getImported(), result.getLines(), file, result.getElapsedMillis(),
+                Math.round(result.getLinesPerSecond()), String.format("%.1f", result.getMegabytesPerSecond()),
+                result.getRejected());
+        return result;
+    }
+
+    private void apply(Future<StatementChunkParser.Chunk> future, Progress progress) {
+        StatementChunkParser.Chunk chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Импорт прерван", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка разбора файла", e.getCause());
+        }
+        long firstLine = progress.lines;
+        chunk.errors.forEach(e -> progress.reject(firstLine + e.getLine(), e.getMessage()));
+        List<StatementChunkParser.Record> records = new ArrayList<>(chunk.records);
+        records.sort(Comparator.comparing((StatementChunkParser.Record r) -> r.request().getBankAccount().getId()));
+        int batchSize = Math.max(1, properties.getBatchSize());
+        for (int from = 0; from < records.size(); from += batchSize) {
+            List<StatementChunkParser.Record> batch = records.subList(from, Math.min(records.size(), from + batchSize));
+            List<OperationRequest> requests = new ArrayList<>(batch.size());
+            batch.forEach(r -> requests.add(r.request()));
+            BatchResult result = costTrackerService.createOperations(requests, BatchMode.PER_ITEM);
+            progress.imported += result.getOperations().size();
+            result.getFailures().forEach(f -> progress.reject(firstLine + batch.get(f.getIndex()).line(), f.getMessage()));
+        }
+        progress.lines += chunk.lines;
+        log.debug("Обработано {} строк, {} байт", progress.lines, progress.bytes);
+    }
+
+    private static int readFully(FileChannel channel, byte[] buffer, int offset, long position) throws IOException {
+        ByteBuffer target = ByteBuffer.wrap(buffer, offset, buffer.length - offset);
+        int total = 0;
+        while (target.hasRemaining()) {
+            int read = channel.read(target, position + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private static int lastLineEnd(byte[] buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private class Progress {
+        private long chunks;
+        private long bytes;
+        private long lines;
+        private long imported;
+        private long rejected;
+        private final List<ImportError> errors = new ArrayList<>();
+
+        private void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < properties.getMaxReportedErrors()) {
+                errors.add(new ImportError(line, message));
+            } else if (rejected == properties.getMaxReportedErrors() + 1L) {
+                log.warn("Достигнут лимит {} сообщений об ошибках импорта, остальные ошибки только подсчитываются",
+                        properties.getMaxReportedErrors());
+            }
+        }
+    }
+}
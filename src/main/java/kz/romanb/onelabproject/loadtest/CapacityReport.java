@@ -0,0 +1,64 @@
+package kz.romanb.onelabproject.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+@Getter
+@AllArgsConstructor
+public class CapacityReport {
+    private final Duration duration;
+    private final int threads;
+    private final int users;
+    private final long seededOperations;
+    private final List<OperationStats> operations;
+    private final long heapUsedBefore;
+    private final long heapUsedAfter;
+    private final long heapPeak;
+    private final long heapMax;
+    private final long gcCount;
+    private final Duration gcPauseTotal;
+    private final Duration gcPauseMax;
+
+    public long getTotalCount() {
+        return operations.stream().mapToLong(OperationStats::getCount).sum();
+    }
+
+    public double getThroughput() {
+        return getTotalCount() / seconds(duration);
+    }
+
+    public String format() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "Нагрузочный тест: %d потоков, %d пользователей, %d операций в исходных данных, %.1f с%n",
+                threads, users, seededOperations, seconds(duration)));
+        report.append(String.format(Locale.ROOT, "%-18s %12s %10s %8s %12s %10s %10s %10s %10s%n",
+                "operation", "count", "rejected", "errors", "ops/s", "p50 us", "p99 us", "p999 us", "max us"));
+        for (OperationStats stats : operations) {
+            report.append(String.format(Locale.ROOT, "%-18s %12d %10d %8d %12.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    stats.getOperation(), stats.getCount(), stats.getRejected(), stats.getErrors(), stats.getThroughput(),
+                    micros(stats.getP50()), micros(stats.getP99()), micros(stats.getP999()), micros(stats.getMax())));
+        }
+        report.append(String.format(Locale.ROOT, "%-18s %12d %10s %8s %12.1f%n", "TOTAL", getTotalCount(), "", "", getThroughput()));
+        report.append(String.format(Locale.ROOT, "Куча: до %d МБ, после %d МБ, пик %d МБ, максимум %d МБ%n",
+                megabytes(heapUsedBefore), megabytes(heapUsedAfter), megabytes(heapPeak), megabytes(heapMax)));
+        report.append(String.format(Locale.ROOT, "GC: %d пауз, всего %d мс, максимум %d мс%n",
+                gcCount, gcPauseTotal.toMillis(), gcPauseMax.toMillis()));
+        return report.toString();
+    }
+
+    private static double seconds(Duration duration) {
+        return Math.max(duration.toNanos(), 1) / 1e9;
+    }
+
+    private static double micros(Duration duration) {
+        return duration.toNanos() / 1e3;
+    }
+
+    private static long megabytes(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+}
@@ -0,0 +1,69 @@
+package kz.romanb.onelabproject.loadtest;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+class GcMonitor implements NotificationListener, AutoCloseable {
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMillis = new AtomicLong();
+    private final AtomicLong maxMillis = new AtomicLong();
+
+    GcMonitor() {
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (bean instanceof NotificationEmitter emitter && !isConcurrent(bean.getName())) {
+                emitter.addNotificationListener(this, null, null);
+                emitters.add(emitter);
+            }
+        }
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        long duration = info.getGcInfo().getDuration();
+        count.incrementAndGet();
+        totalMillis.addAndGet(duration);
+        maxMillis.accumulateAndGet(duration, Math::max);
+    }
+
+    long getCount() {
+        return count.get();
+    }
+
+    Duration getTotal() {
+        return Duration.ofMillis(totalMillis.get());
+    }
+
+    Duration getMax() {
+        return Duration.ofMillis(maxMillis.get());
+    }
+
+    @Override
+    public void close() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(this);
+            } catch (ListenerNotFoundException ignored) {
+            }
+        }
+    }
+
+    private static boolean isConcurrent(String name) {
+        return name.contains("Concurrent") || name.contains("Cycles");
+    }
+}
@@ -0,0 +1,306 @@
+package kz.romanb.onelabproject.loadtest;
+
+import kz.romanb.onelabproject.dto.BatchMode;
+import kz.romanb.onelabproject.dto.OperationRequest;
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.User;
+import kz.romanb.onelabproject.exceptions.BudgetExceededException;
+import kz.romanb.onelabproject.exceptions.NotEnoughMoneyException;
+import kz.romanb.onelabproject.repositories.BankAccountRepository;
+import kz.romanb.onelabproject.repositories.CostCategoryRepository;
+import kz.romanb.onelabproject.services.CostTrackerService;
+import kz.romanb.onelabproject.utils.Money;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@EnableConfigurationProperties(LoadTestProperties.class)
+public class LoadGenerator {
+    private static final int SEED_BATCH_SIZE = 10_000;
+    private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toNanos(1);
+
+    private final CostTrackerService costTrackerService;
+    private final BankAccountRepository bankAccountRepository;
+    private final CostCategoryRepository costCategoryRepository;
+    private final LoadTestProperties properties;
+
+    public CapacityReport run() {
+        Workload workload = new Workload(properties);
+        ExecutorService workers = Executors.newFixedThreadPool(workload.threads, daemon("load-generator"));
+        try {
+            long seeded = seed(workload, workers);
+            log.info("Нагрузочный тест: создано {} пользователей и {} операций", workload.users.size(), seeded);
+            return measure(workload, workers, seeded);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private long seed(Workload workload, ExecutorService workers) {
+        long userId = nextId(costTrackerService.findAllUsers(), User::getId);
+        long bankAccountId = nextId(bankAccountRepository.findAll(), BankAccount::getId);
+        long costCategoryId = nextId(costCategoryRepository.findAll(), CostCategory::getId);
+        for (int i = 0; i < properties.getUsers(); i++) {
+            User user = costTrackerService.createNewUser(User.builder().id(userId++).name("Load " + i).build());
+            for (int a = 0; a < properties.getAccountsPerUser(); a++) {
+                costTrackerService.addNewBankAccountToUser(user, BankAccount.builder()
+                        .id(bankAccountId++)
+                        .name("Account " + a)
+                        .balance(properties.getInitialBalance())
+                        .build());
+            }
+            for (int c = 0; c < properties.getCategoriesPerUser(); c++) {
+                costTrackerService.addNewCostCategoryToUser(user, CostCategory.builder()
+                        .id(costCategoryId++)
+                        .name("Category " + c)
+                        .categoryType(c == 0 ? CostCategory.CostCategoryType.INCOME : CostCategory.CostCategoryType.EXPENSE)
+                        .build());
+            }
+            workload.users.add(user);
+        }
+        List<Future<Long>> batches = new ArrayList<>();
+        int usersPerBatch = Math.max(1, SEED_BATCH_SIZE / Math.max(1, properties.getOperationsPerUser()));
+        for (int from = 0; from < workload.users.size(); from += usersPerBatch) {
+            List<User> users = workload.users.subList(from, Math.min(from + usersPerBatch, workload.users.size()));
+            SplittableRandom random = new SplittableRandom(properties.getSeed() + from);
+            batches.add(workers.submit(() -> {
+                List<OperationRequest> requests = new ArrayList<>(users.size() * properties.getOperationsPerUser());
+                for (User user : users) {
+                    for (int i = 0; i < properties.getOperationsPerUser(); i++) {
+                        requests.add(OperationRequest.builder()
+                                .bankAccount(account(user, random))
+                                .costCategory(category(user, random))
+                                .amount(amount(workload, random))
+                                .date(workload.startDate.plusDays(random.nextInt(properties.getDays())))
+                                .build());
+                    }
+                }
+                return (long) costTrackerService.createOperations(requests, BatchMode.PER_ITEM).getOperations().size();
+            }));
+        }
+        long seeded = 0;
+        for (Future<Long> batch : batches) {
+            seeded += await(batch);
+        }
+        return seeded;
+    }
+
+    private CapacityReport measure(Workload workload, ExecutorService workers, long seeded) {
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(p -> p.getType() == MemoryType.HEAP)
+                .collect(Collectors.toList());
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long heapUsedBefore = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        long warmupEnd = System.nanoTime() + properties.getWarmup().toNanos();
+        long measureEnd = warmupEnd + properties.getDuration().toNanos();
+        List<Future<WorkerResult>> results = new ArrayList<>();
+        try (GcMonitor gcMonitor = new GcMonitor()) {
+            for (int i = 0; i < workload.threads; i++) {
+                SplittableRandom random = new SplittableRandom(properties.getSeed() * 31 + i);
+                results.add(workers.submit(() -> work(workload, random, warmupEnd, measureEnd)));
+            }
+            WorkerResult total = new WorkerResult();
+            for (Future<WorkerResult> result : results) {
+                total.add(await(result));
+            }
+            long measured = Math.max(1, System.nanoTime() - warmupEnd);
+            List<OperationStats> operations = new ArrayList<>();
+            for (LoadOperation operation : workload.operations) {
+                Histogram histogram = total.latencies.get(operation);
+                operations.add(new OperationStats(
+                        operation,
+                        histogram.getTotalCount(),
+                        total.rejected[operation.ordinal()],
+                        total.errors[operation.ordinal()],
+                        histogram.getTotalCount() * 1e9 / measured,
+                        Duration.ofNanos(histogram.getValueAtPercentile(50)),
+                        Duration.ofNanos(histogram.getValueAtPercentile(99)),
+                        Duration.ofNanos(histogram.getValueAtPercentile(99.9)),
+                        Duration.ofNanos(histogram.getMaxValue())));
+            }
+            return new CapacityReport(
+                    Duration.ofNanos(measured),
+                    workload.threads,
+                    workload.users.size(),
+                    seeded,
+                    operations,
+                    heapUsedBefore,
+                    ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(),
+                    heapPools.stream().mapToLong(p -> p.getPeakUsage().getUsed()).sum(),
+                    ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax(),
+                    gcMonitor.getCount(),
+                    gcMonitor.getTotal(),
+                    gcMonitor.getMax());
+        }
+    }
+
+    private WorkerResult work(Workload workload, SplittableRandom random, long warmupEnd, long measureEnd) {
+        WorkerResult result = new WorkerResult();
+        long now = System.nanoTime();
+        while (now < measureEnd) {
+            LoadOperation operation = workload.nextOperation(random);
+            User user = workload.users.get(workload.zipf.sample(random));
+            boolean measured = now >= warmupEnd;
+            try {
+                execute(workload, operation, user, random);
+                long finished = System.nanoTime();
+                if (measured) {
+                    result.latencies.get(operation).recordValue(Math.min(finished - now, HIGHEST_LATENCY));
+                }
+                now = finished;
+            } catch (NotEnoughMoneyException | BudgetExceededException e) {
+                if (measured) {
+                    result.rejected[operation.ordinal()]++;
+                }
+                now = System.nanoTime();
+            } catch (RuntimeException e) {
+                if (measured && result.errors[operation.ordinal()]++ == 0) {
+                    log.warn("Ошибка нагрузочного теста в операции {}", operation, e);
+                }
+                now = System.nanoTime();
+            }
+        }
+        return result;
+    }
+
+    private void execute(Workload workload, LoadOperation operation, User user, SplittableRandom random) {
+        LocalDate from = workload.startDate.plusDays(random.nextInt(properties.getDays()));
+        switch (operation) {
+            case CREATE_OPERATION -> costTrackerService.createOperation(account(user, random), category(user, random), amount(workload, random));
+            case USER_OPERATIONS -> costTrackerService.findOperationsPageByUser(user, null, properties.getPageSize());
+            case USER_SUM -> costTrackerService.getSum(user, CostCategory.CostCategoryType.EXPENSE, from, from.plusDays(30));
+            case BALANCE_AS_OF -> costTrackerService.getBalanceAsOf(account(user, random), from);
+            case TOP_CATEGORIES -> costTrackerService.findTopCostCategories(user, from, from.plusDays(30), 5);
+            case DATE_RANGE -> costTrackerService.findOperationsPageBetweenDates(from, from, null, properties.getPageSize());
+        }
+    }
+
+    private static BankAccount account(User user, SplittableRandom random) {
+        return user.getBankAccounts().get(random.nextInt(user.getBankAccounts().size()));
+    }
+
+    private static CostCategory category(User user, SplittableRandom random) {
+        return user.getCostCategories().get(random.nextInt(user.getCostCategories().size()));
+    }
+
+    private static BigDecimal amount(Workload workload, SplittableRandom random) {
+        return Money.toBigDecimal(1 + random.nextLong(workload.maxAmountMinor));
+    }
+
+    private static <T> long nextId(List<T> items, ToLongFunction<T> id) {
+        return items.stream().mapToLong(id).max().orElse(0) + 1;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Нагрузочный тест прерван", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка нагрузочного теста", e.getCause());
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Workload {
+        private final List<User> users = new ArrayList<>();
+        private final LocalDate startDate;
+        private final long maxAmountMinor;
+        private final int threads;
+        private final ZipfSampler zipf;
+        private final LoadOperation[] operations;
+        private final int[] cumulativeWeights;
+
+        private Workload(LoadTestProperties properties) {
+            if (properties.getUsers() <= 0 || properties.getAccountsPerUser() <= 0 || properties.getCategoriesPerUser() <= 0
+                    || properties.getDays() <= 0) {
+                throw new IllegalArgumentException("Некорректные параметры нагрузочного теста");
+            }
+            this.startDate = LocalDate.now().minusDays(properties.getDays() - 1);
+            this.maxAmountMinor = Math.max(1, Money.toMinorUnits(properties.getMaxAmount()));
+            this.threads = Math.max(1, properties.getThreads());
+            this.zipf = new ZipfSampler(properties.getUsers(), properties.getZipfExponent());
+            List<LoadOperation> enabled = new ArrayList<>();
+            List<Integer> weights = new ArrayList<>();
+            int sum = 0;
+            for (Map.Entry<LoadOperation, Integer> entry : new EnumMap<>(properties.getMix()).entrySet()) {
+                if (entry.getValue() != null && entry.getValue() > 0) {
+                    sum += entry.getValue();
+                    enabled.add(entry.getKey());
+                    weights.add(sum);
+                }
+            }
+            if (enabled.isEmpty()) {
+                throw new IllegalArgumentException("Не задана смесь операций нагрузочного теста");
+            }
+            this.operations = enabled.toArray(new LoadOperation[0]);
+            this.cumulativeWeights = weights.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        private LoadOperation nextOperation(SplittableRandom random) {
+            int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (value < cumulativeWeights[i]) {
+                    return operations[i];
+                }
+            }
+            return operations[operations.length - 1];
+        }
+    }
+
+    private static final class WorkerResult {
+        private final Map<LoadOperation, Histogram> latencies = new EnumMap<>(LoadOperation.class);
+        private final long[] rejected = new long[LoadOperation.values().length];
+        private final long[] errors = new long[LoadOperation.values().length];
+
+        private WorkerResult() {
+            for (LoadOperation operation : LoadOperation.values()) {
+                latencies.put(operation, new Histogram(HIGHEST_LATENCY, 2));
+            }
+        }
+
+        private void add(WorkerResult other) {
+            for (LoadOperation operation : LoadOperation.values()) {
+                latencies.get(operation).add(other.latencies.get(operation));
+                rejected[operation.ordinal()] += other.rejected[operation.ordinal()];
+                errors[operation.ordinal()] += other.errors[operation.ordinal()];
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package kz.romanb.onelabproject.loadtest;
+
+public enum LoadOperation {
+    CREATE_OPERATION(true),
+    USER_OPERATIONS(false),
+    USER_SUM(false),
+    BALANCE_AS_OF(false),
+    TOP_CATEGORIES(false),
+    DATE_RANGE(false);
+
+    private final boolean write;
+
+    LoadOperation(boolean write) {
+        this.write = write;
+    }
+
+    public boolean isWrite() {
+        return write;
+    }
+}
@@ -0,0 +1,40 @@
+package kz.romanb.onelabproject.loadtest;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "onelab.loadtest")
+public class LoadTestProperties {
+    private boolean enabled = false;
+    private int users = 10_000;
+    private int accountsPerUser = 2;
+    private int categoriesPerUser = 6;
+    private int operationsPerUser = 100;
+    private int days = 365;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration duration = Duration.ofSeconds(60);
+    private double zipfExponent = 1.0;
+    private BigDecimal initialBalance = new BigDecimal("1000000.00");
+    private BigDecimal maxAmount = new BigDecimal("100.00");
+    private int pageSize = 50;
+    private long seed = 42;
+    private Path report;
+    private Map<LoadOperation, Integer> mix = new EnumMap<>(Map.of(
+            LoadOperation.CREATE_OPERATION, 20,
+            LoadOperation.USER_OPERATIONS, 25,
+            LoadOperation.USER_SUM, 25,
+            LoadOperation.BALANCE_AS_OF, 10,
+            LoadOperation.TOP_CATEGORIES, 10,
+            LoadOperation.DATE_RANGE, 10
+    ));
+}
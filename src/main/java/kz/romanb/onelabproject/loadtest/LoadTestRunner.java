@@ -0,0 +1,36 @@
+package kz.romanb.onelabproject.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "onelab.loadtest", name = "enabled", havingValue = "true")
+public class LoadTestRunner implements CommandLineRunner {
+    private final LoadGenerator loadGenerator;
+    private final LoadTestProperties properties;
+
+    @Override
+    public void run(String... args) {
+        String report = loadGenerator.run().format();
+        log.info("Отчет нагрузочного теста:\n{}", report);
+        if (properties.getReport() != null) {
+            try {
+                Files.writeString(properties.getReport(), report);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось записать отчет нагрузочного теста", e);
+            }
+        }
+    }
+}
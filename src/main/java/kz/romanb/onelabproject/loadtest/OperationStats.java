@@ -0,0 +1,22 @@
+package kz.romanb.onelabproject.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class OperationStats {
+    private final LoadOperation operation;
+    private final long count;
+    private final long rejected;
+    private final long errors;
+    private final double throughput;
+    private final Duration p50;
+    private final Duration p99;
+    private final Duration p999;
+    private final Duration max;
+}
@@ -0,0 +1,31 @@
+package kz.romanb.onelabproject.loadtest;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+public final class ZipfSampler {
+    private final double[] cumulative;
+
+    public ZipfSampler(int size, double exponent) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Размер выборки должен быть больше нуля");
+        }
+        if (exponent < 0) {
+            throw new IllegalArgumentException("Показатель распределения не может быть отрицательным");
+        }
+        cumulative = new double[size];
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    public int sample(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,74 @@
+package kz.romanb.onelabproject.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import kz.romanb.onelabproject.dto.BatchResult;
+import kz.romanb.onelabproject.exceptions.NotEnoughMoneyException;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+@Aspect
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "onelab.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class MetricsAspect {
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<Method, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    @Around("execution(public * kz.romanb.onelabproject.services.CostTrackerService.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Object result;
+        try {
+            result = time(joinPoint, method, "service");
+        } catch (NotEnoughMoneyException e) {
+            rejected(method, "not_enough_money").increment();
+            throw e;
+        } catch (IllegalArgumentException e) {
+            rejected(method, "illegal_argument").increment();
+            throw e;
+        }
+        if (result instanceof BatchResult batchResult && !batchResult.isSuccessful()) {
+            rejected(method, "batch_item").increment(batchResult.getFailures().size());
+        }
+        return result;
+    }
+
+    @Around("execution(public * kz.romanb.onelabproject.repositories.Repository+.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, ((MethodSignature) joinPoint.getSignature()).getMethod(), "repository");
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, Method method, String layer) throws Throwable {
+        Timer timer = timers.computeIfAbsent(method, m -> Timer.builder("onelab.calls")
+                .tag("layer", layer)
+                .tag("class", joinPoint.getTarget().getClass().getSimpleName())
+                .tag("method", m.getName())
+                .register(meterRegistry));
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Counter rejected(Method method, String reason) {
+        return rejections.computeIfAbsent(method.getName() + ':' + reason, k -> Counter.builder("onelab.operations.rejected")
+                .tag("method", method.getName())
+                .tag("reason", reason)
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,31 @@
+package kz.romanb.onelabproject.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+
+public class QueryMetrics {
+    private final DistributionSummary scanned;
+    private final DistributionSummary returned;
+
+    private QueryMetrics(String repository, String query) {
+        this.scanned = DistributionSummary.builder("onelab.repository.rows.scanned")
+                .baseUnit("rows")
+                .tag("repository", repository)
+                .tag("query", query)
+                .register(Metrics.globalRegistry);
+        this.returned = DistributionSummary.builder("onelab.repository.rows.returned")
+                .baseUnit("rows")
+                .tag("repository", repository)
+                .tag("query", query)
+                .register(Metrics.globalRegistry);
+    }
+
+    public static QueryMetrics of(String repository, String query) {
+        return new QueryMetrics(repository, query);
+    }
+
+    public void record(long scannedRows, long returnedRows) {
+        scanned.record(scannedRows);
+        returned.record(returnedRows);
+    }
+}
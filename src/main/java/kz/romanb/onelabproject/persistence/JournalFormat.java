@@ -0,0 +1,158 @@
+package kz.romanb.onelabproject.persistence;
+
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.User;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+final class JournalFormat {
+    static final int MAX_RECORD_SIZE = 4 + 1 + 8 * 6 + 2 + 0xFFFF + 4;
+
+    private static final byte USER = 1;
+    private static final byte BANK_ACCOUNT = 2;
+    private static final byte COST_CATEGORY = 3;
+    private static final byte OPERATION = 4;
+    private static final byte OPERATION_UPDATE = 5;
+    private static final long NULL = Long.MIN_VALUE;
+    private static final CostCategory.CostCategoryType[] CATEGORY_TYPES = CostCategory.CostCategoryType.values();
+
+    private JournalFormat() {
+    }
+
+    static void writeUser(ByteBuffer buffer, User user) {
+        int start = begin(buffer, USER);
+        buffer.putLong(user.getId());
+        putString(buffer, user.getName());
+        end(buffer, start);
+    }
+
+    static void writeBankAccount(ByteBuffer buffer, BankAccount bankAccount) {
+        int start = begin(buffer, BANK_ACCOUNT);
+        buffer.putLong(bankAccount.getId());
+        buffer.putLong(bankAccount.getUserId() == null ? NULL : bankAccount.getUserId());
+        buffer.putLong(bankAccount.getBalanceMinor());
+        putString(buffer, bankAccount.getName());
+        end(buffer, start);
+    }
+
+    static void writeCostCategory(ByteBuffer buffer, CostCategory costCategory) {
+        int start = begin(buffer, COST_CATEGORY);
+        buffer.putLong(costCategory.getId());
+        buffer.putLong(costCategory.getUserId() == null ? NULL : costCategory.getUserId());
+        buffer.put((byte) costCategory.getCategoryType().ordinal());
+        putString(buffer, costCategory.getName());
+        end(buffer, start);
+    }
+
+    static void writeOperation(ByteBuffer buffer, Operation operation) {
+        writeOperation(buffer, operation, operation.getBalanceAfterMinor());
+    }
+
+    static void writeOperation(ByteBuffer buffer, Operation operation, Long balanceAfterMinor) {
+        int start = begin(buffer, OPERATION);
+        buffer.putLong(operation.getId());
+        buffer.putLong(operation.getBankAccount().getId());
+        buffer.putLong(operation.getCostCategory().getId());
+        buffer.putLong(operation.getAmountMinor());
+        buffer.putLong(operation.getDate().toEpochDay());
+        buffer.putLong(balanceAfterMinor == null ? NULL : balanceAfterMinor);
+        end(buffer, start);
+    }
+
+    static void writeOperationUpdate(ByteBuffer buffer, Operation operation) {
+        int start = begin(buffer, OPERATION_UPDATE);
+        buffer.putLong(operation.getId());
+        buffer.putLong(operation.getAmountMinor());
+        buffer.putLong(operation.getDate().toEpochDay());
+        end(buffer, start);
+    }
+
+    static long read(ByteBuffer buffer, JournalVisitor visitor) {
+        long records = 0;
+        CRC32C crc = new CRC32C();
+        while (buffer.remaining() >= 4) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            if (length <= 0 || length > MAX_RECORD_SIZE || buffer.remaining() < length + 4) {
+                buffer.position(start);
+                break;
+            }
+            ByteBuffer body = buffer.slice(buffer.position(), length);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(buffer.position() + length)) {
+                buffer.position(start);
+                break;
+            }
+            dispatch(body, visitor);
+            buffer.position(start + 4 + length + 4);
+            records++;
+        }
+        return records;
+    }
+
+    private static void dispatch(ByteBuffer body, JournalVisitor visitor) {
+        byte type = body.get();
+        switch (type) {
+            case USER -> visitor.user(body.getLong(), getString(body));
+            case BANK_ACCOUNT -> {
+                long id = body.getLong();
+                long userId = body.getLong();
+                long balanceMinor = body.getLong();
+                visitor.bankAccount(id, userId == NULL ? null : userId, getString(body), balanceMinor);
+            }
+            case COST_CATEGORY -> {
+                long id = body.getLong();
+                long userId = body.getLong();
+                CostCategory.CostCategoryType categoryType = CATEGORY_TYPES[body.get()];
+                visitor.costCategory(id, userId == NULL ? null : userId, getString(body), categoryType);
+            }
+            case OPERATION -> {
+                long id = body.getLong();
+                long bankAccountId = body.getLong();
+                long costCategoryId = body.getLong();
+                long amountMinor = body.getLong();
+                long epochDay = body.getLong();
+                long balanceAfterMinor = body.getLong();
+                visitor.operation(id, bankAccountId, costCategoryId, amountMinor, epochDay,
+                        balanceAfterMinor == NULL ? null : balanceAfterMinor);
+            }
+            case OPERATION_UPDATE -> visitor.operationUpdate(body.getLong(), body.getLong(), body.getLong());
+            default -> throw new IllegalStateException("Неизвестный тип записи журнала " + type);
+        }
+    }
+
+    private static int begin(ByteBuffer buffer, byte type) {
+        int start = buffer.position();
+        buffer.position(start + 4);
+        buffer.put(type);
+        return start;
+    }
+
+    private static void end(ByteBuffer buffer, int start) {
+        int bodyEnd = buffer.position();
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(start + 4, bodyEnd - start - 4));
+        buffer.putInt((int) crc.getValue());
+        buffer.putInt(start, bodyEnd - start - 4);
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Слишком длинное название: " + bytes.length + " байт");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,21 @@
+package kz.romanb.onelabproject.persistence;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "onelab.journal")
+public class JournalProperties {
+    private boolean enabled = false;
+    private Path directory = Path.of("data", "journal");
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+    private int fsyncEvery = 1000;
+    private Duration fsyncInterval = Duration.ofMillis(100);
+    private long snapshotEvery = 1_000_000;
+}
@@ -0,0 +1,15 @@
+package kz.romanb.onelabproject.persistence;
+
+import kz.romanb.onelabproject.entities.CostCategory;
+
+public interface JournalVisitor {
+    void user(long id, String name);
+
+    void bankAccount(long id, Long userId, String name, long balanceMinor);
+
+    void costCategory(long id, Long userId, String name, CostCategory.CostCategoryType categoryType);
+
+    void operation(long id, long bankAccountId, long costCategoryId, long amountMinor, long epochDay, Long balanceAfterMinor);
+
+    void operationUpdate(long id, long amountMinor, long epochDay);
+}
@@ -0,0 +1,216 @@
+package kz.romanb.onelabproject.persistence;
+
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.User;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+public class OperationJournal implements Closeable {
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int fsyncEvery;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long segment;
+    private int unflushed;
+    private long appended;
+    private RuntimeException failure;
+
+    public OperationJournal(Path directory, int segmentSize, int fsyncEvery) {
+        if (segmentSize < JournalFormat.MAX_RECORD_SIZE * 2) {
+            throw new IllegalArgumentException("Размер сегмента журнала слишком мал: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncEvery = Math.max(fsyncEvery, 1);
+    }
+
+    public synchronized void open() {
+        try {
+            Files.createDirectories(directory);
+            List<Long> segments = segments();
+            openSegment(segments.isEmpty() ? 1 : segments.get(segments.size() - 1) + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long replay(long fromSegment, JournalVisitor visitor) {
+        long records = 0;
+        for (long s : segments()) {
+            if (s >= fromSegment) {
+                records += readFile(segmentPath(s), visitor);
+            }
+        }
+        return records;
+    }
+
+    public void appendUser(User user) {
+        append(user, JournalFormat::writeUser);
+    }
+
+    public void appendBankAccount(BankAccount bankAccount) {
+        append(bankAccount, JournalFormat::writeBankAccount);
+    }
+
+    public void appendCostCategory(CostCategory costCategory) {
+        append(costCategory, JournalFormat::writeCostCategory);
+    }
+
+    public void appendOperation(Operation operation) {
+        append(operation, JournalFormat::writeOperation);
+    }
+
+    public void appendOperationUpdate(Operation operation) {
+        append(operation, JournalFormat::writeOperationUpdate);
+    }
+
+    public synchronized long getAppended() {
+        return appended;
+    }
+
+    public synchronized void force() {
+        if (buffer != null && unflushed > 0) {
+            try {
+                buffer.force();
+            } catch (RuntimeException e) {
+                failure = e;
+                throw e;
+            }
+            unflushed = 0;
+        }
+    }
+
+    public synchronized long rotate() {
+        closeSegment();
+        openSegment(segment + 1);
+        return segment;
+    }
+
+    public synchronized void deleteSegmentsBefore(long fromSegment) {
+        for (long s : segments()) {
+            if (s < fromSegment) {
+                try {
+                    Files.deleteIfExists(segmentPath(s));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closeSegment();
+    }
+
+    static long readFile(Path path, JournalVisitor visitor) {
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = file.size();
+            if (size == 0) {
+                return 0;
+            }
+            long records = 0;
+            long offset = 0;
+            while (offset < size) {
+                long window = Math.min(size - offset, Integer.MAX_VALUE);
+                MappedByteBuffer mapped = file.map(FileChannel.MapMode.READ_ONLY, offset, window);
+                records += JournalFormat.read(mapped, visitor);
+                if (offset + window == size || mapped.position() == 0) {
+                    break;
+                }
+                offset += mapped.position();
+            }
+            return records;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private synchronized <T> void append(T entity, BiConsumer<ByteBuffer, T> writer) {
+        if (failure != null) {
+            throw new IllegalStateException("Журнал операций остановлен после ошибки записи", failure);
+        }
+        if (buffer == null) {
+            throw new IllegalStateException("Журнал операций не открыт");
+        }
+        try {
+            if (buffer.remaining() < JournalFormat.MAX_RECORD_SIZE) {
+                rotate();
+            }
+            writer.accept(buffer, entity);
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        }
+        appended++;
+        if (++unflushed >= fsyncEvery) {
+            force();
+        }
+    }
+
+    private void openSegment(long segment) {
+        try {
+            this.segment = segment;
+            this.channel = FileChannel.open(segmentPath(segment),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            this.unflushed = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeSegment() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            buffer.force();
+            channel.truncate(buffer.position());
+            channel.force(true);
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            channel = null;
+            buffer = null;
+            unflushed = 0;
+        }
+    }
+
+    private List<Long> segments() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith(SEGMENT_PREFIX) && n.endsWith(SEGMENT_SUFFIX))
+                    .map(n -> Long.parseLong(n.substring(SEGMENT_PREFIX.length(), n.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%020d", segment) + SEGMENT_SUFFIX);
+    }
+}
@@ -0,0 +1,358 @@
+package kz.romanb.onelabproject.persistence;
+
+import jakarta.annotation.PreDestroy;
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.OperationListener;
+import kz.romanb.onelabproject.entities.User;
+import kz.romanb.onelabproject.ids.IdGenerator;
+import kz.romanb.onelabproject.repositories.BankAccountRepository;
+import kz.romanb.onelabproject.repositories.CostCategoryRepository;
+import kz.romanb.onelabproject.repositories.OperationRepository;
+import kz.romanb.onelabproject.repositories.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "onelab.journal", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(JournalProperties.class)
+public class PersistenceManager implements SmartInitializingSingleton, OperationListener {
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final int RECOVERY_BATCH_SIZE = 65_536;
+
+    private final UserRepository userRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final CostCategoryRepository costCategoryRepository;
+    private final OperationRepository operationRepository;
+    private final IdGenerator idGenerator;
+    private final JournalProperties properties;
+    private final OperationJournal journal;
+    private final AtomicLong recordsSinceSnapshot = new AtomicLong();
+    private final AtomicBoolean snapshotRunning = new AtomicBoolean();
+    private ScheduledExecutorService flusher;
+    private ExecutorService snapshotExecutor;
+
+    public PersistenceManager(UserRepository userRepository,
+                              BankAccountRepository bankAccountRepository,
+                              CostCategoryRepository costCategoryRepository,
+                              OperationRepository operationRepository,
+                              IdGenerator idGenerator,
+                              JournalProperties properties) {
+        this.userRepository = userRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.costCategoryRepository = costCategoryRepository;
+        this.operationRepository = operationRepository;
+        this.idGenerator = idGenerator;
+        this.properties = properties;
+        this.journal = new OperationJournal(properties.getDirectory(),
+                (int) properties.getSegmentSize().toBytes(),
+                properties.getFsyncEvery());
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        recover();
+        start();
+    }
+
+    public long recover() {
+        long started = System.nanoTime();
+        Recovery recovery = new Recovery();
+        long fromSegment = 0;
+        Optional<Path> snapshot = snapshots().stream().reduce((a, b) -> b);
+        if (snapshot.isPresent()) {
+            OperationJournal.readFile(snapshot.get(), recovery);
+            fromSegment = sequenceOf(snapshot.get());
+        }
+        long records = journal.replay(fromSegment, recovery);
+        recovery.finish();
+        log.info("Восстановлено {} записей операций, {} записей журнала за {} мс",
+                recovery.operations, records, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return recovery.operations;
+    }
+
+    public void start() {
+        journal.open();
+        userRepository.addListener(u -> appended(() -> journal.appendUser(u)));
+        bankAccountRepository.addListener(b -> appended(() -> journal.appendBankAccount(b)));
+        costCategoryRepository.addListener(c -> appended(() -> journal.appendCostCategory(c)));
+        operationRepository.addListener(this);
+        flusher = Executors.newSingleThreadScheduledExecutor(daemon("journal-flusher"));
+        long interval = properties.getFsyncInterval().toMillis();
+        if (interval > 0) {
+            flusher.scheduleWithFixedDelay(journal::force, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        snapshotExecutor = Executors.newSingleThreadExecutor(daemon("journal-snapshot"));
+    }
+
+    @Override
+    public void onSaved(Operation operation, Operation previous) {
+        appended(() -> journal.appendOperation(operation));
+    }
+
+    @Override
+    public void onDateChanged(Operation operation, LocalDate oldDate) {
+        appended(() -> journal.appendOperationUpdate(operation));
+    }
+
+    @Override
+    public void onAmountChanged(Operation operation, long oldAmountMinor) {
+        appended(() -> journal.appendOperationUpdate(operation));
+    }
+
+    public void snapshot() {
+        long fromSegment = journal.rotate();
+        recordsSinceSnapshot.set(0);
+        Path target = snapshotPath(fromSegment);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                SnapshotWriter writer = new SnapshotWriter(channel);
+                List.copyOf(userRepository.findAll()).forEach(u -> writer.write(b -> JournalFormat.writeUser(b, u)));
+                List.copyOf(bankAccountRepository.findAll()).forEach(a -> writer.write(b -> JournalFormat.writeBankAccount(b, a)));
+                List.copyOf(costCategoryRepository.findAll()).forEach(c -> writer.write(b -> JournalFormat.writeCostCategory(b, c)));
+                operationRepository.findAll().forEach(o -> writer.write(b -> JournalFormat.writeOperation(b, o, null)));
+                writer.flush();
+                channel.force(true);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            for (Path old : snapshots()) {
+                if (sequenceOf(old) < fromSegment) {
+                    Files.deleteIfExists(old);
+                }
+            }
+            journal.deleteSegmentsBefore(fromSegment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        if (snapshotExecutor != null) {
+            snapshotExecutor.shutdown();
+            try {
+                snapshotExecutor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        journal.close();
+    }
+
+    private void appended(Runnable append) {
+        append.run();
+        long snapshotEvery = properties.getSnapshotEvery();
+        if (snapshotEvery > 0
+                && recordsSinceSnapshot.incrementAndGet() >= snapshotEvery
+                && snapshotRunning.compareAndSet(false, true)) {
+            snapshotExecutor.execute(() -> {
+                try {
+                    snapshot();
+                } catch (RuntimeException e) {
+                    log.error("Не удалось сохранить снимок состояния", e);
+                } finally {
+                    snapshotRunning.set(false);
+                }
+            });
+        }
+    }
+
+    private List<Path> snapshots() {
+        Path directory = properties.getDirectory();
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> {
+                        String name = p.getFileName().toString();
+                        return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+                    })
+                    .sorted(Comparator.comparingLong(PersistenceManager::sequenceOf))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path snapshotPath(long segment) {
+        return properties.getDirectory().resolve(SNAPSHOT_PREFIX + String.format("%020d", segment) + SNAPSHOT_SUFFIX);
+    }
+
+    private static long sequenceOf(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class SnapshotWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+
+        private SnapshotWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void write(Consumer<ByteBuffer> record) {
+            if (buffer.remaining() < JournalFormat.MAX_RECORD_SIZE) {
+                flush();
+            }
+            record.accept(buffer);
+        }
+
+        private void flush() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+        }
+    }
+
+    private class Recovery implements JournalVisitor {
+        private final Map<Long, User> users = new HashMap<>();
+        private final Map<Long, BankAccount> bankAccounts = new HashMap<>();
+        private final Map<Long, CostCategory> costCategories = new HashMap<>();
+        private final Map<Long, Operation> pending = new LinkedHashMap<>();
+        private long maxOperationId;
+        private long operations;
+
+        @Override
+        public void user(long id, String name) {
+            User user = users.get(id);
+            if (user == null) {
+                user = User.builder().id(id).name(name).build();
+                users.put(id, user);
+                userRepository.save(user);
+            } else {
+                user.setName(name);
+            }
+        }
+
+        @Override
+        public void bankAccount(long id, Long userId, String name, long balanceMinor) {
+            BankAccount bankAccount = bankAccounts.get(id);
+            if (bankAccount == null) {
+                bankAccount = BankAccount.builder().id(id).userId(userId).name(name).balanceMinor(balanceMinor).build();
+                bankAccounts.put(id, bankAccount);
+                User user = userId == null ? null : users.get(userId);
+                if (user != null) {
+                    user.getBankAccounts().add(bankAccount);
+                }
+                bankAccountRepository.save(bankAccount);
+            } else {
+                bankAccount.setName(name);
+                bankAccount.setBalanceMinor(balanceMinor);
+                flush();
+                bankAccountRepository.save(bankAccount);
+            }
+        }
+
+        @Override
+        public void costCategory(long id, Long userId, String name, CostCategory.CostCategoryType categoryType) {
+            CostCategory costCategory = costCategories.get(id);
+            if (costCategory == null) {
+                costCategory = CostCategory.builder().id(id).userId(userId).name(name).categoryType(categoryType).build();
+                costCategories.put(id, costCategory);
+                User user = userId == null ? null : users.get(userId);
+                if (user != null) {
+                    user.getCostCategories().add(costCategory);
+                }
+                costCategoryRepository.save(costCategory);
+            } else {
+                costCategory.setName(name);
+            }
+        }
+
+        @Override
+        public void operation(long id, long bankAccountId, long costCategoryId, long amountMinor, long epochDay, Long balanceAfterMinor) {
+            BankAccount bankAccount = bankAccounts.get(bankAccountId);
+            CostCategory costCategory = costCategories.get(costCategoryId);
+            if (bankAccount == null || costCategory == null) {
+                log.warn("Пропущена операция {}: не найден счет {} или категория {}", id, bankAccountId, costCategoryId);
+                return;
+            }
+            if (balanceAfterMinor != null) {
+                bankAccount.setBalanceMinor(balanceAfterMinor);
+            }
+            if (pending.containsKey(id)) {
+                flush();
+            }
+            pending.put(id, Operation.builder()
+                    .id(id)
+                    .bankAccount(bankAccount)
+                    .costCategory(costCategory)
+                    .amountMinor(amountMinor)
+                    .date(LocalDate.ofEpochDay(epochDay))
+                    .balanceAfterMinor(balanceAfterMinor)
+                    .build());
+            maxOperationId = Math.max(maxOperationId, id);
+            operations++;
+            if (pending.size() >= RECOVERY_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        @Override
+        public void operationUpdate(long id, long amountMinor, long epochDay) {
+            flush();
+            operationRepository.findById(id).ifPresent(o -> {
+                o.setAmountMinor(amountMinor);
+                o.setDate(LocalDate.ofEpochDay(epochDay));
+            });
+        }
+
+        private void flush() {
+            if (!pending.isEmpty()) {
+                operationRepository.saveAll(new ArrayList<>(pending.values()));
+                pending.clear();
+            }
+        }
+
+        private void finish() {
+            flush();
+            idGenerator.advanceTo(maxOperationId);
+        }
+    }
+}
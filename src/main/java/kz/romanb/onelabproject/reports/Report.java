@@ -0,0 +1,15 @@
+package kz.romanb.onelabproject.reports;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Set;
+
+@Getter
+@AllArgsConstructor
+public class Report {
+    private final List<ReportDimension> groupBy;
+    private final Set<ReportMeasure> measures;
+    private final List<ReportRow> rows;
+}
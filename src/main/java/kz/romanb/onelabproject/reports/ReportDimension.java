@@ -0,0 +1,5 @@
+package kz.romanb.onelabproject.reports;
+
+public enum ReportDimension {
+    COST_CATEGORY, CATEGORY_TYPE, BANK_ACCOUNT, DAY, WEEK, MONTH
+}
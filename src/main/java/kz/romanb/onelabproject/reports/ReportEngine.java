@@ -0,0 +1,162 @@
+package kz.romanb.onelabproject.reports;
+
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.utils.Money;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public final class ReportEngine {
+    private static final int PARALLEL_THRESHOLD = 8192;
+    private static final long MISSING = Long.MIN_VALUE;
+
+    private ReportEngine() {
+    }
+
+    public static Report build(ReportRequest request, List<Operation> operations) {
+        ReportDimension[] dimensions = request.getGroupBy().toArray(new ReportDimension[0]);
+        Set<ReportMeasure> measures = request.getMeasures().isEmpty()
+                ? EnumSet.allOf(ReportMeasure.class)
+                : EnumSet.copyOf(request.getMeasures());
+        Pivot pivot = operations.size() < PARALLEL_THRESHOLD
+                ? operations.stream().collect(() -> new Pivot(dimensions), Pivot::add, Pivot::merge)
+                : operations.parallelStream().collect(() -> new Pivot(dimensions), Pivot::add, Pivot::merge);
+        return new Report(List.of(dimensions), measures, pivot.rows());
+    }
+
+    private static long keyOf(ReportDimension dimension, Operation operation) {
+        LocalDate date = operation.getDate();
+        return switch (dimension) {
+            case COST_CATEGORY -> operation.getCostCategory().getId() == null ? MISSING : operation.getCostCategory().getId();
+            case CATEGORY_TYPE -> operation.getCostCategory().getCategoryType().ordinal();
+            case BANK_ACCOUNT -> operation.getBankAccount() == null || operation.getBankAccount().getId() == null
+                    ? MISSING
+                    : operation.getBankAccount().getId();
+            case DAY -> date.toEpochDay();
+            case WEEK -> date.toEpochDay() - Math.floorMod(date.toEpochDay() + 3, 7);
+            case MONTH -> date.getYear() * 12L + date.getMonthValue() - 1;
+        };
+    }
+
+    private static Object valueOf(ReportDimension dimension, long key, Operation sample) {
+        if (key == MISSING) {
+            return null;
+        }
+        return switch (dimension) {
+            case COST_CATEGORY -> sample.getCostCategory();
+            case CATEGORY_TYPE -> sample.getCostCategory().getCategoryType();
+            case BANK_ACCOUNT -> sample.getBankAccount();
+            case DAY, WEEK -> LocalDate.ofEpochDay(key);
+            case MONTH -> LocalDate.of((int) (key / 12), (int) (key % 12) + 1, 1);
+        };
+    }
+
+    private static final class Pivot {
+        private final ReportDimension[] dimensions;
+        private final Map<Key, Cell> cells = new HashMap<>();
+        private Key probe;
+
+        private Pivot(ReportDimension[] dimensions) {
+            this.dimensions = dimensions;
+            this.probe = new Key(new long[dimensions.length]);
+        }
+
+        private void add(Operation operation) {
+            if (operation.getCostCategory() == null || operation.getDate() == null) {
+                return;
+            }
+            for (int i = 0; i < dimensions.length; i++) {
+                probe.values[i] = keyOf(dimensions[i], operation);
+            }
+            probe.rehash();
+            Cell cell = cells.get(probe);
+            if (cell == null) {
+                cell = new Cell(operation);
+                cells.put(probe, cell);
+                probe = new Key(new long[dimensions.length]);
+            }
+            cell.add(operation.getAmountMinor());
+        }
+
+        private void merge(Pivot other) {
+            other.cells.forEach((key, cell) -> cells.merge(key, cell, Cell::merge));
+        }
+
+        private List<ReportRow> rows() {
+            List<Map.Entry<Key, Cell>> entries = new ArrayList<>(cells.entrySet());
+            entries.sort(Map.Entry.comparingByKey());
+            List<ReportRow> rows = new ArrayList<>(entries.size());
+            for (Map.Entry<Key, Cell> entry : entries) {
+                Cell cell = entry.getValue();
+                Map<ReportDimension, Object> keys = new LinkedHashMap<>();
+                for (int i = 0; i < dimensions.length; i++) {
+                    keys.put(dimensions[i], valueOf(dimensions[i], entry.getKey().values[i], cell.sample));
+                }
+                rows.add(new ReportRow(keys, cell.count, cell.sum, cell.min, cell.max));
+            }
+            return rows;
+        }
+    }
+
+    private static final class Key implements Comparable<Key> {
+        private final long[] values;
+        private int hash;
+
+        private Key(long[] values) {
+            this.values = values;
+        }
+
+        private void rehash() {
+            hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Arrays.equals(values, key.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            return Arrays.compare(values, other.values);
+        }
+    }
+
+    private static final class Cell {
+        private final Operation sample;
+        private long count;
+        private long sum;
+        private long min = Long.MAX_VALUE;
+        private long max = Long.MIN_VALUE;
+
+        private Cell(Operation sample) {
+            this.sample = sample;
+        }
+
+        private void add(long amountMinor) {
+            count++;
+            sum = Money.add(sum, amountMinor);
+            min = Math.min(min, amountMinor);
+            max = Math.max(max, amountMinor);
+        }
+
+        private Cell merge(Cell other) {
+            count += other.count;
+            sum = Money.add(sum, other.sum);
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            return this;
+        }
+    }
+}
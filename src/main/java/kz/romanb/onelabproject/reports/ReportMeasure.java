@@ -0,0 +1,5 @@
+package kz.romanb.onelabproject.reports;
+
+public enum ReportMeasure {
+    SUM, COUNT, AVG, MIN, MAX
+}
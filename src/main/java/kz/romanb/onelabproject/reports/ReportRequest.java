@@ -0,0 +1,23 @@
+package kz.romanb.onelabproject.reports;
+
+import kz.romanb.onelabproject.entities.User;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportRequest {
+    private User user;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    @Singular("groupBy")
+    private List<ReportDimension> groupBy;
+    @Singular
+    private Set<ReportMeasure> measures;
+}
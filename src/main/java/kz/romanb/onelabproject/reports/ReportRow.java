@@ -0,0 +1,51 @@
+package kz.romanb.onelabproject.reports;
+
+import kz.romanb.onelabproject.utils.Money;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class ReportRow {
+    private final Map<ReportDimension, Object> keys;
+    private final long count;
+    private final long sumMinor;
+    private final long minMinor;
+    private final long maxMinor;
+
+    public Object get(ReportDimension dimension) {
+        return keys.get(dimension);
+    }
+
+    public BigDecimal getSum() {
+        return Money.toBigDecimal(sumMinor);
+    }
+
+    public BigDecimal getAverage() {
+        return Money.toBigDecimal(sumMinor).divide(BigDecimal.valueOf(count), Money.SCALE, RoundingMode.HALF_EVEN);
+    }
+
+    public BigDecimal getMin() {
+        return Money.toBigDecimal(minMinor);
+    }
+
+    public BigDecimal getMax() {
+        return Money.toBigDecimal(maxMinor);
+    }
+
+    public Number get(ReportMeasure measure) {
+        return switch (measure) {
+            case SUM -> getSum();
+            case COUNT -> count;
+            case AVG -> getAverage();
+            case MIN -> getMin();
+            case MAX -> getMax();
+        };
+    }
+}
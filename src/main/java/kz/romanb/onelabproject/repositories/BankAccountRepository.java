@@ -2,5 +2,10 @@ package kz.romanb.onelabproject.repositories;
 
 import kz.romanb.onelabproject.entities.BankAccount;
 
+import java.util.Optional;
+
 public interface BankAccountRepository extends Repository<BankAccount, Long> {
+    void addListener(RepositoryListener<BankAccount> listener);
+
+    Optional<BankAccount> findByUserIdAndName(Long userId, String name);
 }
@@ -3,35 +3,45 @@ package kz.romanb.onelabproject.repositories;
 import kz.romanb.onelabproject.entities.BankAccount;
 import org.springframework.stereotype.Repository;
 
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @Repository
-public class BankAccountRepositoryImpl implements BankAccountRepository {
-    public static final List<BankAccount> bankAccounts = new ArrayList<>();
+public class BankAccountRepositoryImpl extends HashRepository<BankAccount> implements BankAccountRepository {
+    private final ConcurrentMap<NameKey, BankAccount> byUserAndName = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, NameKey> nameKeys = new ConcurrentHashMap<>();
 
-    @Override
-    public BankAccount save(BankAccount bankAccount) {
-        Optional<BankAccount> bankAccountOptional = findById(bankAccount.getId());
-        bankAccountOptional.ifPresent(bankAccounts::remove);
-        bankAccounts.add(bankAccount);
-        sortBankAccounts();
-        return bankAccount;
+    public BankAccountRepositoryImpl() {
+        super("bankAccounts", BankAccount::getId);
     }
 
     @Override
-    public Optional<BankAccount> findById(Long id) {
-        return bankAccounts.stream().filter(u -> u.getId() == id).findFirst();
+    public Optional<BankAccount> findByUserIdAndName(Long userId, String name) {
+        if (userId == null || name == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(byUserAndName.get(new NameKey(userId, name)));
     }
 
     @Override
-    public List<BankAccount> findAll() {
-        return bankAccounts;
+    protected void beforeSave(BankAccount bankAccount) {
+        NameKey key = bankAccount.getUserId() == null || bankAccount.getName() == null
+                ? null
+                : new NameKey(bankAccount.getUserId(), bankAccount.getName());
+        if (key != null) {
+            BankAccount owner = byUserAndName.putIfAbsent(key, bankAccount);
+            if (owner != null && !owner.getId().equals(bankAccount.getId())) {
+                throw new IllegalArgumentException("У пользователя уже есть такой счет");
+            }
+            byUserAndName.put(key, bankAccount);
+        }
+        NameKey previous = key == null ? nameKeys.remove(bankAccount.getId()) : nameKeys.put(bankAccount.getId(), key);
+        if (previous != null && !previous.equals(key)) {
+            byUserAndName.remove(previous, bankAccount);
+        }
     }
 
-    private static void sortBankAccounts() {
-        bankAccounts.sort(Comparator.comparing(BankAccount::getId));
+    private record NameKey(long userId, String name) {
     }
 }
@@ -0,0 +1,516 @@
+package kz.romanb.onelabproject.repositories;
+
+import kz.romanb.onelabproject.dto.OperationCursor;
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.OperationListener;
+import kz.romanb.onelabproject.entities.User;
+import kz.romanb.onelabproject.metrics.QueryMetrics;
+import kz.romanb.onelabproject.repositories.columnar.IntList;
+import kz.romanb.onelabproject.repositories.columnar.LongIntMap;
+import kz.romanb.onelabproject.repositories.columnar.OperationColumns;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.IntToLongFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+@Repository
+@ConditionalOnProperty(name = "onelab.operations.store", havingValue = "columnar")
+public class ColumnarOperationRepository implements OperationRepository, OperationListener {
+    private static final int NONE = -1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int WALK_CHUNK = 256;
+
+    private static final QueryMetrics FIND_BY_ID = QueryMetrics.of("columnarOperations", "findById");
+    private static final QueryMetrics FIND_ALL = QueryMetrics.of("columnarOperations", "findAll");
+    private static final QueryMetrics BY_USER = QueryMetrics.of("columnarOperations", "findAllOperationsByUser");
+    private static final QueryMetrics BY_BANK_ACCOUNT = QueryMetrics.of("columnarOperations", "findAllOperationsByBankAccount");
+    private static final QueryMetrics BY_COST_CATEGORY = QueryMetrics.of("columnarOperations", "findAllOperationsByCostCategory");
+    private static final QueryMetrics BY_COST_CATEGORY_TYPE = QueryMetrics.of("columnarOperations", "findAllOperationsByCostCategoryType");
+    private static final QueryMetrics BETWEEN_DATES = QueryMetrics.of("columnarOperations", "findAllOperationsBetweenDates");
+
+    private final OperationColumns columns;
+    private final RowOrder byId;
+    private final RowOrder byDate;
+    private final LongIntMap rowsById = new LongIntMap();
+    private final IntList rowsInIdOrder = new IntList();
+    private final List<BankAccount> bankAccounts = new CopyOnWriteArrayList<>();
+    private final Map<Long, Integer> bankAccountOrdinals = new HashMap<>();
+    private final List<IntList> rowsByBankAccount = new ArrayList<>();
+    private final List<IntList> userRowsByBankAccount = new ArrayList<>();
+    private final Map<Long, IntList> rowsByUser = new HashMap<>();
+    private final List<CostCategory> costCategories = new CopyOnWriteArrayList<>();
+    private final Map<Long, Integer> costCategoryOrdinals = new HashMap<>();
+    private final List<IntList> rowsByCostCategory = new ArrayList<>();
+    private final TreeMap<Integer, IntList> rowsByDate = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<OperationListener> listeners = new CopyOnWriteArrayList<>();
+
+    public ColumnarOperationRepository() {
+        this(false);
+    }
+
+    @Autowired
+    public ColumnarOperationRepository(@Value("${onelab.operations.columnar.off-heap:false}") boolean offHeap) {
+        this.columns = offHeap ? OperationColumns.offHeap() : OperationColumns.onHeap();
+        this.byId = new RowOrder(columns::id, row -> 0);
+        this.byDate = new RowOrder(columns::epochDay, columns::id);
+    }
+
+    @Override
+    public void addListener(OperationListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public Operation save(Operation operation) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            store(operation);
+            return operation;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Operation> saveAll(List<Operation> operations) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            operations.forEach(this::store);
+            return operations;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void store(Operation operation) {
+        int bankAccount = bankAccountOrdinal(operation.getBankAccount());
+        int costCategory = costCategoryOrdinal(operation.getCostCategory());
+        int epochDay = operation.getDate() == null ? NO_DATE : (int) operation.getDate().toEpochDay();
+        int row = rowsById.get(operation.getId());
+        Operation previous = null;
+        if (row == LongIntMap.MISSING) {
+            row = columns.append(operation.getId(), epochDay, operation.getAmountMinor(), bankAccount, costCategory);
+            rowsById.put(operation.getId(), row);
+            insert(rowsInIdOrder, byId, row);
+        } else {
+            previous = view(row);
+            unindex(row);
+            columns.set(row, epochDay, operation.getAmountMinor(), bankAccount, costCategory);
+        }
+        index(row);
+        operation.setListener(this);
+        Operation previousOperation = previous;
+        listeners.forEach(l -> l.onSaved(operation, previousOperation));
+    }
+
+    @Override
+    public void onDateChanged(Operation operation, LocalDate oldDate) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            int row = rowsById.get(operation.getId());
+            int epochDay = operation.getDate() == null ? NO_DATE : (int) operation.getDate().toEpochDay();
+            if (row == LongIntMap.MISSING || columns.epochDay(row) == epochDay) {
+                return;
+            }
+            IntList userRows = userRows(row);
+            IntList categoryRows = costCategoryRows(row);
+            remove(rowsByDate.get(columns.epochDay(row)), byId, row);
+            remove(userRows, byDate, row);
+            remove(categoryRows, byDate, row);
+            columns.setEpochDay(row, epochDay);
+            insert(rowsByDate.computeIfAbsent(epochDay, k -> new IntList()), byId, row);
+            if (userRows != null) {
+                insert(userRows, byDate, row);
+            }
+            if (categoryRows != null) {
+                insert(categoryRows, byDate, row);
+            }
+            listeners.forEach(l -> l.onDateChanged(operation, oldDate));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void onAmountChanged(Operation operation, long oldAmountMinor) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            int row = rowsById.get(operation.getId());
+            if (row == LongIntMap.MISSING || columns.amountMinor(row) == operation.getAmountMinor()) {
+                return;
+            }
+            columns.setAmountMinor(row, operation.getAmountMinor());
+            listeners.forEach(l -> l.onAmountChanged(operation, oldAmountMinor));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Operation> findById(Long id) {
+        int row = read(() -> rowsById.get(id));
+        FIND_BY_ID.record(1, row == LongIntMap.MISSING ? 0 : 1);
+        return row == LongIntMap.MISSING ? Optional.empty() : Optional.of(view(row));
+    }
+
+    @Override
+    public List<Operation> findAll() {
+        int[] rows = walk(rowsInIdOrder, byId, false, Long.MIN_VALUE, Long.MIN_VALUE, row -> true).toArray();
+        return views(FIND_ALL, rows.length, rows);
+    }
+
+    @Override
+    public List<Operation> findAllOperationsByUser(User user) {
+        int[] rows = walk(read(() -> rowsByUser.get(user.getId())), byDate, true, Long.MAX_VALUE, Long.MAX_VALUE, row -> true).toArray();
+        return views(BY_USER, rows.length, rows);
+    }
+
+    @Override
+    public List<Operation> findAllOperationsByBankAccount(BankAccount bankAccount) {
+        int[] rows = read(() -> {
+            Integer ordinal = bankAccountOrdinals.get(bankAccount.getId());
+            return ordinal == null ? new int[0] : rowsByBankAccount.get(ordinal).toArray();
+        });
+        return views(BY_BANK_ACCOUNT, rows.length, rows);
+    }
+
+    @Override
+    public List<Operation> findAllOperationsByCostCategory(CostCategory costCategory) {
+        IntList categoryRows = read(() -> {
+            Integer ordinal = costCategoryOrdinals.get(costCategory.getId());
+            return ordinal == null ? null : rowsByCostCategory.get(ordinal);
+        });
+        int[] rows = walk(categoryRows, byDate, true, Long.MAX_VALUE, Long.MAX_VALUE, row -> true).toArray();
+        return views(BY_COST_CATEGORY, rows.length, rows);
+    }
+
+    @Override
+    public List<Operation> findAllOperationsByCostCategoryType(CostCategory.CostCategoryType categoryType) {
+        int scanned = read(rowsInIdOrder::size);
+        int[] rows = walk(rowsInIdOrder, byId, false, Long.MIN_VALUE, Long.MIN_VALUE, row -> true)
+                .filter(row -> columns.costCategory(row) != NONE
+                        && costCategories.get(columns.costCategory(row)).getCategoryType() == categoryType)
+                .toArray();
+        return views(BY_COST_CATEGORY_TYPE, scanned, rows);
+    }
+
+    @Override
+    public List<Operation> findAllOperationsForDate(LocalDate date) {
+        return findAllOperationsBetweenDates(date, date);
+    }
+
+    @Override
+    public List<Operation> findAllOperationsBetweenDates(LocalDate startDate, LocalDate endDate) {
+        List<Operation> operations = streamAllOperationsBetweenDates(startDate, endDate, null).collect(Collectors.toList());
+        BETWEEN_DATES.record(operations.size(), operations.size());
+        return operations;
+    }
+
+    @Override
+    public Stream<Operation> streamAll(OperationCursor after) {
+        List<Integer> ordinals = read(() -> IntStream.range(0, bankAccounts.size())
+                .boxed()
+                .filter(o -> after == null || bankAccounts.get(o).getId() >= after.getKey())
+                .sorted(Comparator.comparing(o -> bankAccounts.get(o).getId()))
+                .collect(Collectors.toList()));
+        return ordinals.stream().flatMap(ordinal -> {
+            boolean cursorAccount = after != null && bankAccounts.get(ordinal).getId() == after.getKey();
+            IntList rows = read(() -> rowsByBankAccount.get(ordinal));
+            return walk(rows, byId, false, cursorAccount ? after.getId() : Long.MIN_VALUE, Long.MAX_VALUE, row -> true)
+                    .mapToObj(this::view);
+        });
+    }
+
+    @Override
+    public Stream<Operation> streamAllOperationsByUser(User user, OperationCursor after) {
+        IntList rows = read(() -> rowsByUser.get(user.getId()));
+        return after == null
+                ? walk(rows, byDate, true, Long.MAX_VALUE, Long.MAX_VALUE, row -> true).mapToObj(this::view)
+                : walk(rows, byDate, true, after.getKey(), after.getId(), row -> true).mapToObj(this::view);
+    }
+
+    @Override
+    public Stream<Operation> streamAllOperationsByBankAccount(BankAccount bankAccount) {
+        IntList rows = read(() -> {
+            Integer ordinal = bankAccountOrdinals.get(bankAccount.getId());
+            return ordinal == null ? null : rowsByBankAccount.get(ordinal);
+        });
+        return walk(rows, byId, false, Long.MIN_VALUE, Long.MIN_VALUE, row -> true).mapToObj(this::view);
+    }
+
+    @Override
+    public Stream<Operation> streamAllOperationsByUserBetweenDates(User user, LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return Stream.empty();
+        }
+        long start = startDate.toEpochDay();
+        IntList rows = read(() -> rowsByUser.get(user.getId()));
+        return walk(rows, byDate, true, endDate.toEpochDay(), Long.MAX_VALUE, row -> columns.epochDay(row) >= start)
+                .mapToObj(this::view);
+    }
+
+    @Override
+    public Stream<Operation> streamAllOperationsBetweenDates(LocalDate startDate, LocalDate endDate, OperationCursor after) {
+        if (startDate.isAfter(endDate)) {
+            return Stream.empty();
+        }
+        long to = after == null ? endDate.toEpochDay() : Math.min(endDate.toEpochDay(), after.getKey());
+        if (to < startDate.toEpochDay()) {
+            return Stream.empty();
+        }
+        List<Integer> days = read(() -> new ArrayList<>(rowsByDate
+                .subMap((int) startDate.toEpochDay(), true, (int) to, true)
+                .descendingKeySet()));
+        return days.stream().flatMap(day -> {
+            boolean cursorDay = after != null && day == after.getKey();
+            IntList rows = read(() -> rowsByDate.get(day));
+            return walk(rows, byId, true, cursorDay ? after.getId() : Long.MAX_VALUE, Long.MIN_VALUE, row -> columns.epochDay(row) == day)
+                    .mapToObj(this::view);
+        });
+    }
+
+    public long getFootprintBytes() {
+        return read(() -> {
+            long bytes = columns.allocatedBytes() + rowsById.allocatedBytes() + rowsInIdOrder.allocatedBytes();
+            for (IntList rows : rowsByUser.values()) {
+                bytes += rows.allocatedBytes();
+            }
+            for (IntList rows : rowsByBankAccount) {
+                bytes += rows.allocatedBytes();
+            }
+            for (IntList rows : rowsByCostCategory) {
+                bytes += rows.allocatedBytes();
+            }
+            for (IntList rows : rowsByDate.values()) {
+                bytes += rows.allocatedBytes();
+            }
+            return bytes;
+        });
+    }
+
+    private Operation view(int row) {
+        int bankAccount = columns.bankAccount(row);
+        int costCategory = columns.costCategory(row);
+        int epochDay = columns.epochDay(row);
+        Operation operation = new Operation();
+        operation.setId(columns.id(row));
+        operation.setAmountMinor(columns.amountMinor(row));
+        operation.setDate(epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay));
+        operation.setBankAccount(bankAccount == NONE ? null : bankAccounts.get(bankAccount));
+        operation.setCostCategory(costCategory == NONE ? null : costCategories.get(costCategory));
+        operation.setListener(this);
+        return operation;
+    }
+
+    private List<Operation> views(QueryMetrics metrics, int scanned, int[] rows) {
+        List<Operation> operations = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            operations.add(view(row));
+        }
+        metrics.record(scanned, operations.size());
+        return operations;
+    }
+
+    private IntStream walk(IntList rows, RowOrder order, boolean descending, long major, long minor, IntPredicate within) {
+        return rows == null ? IntStream.empty() : StreamSupport.intStream(new RowWalker(rows, order, descending, major, minor, within), false);
+    }
+
+    private void index(int row) {
+        if (columns.bankAccount(row) != NONE) {
+            insert(rowsByBankAccount.get(columns.bankAccount(row)), byId, row);
+            IntList userRows = userRows(row);
+            if (userRows != null) {
+                insert(userRows, byDate, row);
+            }
+        }
+        if (columns.costCategory(row) != NONE) {
+            insert(rowsByCostCategory.get(columns.costCategory(row)), byDate, row);
+        }
+        if (columns.epochDay(row) != NO_DATE) {
+            insert(rowsByDate.computeIfAbsent(columns.epochDay(row), k -> new IntList()), byId, row);
+        }
+    }
+
+    private void unindex(int row) {
+        if (columns.bankAccount(row) != NONE) {
+            remove(rowsByBankAccount.get(columns.bankAccount(row)), byId, row);
+            remove(userRows(row), byDate, row);
+        }
+        remove(costCategoryRows(row), byDate, row);
+        remove(rowsByDate.get(columns.epochDay(row)), byId, row);
+    }
+
+    private IntList userRows(int row) {
+        return columns.bankAccount(row) == NONE ? null : userRowsByBankAccount.get(columns.bankAccount(row));
+    }
+
+    private IntList costCategoryRows(int row) {
+        return columns.costCategory(row) == NONE ? null : rowsByCostCategory.get(columns.costCategory(row));
+    }
+
+    private int bankAccountOrdinal(BankAccount bankAccount) {
+        if (bankAccount == null) {
+            return NONE;
+        }
+        Integer ordinal = bankAccountOrdinals.get(bankAccount.getId());
+        if (ordinal != null) {
+            bankAccounts.set(ordinal, bankAccount);
+            return ordinal;
+        }
+        int next = bankAccounts.size();
+        bankAccounts.add(bankAccount);
+        rowsByBankAccount.add(new IntList());
+        userRowsByBankAccount.add(bankAccount.getUserId() == null ? null
+                : rowsByUser.computeIfAbsent(bankAccount.getUserId(), k -> new IntList()));
+        bankAccountOrdinals.put(bankAccount.getId(), next);
+        return next;
+    }
+
+    private int costCategoryOrdinal(CostCategory costCategory) {
+        if (costCategory == null) {
+            return NONE;
+        }
+        Integer ordinal = costCategoryOrdinals.get(costCategory.getId());
+        if (ordinal != null) {
+            costCategories.set(ordinal, costCategory);
+            return ordinal;
+        }
+        int next = costCategories.size();
+        costCategories.add(costCategory);
+        rowsByCostCategory.add(new IntList());
+        costCategoryOrdinals.put(costCategory.getId(), next);
+        return next;
+    }
+
+    private static void insert(IntList rows, RowOrder order, int row) {
+        rows.insert(search(rows, order, order.major().applyAsLong(row), order.minor().applyAsLong(row), true), row);
+    }
+
+    private static void remove(IntList rows, RowOrder order, int row) {
+        if (rows == null) {
+            return;
+        }
+        int index = search(rows, order, order.major().applyAsLong(row), order.minor().applyAsLong(row), false);
+        if (index < rows.size() && rows.get(index) == row) {
+            rows.removeAt(index);
+        } else {
+            rows.remove(row);
+        }
+    }
+
+    private static int search(IntList rows, RowOrder order, long major, long minor, boolean inclusive) {
+        int low = 0;
+        int high = rows.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int row = rows.get(middle);
+            int comparison = Long.compare(order.major().applyAsLong(row), major);
+            if (comparison == 0) {
+                comparison = Long.compare(order.minor().applyAsLong(row), minor);
+            }
+            if (comparison < 0 || inclusive && comparison == 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return reader.get();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private record RowOrder(IntToLongFunction major, IntToLongFunction minor) {
+    }
+
+    private final class RowWalker extends Spliterators.AbstractIntSpliterator {
+        private final IntList rows;
+        private final RowOrder order;
+        private final boolean descending;
+        private final IntPredicate within;
+        private long major;
+        private long minor;
+        private int[] chunk = new int[0];
+        private int next;
+        private boolean exhausted;
+
+        private RowWalker(IntList rows, RowOrder order, boolean descending, long major, long minor, IntPredicate within) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.rows = rows;
+            this.order = order;
+            this.descending = descending;
+            this.major = major;
+            this.minor = minor;
+            this.within = within;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (next == chunk.length) {
+                if (exhausted) {
+                    return false;
+                }
+                chunk = read(this::nextChunk);
+                next = 0;
+                if (chunk.length == 0) {
+                    return false;
+                }
+            }
+            action.accept(chunk[next++]);
+            return true;
+        }
+
+        private int[] nextChunk() {
+            int position = descending ? search(rows, order, major, minor, false) - 1 : search(rows, order, major, minor, true);
+            IntList result = new IntList(WALK_CHUNK);
+            while (result.size() < WALK_CHUNK && position >= 0 && position < rows.size() && within.test(rows.get(position))) {
+                result.add(rows.get(position));
+                position += descending ? -1 : 1;
+            }
+            exhausted = result.size() < WALK_CHUNK;
+            if (result.size() > 0) {
+                int last = result.get(result.size() - 1);
+                major = order.major().applyAsLong(last);
+                minor = order.minor().applyAsLong(last);
+            }
+            return result.toArray();
+        }
+    }
+}
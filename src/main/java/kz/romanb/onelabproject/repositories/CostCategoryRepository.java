@@ -3,4 +3,5 @@ package kz.romanb.onelabproject.repositories;
 import kz.romanb.onelabproject.entities.CostCategory;
 
 public interface CostCategoryRepository extends Repository<CostCategory, Long> {
+    void addListener(RepositoryListener<CostCategory> listener);
 }
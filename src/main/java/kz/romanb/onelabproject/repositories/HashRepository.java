@@ -0,0 +1,70 @@
+package kz.romanb.onelabproject.repositories;
+
+import kz.romanb.onelabproject.metrics.QueryMetrics;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+public abstract class HashRepository<T> implements Repository<T, Long> {
+    private final ConcurrentMap<Long, T> entities = new ConcurrentHashMap<>();
+    private final List<RepositoryListener<T>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong version = new AtomicLong();
+    private final Function<T, Long> idOf;
+    private final QueryMetrics findByIdMetrics;
+    private volatile Snapshot<T> snapshot;
+
+    protected HashRepository(String name, Function<T, Long> idOf) {
+        this.idOf = idOf;
+        this.findByIdMetrics = QueryMetrics.of(name, "findById");
+    }
+
+    public void addListener(RepositoryListener<T> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public T save(T entity) {
+        Long id = idOf.apply(entity);
+        if (id == null) {
+            throw new IllegalArgumentException("Не указан id");
+        }
+        beforeSave(entity);
+        entities.put(id, entity);
+        version.incrementAndGet();
+        listeners.forEach(l -> l.onSaved(entity));
+        return entity;
+    }
+
+    protected void beforeSave(T entity) {
+    }
+
+    @Override
+    public Optional<T> findById(Long id) {
+        T entity = id == null ? null : entities.get(id);
+        findByIdMetrics.record(1, entity == null ? 0 : 1);
+        return Optional.ofNullable(entity);
+    }
+
+    @Override
+    public List<T> findAll() {
+        long current = version.get();
+        Snapshot<T> cached = snapshot;
+        if (cached != null && cached.version() == current) {
+            return cached.entities();
+        }
+        List<T> ordered = entities.values().stream()
+                .sorted(Comparator.comparing(idOf))
+                .toList();
+        snapshot = new Snapshot<>(current, ordered);
+        return ordered;
+    }
+
+    private record Snapshot<T>(long version, List<T> entities) {
+    }
+}
@@ -1,16 +1,20 @@
 package kz.romanb.onelabproject.repositories;
 
+import kz.romanb.onelabproject.dto.OperationCursor;
 import kz.romanb.onelabproject.entities.BankAccount;
 import kz.romanb.onelabproject.entities.CostCategory;
 import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.OperationListener;
 import kz.romanb.onelabproject.entities.User;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 public interface OperationRepository extends Repository<Operation, Long> {
-    AtomicInteger operationId = new AtomicInteger(0);
+    void addListener(OperationListener listener);
+
+    List<Operation> saveAll(List<Operation> operations);
 
     List<Operation> findAllOperationsByUser(User user);
 
@@ -23,4 +27,14 @@ public interface OperationRepository extends Repository<Operation, Long> {
     List<Operation> findAllOperationsForDate(LocalDate date);
 
     List<Operation> findAllOperationsBetweenDates(LocalDate startDate, LocalDate endDate);
+
+    Stream<Operation> streamAll(OperationCursor after);
+
+    Stream<Operation> streamAllOperationsByUser(User user, OperationCursor after);
+
+    Stream<Operation> streamAllOperationsByBankAccount(BankAccount bankAccount);
+
+    Stream<Operation> streamAllOperationsByUserBetweenDates(User user, LocalDate startDate, LocalDate endDate);
+
+    Stream<Operation> streamAllOperationsBetweenDates(LocalDate startDate, LocalDate endDate, OperationCursor after);
 }
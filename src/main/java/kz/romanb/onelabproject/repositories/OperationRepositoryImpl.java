@@ -1,78 +1,359 @@
 package kz.romanb.onelabproject.repositories;
 
+import kz.romanb.onelabproject.concurrent.StripedLock;
+import kz.romanb.onelabproject.dto.OperationCursor;
 import kz.romanb.onelabproject.entities.BankAccount;
 import kz.romanb.onelabproject.entities.CostCategory;
 import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.OperationListener;
 import kz.romanb.onelabproject.entities.User;
+import kz.romanb.onelabproject.metrics.QueryMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Repository
-public class OperationRepositoryImpl implements OperationRepository {
-    public static final List<Operation> operations = new ArrayList<>();
+@ConditionalOnProperty(name = "onelab.operations.store", havingValue = "indexed", matchIfMissing = true)
+public class OperationRepositoryImpl implements OperationRepository, OperationListener {
+    private static final int PARALLEL_INDEX_THRESHOLD = 4096;
+    private static final QueryMetrics FIND_BY_ID = QueryMetrics.of("operations", "findById");
+    private static final QueryMetrics FIND_ALL = QueryMetrics.of("operations", "findAll");
+    private static final QueryMetrics BY_USER = QueryMetrics.of("operations", "findAllOperationsByUser");
+    private static final QueryMetrics BY_BANK_ACCOUNT = QueryMetrics.of("operations", "findAllOperationsByBankAccount");
+    private static final QueryMetrics BY_COST_CATEGORY = QueryMetrics.of("operations", "findAllOperationsByCostCategory");
+    private static final QueryMetrics BY_COST_CATEGORY_TYPE = QueryMetrics.of("operations", "findAllOperationsByCostCategoryType");
+    private static final QueryMetrics BETWEEN_DATES = QueryMetrics.of("operations", "findAllOperationsBetweenDates");
+
+    private final ConcurrentNavigableMap<Long, IndexEntry> operations = new ConcurrentSkipListMap<>();
+    private final ConcurrentNavigableMap<Long, ConcurrentNavigableMap<Long, Operation>> operationsByBankAccount = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<Long, ConcurrentNavigableMap<Long, ConcurrentNavigableMap<Long, Operation>>> operationsByCostCategory = new ConcurrentHashMap<>();
+    private final ConcurrentMap<CostCategory.CostCategoryType, ConcurrentNavigableMap<Long, Operation>> operationsByCostCategoryType = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, ConcurrentNavigableMap<Long, ConcurrentNavigableMap<Long, Operation>>> operationsByUser = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<Long, ConcurrentNavigableMap<Long, Operation>> operationsByDate = new ConcurrentSkipListMap<>();
+    private final StripedLock operationLocks = new StripedLock(64);
+    private final List<OperationListener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void addListener(OperationListener listener) {
+        listeners.add(listener);
+    }
 
     @Override
     public Operation save(Operation operation) {
-        Optional<Operation> operationOptional = findById(operation.getId());
-        operationOptional.ifPresent(operations::remove);
-        operations.add(operation);
-        return operation;
+        Lock lock = operationLocks.get(operation.getId());
+        lock.lock();
+        try {
+            IndexEntry previous = operations.get(operation.getId());
+            if (previous != null) {
+                removeFromIndexes(previous);
+            }
+            IndexEntry entry = new IndexEntry(operation);
+            addToIndexes(entry);
+            operations.put(operation.getId(), entry);
+            operation.setListener(this);
+            Operation previousOperation = previous == null ? null : previous.operation();
+            listeners.forEach(l -> l.onSaved(operation, previousOperation));
+            return operation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Operation> saveAll(List<Operation> batch) {
+        List<IndexEntry> entries = new ArrayList<>(batch.size());
+        for (Operation operation : batch) {
+            if (operations.containsKey(operation.getId())) {
+                save(operation);
+            } else {
+                entries.add(new IndexEntry(operation));
+            }
+        }
+        List<Runnable> indexers = List.of(
+                () -> addToIndex(operationsByBankAccount, entries, IndexEntry::bankAccountId),
+                () -> entries.stream()
+                        .filter(e -> e.costCategoryId() != null)
+                        .collect(Collectors.groupingBy(IndexEntry::costCategoryId))
+                        .forEach((costCategoryId, group) -> addToIndex(operationsOfCostCategory(costCategoryId), group, IndexEntry::epochDay)),
+                () -> addToIndex(operationsByCostCategoryType, entries, IndexEntry::categoryType),
+                () -> entries.stream()
+                        .filter(e -> e.userId() != null)
+                        .collect(Collectors.groupingBy(IndexEntry::userId))
+                        .forEach((userId, group) -> addToIndex(operationsOfUser(userId), group, IndexEntry::epochDay)),
+                () -> addToIndex(operationsByDate, entries, IndexEntry::epochDay)
+        );
+        if (entries.size() >= PARALLEL_INDEX_THRESHOLD) {
+            indexers.parallelStream().forEach(Runnable::run);
+        } else {
+            indexers.forEach(Runnable::run);
+        }
+        for (IndexEntry entry : entries) {
+            Operation operation = entry.operation();
+            operations.put(operation.getId(), entry);
+            operation.setListener(this);
+            listeners.forEach(l -> l.onSaved(operation, null));
+        }
+        return batch;
+    }
+
+    @Override
+    public void onDateChanged(Operation operation, LocalDate oldDate) {
+        Lock lock = operationLocks.get(operation.getId());
+        lock.lock();
+        try {
+            IndexEntry entry = operations.get(operation.getId());
+            if (entry == null || entry.operation() != operation) {
+                return;
+            }
+            removeFromIndexes(entry);
+            IndexEntry reindexed = new IndexEntry(operation);
+            addToIndexes(reindexed);
+            operations.put(operation.getId(), reindexed);
+            listeners.forEach(l -> l.onDateChanged(operation, oldDate));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void onAmountChanged(Operation operation, long oldAmountMinor) {
+        Lock lock = operationLocks.get(operation.getId());
+        lock.lock();
+        try {
+            IndexEntry entry = operations.get(operation.getId());
+            if (entry != null && entry.operation() == operation) {
+                listeners.forEach(l -> l.onAmountChanged(operation, oldAmountMinor));
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public Optional<Operation> findById(Long id) {
-        return operations.stream().filter(o -> o.getId() == id).findFirst();
+        Optional<Operation> operation = Optional.ofNullable(operations.get(id)).map(IndexEntry::operation);
+        FIND_BY_ID.record(1, operation.isPresent() ? 1 : 0);
+        return operation;
     }
 
     @Override
     public List<Operation> findAll() {
-        return operations;
+        return recorded(FIND_ALL, operations.values().stream()
+                .map(IndexEntry::operation)
+                .collect(Collectors.toList()));
     }
 
     @Override
     public List<Operation> findAllOperationsByUser(User user) {
-        return operations.stream()
-                .filter(o -> user.getBankAccounts().contains(o.getBankAccount()))
-                .collect(Collectors.toList());
+        return recorded(BY_USER, streamAllOperationsByUser(user, null).collect(Collectors.toList()));
     }
 
     @Override
     public List<Operation> findAllOperationsByBankAccount(BankAccount bankAccount) {
-        return operations.stream()
-                .filter(o -> o.getBankAccount().getId().equals(bankAccount.getId()))
-                .collect(Collectors.toList());
+        return recorded(BY_BANK_ACCOUNT, valuesOf(operationsByBankAccount, bankAccount.getId()));
     }
 
     @Override
     public List<Operation> findAllOperationsByCostCategory(CostCategory costCategory) {
-        return operations.stream()
-                .filter(o -> o.getCostCategory().getId().equals(costCategory.getId()))
-                .collect(Collectors.toList());
+        NavigableMap<Long, ConcurrentNavigableMap<Long, Operation>> dates = operationsByCostCategory.get(costCategory.getId());
+        return recorded(BY_COST_CATEGORY, dates == null ? new ArrayList<>() : stream(dates, null, true).collect(Collectors.toList()));
     }
 
     @Override
     public List<Operation> findAllOperationsByCostCategoryType(CostCategory.CostCategoryType categoryType) {
-        return operations.stream()
-                .filter(o -> o.getCostCategory().getCategoryType() == categoryType)
-                .collect(Collectors.toList());
+        return recorded(BY_COST_CATEGORY_TYPE, valuesOf(operationsByCostCategoryType, categoryType));
     }
 
     @Override
     public List<Operation> findAllOperationsForDate(LocalDate date) {
-        return operations.stream()
-                .filter(o -> o.getDate().isEqual(date))
-                .collect(Collectors.toList());
+        return findAllOperationsBetweenDates(date, date);
     }
 
     @Override
     public List<Operation> findAllOperationsBetweenDates(LocalDate startDate, LocalDate endDate) {
-        return operations.stream()
-                .filter(o -> !o.getDate().isBefore(startDate) && !o.getDate().isAfter(endDate))
-                .collect(Collectors.toList());
+        return recorded(BETWEEN_DATES, streamAllOperationsBetweenDates(startDate, endDate, null).collect(Collectors.toList()));
+    }
+
+    @Override
+    public Stream<Operation> streamAll(OperationCursor after) {
+        return stream(operationsByBankAccount, after, false);
+    }
+
+    @Override
+    public Stream<Operation> streamAllOperationsByUser(User user, OperationCursor after) {
+        NavigableMap<Long, ConcurrentNavigableMap<Long, Operation>> dates = operationsByUser.get(user.getId());
+        return dates == null ? Stream.empty() : stream(dates, after, true);
+    }
+
+    @Override
+    public Stream<Operation> streamAllOperationsByBankAccount(BankAccount bankAccount) {
+        Map<Long, Operation> operations = operationsByBankAccount.get(bankAccount.getId());
+        return operations == null ? Stream.empty() : operations.values().stream();
+    }
+
+    @Override
+    public Stream<Operation> streamAllOperationsByUserBetweenDates(User user, LocalDate startDate, LocalDate endDate) {
+        ConcurrentNavigableMap<Long, ConcurrentNavigableMap<Long, Operation>> dates = operationsByUser.get(user.getId());
+        if (dates == null || startDate.isAfter(endDate)) {
+            return Stream.empty();
+        }
+        return stream(dates.subMap(startDate.toEpochDay(), true, endDate.toEpochDay(), true), null, true);
+    }
+
+    @Override
+    public Stream<Operation> streamAllOperationsBetweenDates(LocalDate startDate, LocalDate endDate, OperationCursor after) {
+        if (startDate.isAfter(endDate)) {
+            return Stream.empty();
+        }
+        return stream(operationsByDate.subMap(startDate.toEpochDay(), true, endDate.toEpochDay(), true), after, true);
+    }
+
+    private void addToIndexes(IndexEntry entry) {
+        Operation operation = entry.operation();
+        addToIndex(operationsByBankAccount, entry.bankAccountId(), operation);
+        if (entry.costCategoryId() != null) {
+            addToIndex(operationsOfCostCategory(entry.costCategoryId()), entry.epochDay(), operation);
+        }
+        addToIndex(operationsByCostCategoryType, entry.categoryType(), operation);
+        if (entry.userId() != null) {
+            addToIndex(operationsOfUser(entry.userId()), entry.epochDay(), operation);
+        }
+        addToIndex(operationsByDate, entry.epochDay(), operation);
+    }
+
+    private void removeFromIndexes(IndexEntry entry) {
+        long id = entry.operation().getId();
+        removeFromIndex(operationsByBankAccount, entry.bankAccountId(), id);
+        if (entry.costCategoryId() != null && operationsByCostCategory.containsKey(entry.costCategoryId())) {
+            removeFromIndex(operationsByCostCategory.get(entry.costCategoryId()), entry.epochDay(), id);
+        }
+        removeFromIndex(operationsByCostCategoryType, entry.categoryType(), id);
+        if (entry.userId() != null && operationsByUser.containsKey(entry.userId())) {
+            removeFromIndex(operationsByUser.get(entry.userId()), entry.epochDay(), id);
+        }
+        removeFromIndex(operationsByDate, entry.epochDay(), id);
+    }
+
+    private ConcurrentNavigableMap<Long, ConcurrentNavigableMap<Long, Operation>> operationsOfUser(Long userId) {
+        return operationsByUser.computeIfAbsent(userId, k -> new ConcurrentSkipListMap<>());
+    }
+
+    private ConcurrentNavigableMap<Long, ConcurrentNavigableMap<Long, Operation>> operationsOfCostCategory(Long costCategoryId) {
+        return operationsByCostCategory.computeIfAbsent(costCategoryId, k -> new ConcurrentSkipListMap<>());
+    }
+
+    private static Stream<Operation> stream(NavigableMap<Long, ConcurrentNavigableMap<Long, Operation>> index,
+                                            OperationCursor after,
+                                            boolean descending) {
+        NavigableMap<Long, ConcurrentNavigableMap<Long, Operation>> outer = descending ? index.descendingMap() : index;
+        if (after != null) {
+            outer = outer.tailMap(after.getKey(), true);
+        }
+        Iterator<Map.Entry<Long, ConcurrentNavigableMap<Long, Operation>>> entries = outer.entrySet().iterator();
+        Iterator<Operation> operations = new Iterator<>() {
+            private Iterator<Operation> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext()) {
+                    if (!entries.hasNext()) {
+                        return false;
+                    }
+                    Map.Entry<Long, ConcurrentNavigableMap<Long, Operation>> e = entries.next();
+                    NavigableMap<Long, Operation> inner = descending ? e.getValue().descendingMap() : e.getValue();
+                    if (after != null && e.getKey() == after.getKey()) {
+                        inner = inner.tailMap(after.getId(), false);
+                    }
+                    current = inner.values().iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public Operation next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(operations, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private static <K> void addToIndex(ConcurrentMap<K, ConcurrentNavigableMap<Long, Operation>> index, K key, Operation operation) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new ConcurrentSkipListMap<>()).put(operation.getId(), operation);
+        }
+    }
+
+    private static <K> void addToIndex(ConcurrentMap<K, ConcurrentNavigableMap<Long, Operation>> index,
+                                       List<IndexEntry> entries,
+                                       Function<IndexEntry, K> keyExtractor) {
+        Map<K, Map<Long, Operation>> groups = new HashMap<>();
+        for (IndexEntry entry : entries) {
+            K key = keyExtractor.apply(entry);
+            if (key != null) {
+                groups.computeIfAbsent(key, k -> new HashMap<>()).put(entry.operation().getId(), entry.operation());
+            }
+        }
+        groups.forEach((key, group) -> index.computeIfAbsent(key, k -> new ConcurrentSkipListMap<>()).putAll(group));
+    }
+
+    private static <K> void removeFromIndex(Map<K, ConcurrentNavigableMap<Long, Operation>> index, K key, long id) {
+        if (key == null) {
+            return;
+        }
+        Map<Long, Operation> bucket = index.get(key);
+        if (bucket != null) {
+            bucket.remove(id);
+        }
+    }
+
+    private static List<Operation> recorded(QueryMetrics metrics, List<Operation> result) {
+        metrics.record(result.size(), result.size());
+        return result;
+    }
+
+    private static <K> List<Operation> valuesOf(Map<K, ConcurrentNavigableMap<Long, Operation>> index, K key) {
+        Map<Long, Operation> bucket = index.get(key);
+        return bucket == null ? new ArrayList<>() : new ArrayList<>(bucket.values());
+    }
+
+    private record IndexEntry(Operation operation,
+                              Long bankAccountId,
+                              Long costCategoryId,
+                              CostCategory.CostCategoryType categoryType,
+                              Long userId,
+                              Long epochDay) {
+        IndexEntry(Operation operation) {
+            this(operation,
+                    operation.getBankAccount() == null ? null : operation.getBankAccount().getId(),
+                    operation.getCostCategory() == null ? null : operation.getCostCategory().getId(),
+                    operation.getCostCategory() == null ? null : operation.getCostCategory().getCategoryType(),
+                    operation.getBankAccount() == null ? null : operation.getBankAccount().getUserId(),
+                    operation.getDate() == null ? null : operation.getDate().toEpochDay());
+        }
     }
 }
@@ -0,0 +1,5 @@
+package kz.romanb.onelabproject.repositories;
+
+public interface RepositoryListener<T> {
+    void onSaved(T entity);
+}
@@ -0,0 +1,217 @@
+package kz.romanb.onelabproject.repositories;
+
+import kz.romanb.onelabproject.dto.OperationCursor;
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.OperationListener;
+import kz.romanb.onelabproject.entities.User;
+import kz.romanb.onelabproject.metrics.QueryMetrics;
+import kz.romanb.onelabproject.utils.KWayMerge;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+@Repository
+@ConditionalOnProperty(name = "onelab.operations.store", havingValue = "sharded")
+public class ShardedOperationRepository implements OperationRepository {
+    private static final int PARALLEL_SAVE_THRESHOLD = 4096;
+    private static final QueryMetrics FIND_ALL = QueryMetrics.of("shardedOperations", "findAll");
+    private static final QueryMetrics BY_COST_CATEGORY = QueryMetrics.of("shardedOperations", "findAllOperationsByCostCategory");
+    private static final QueryMetrics BY_COST_CATEGORY_TYPE = QueryMetrics.of("shardedOperations", "findAllOperationsByCostCategoryType");
+    private static final QueryMetrics BETWEEN_DATES = QueryMetrics.of("shardedOperations", "findAllOperationsBetweenDates");
+
+    private static final Comparator<Operation> BY_ID = Comparator.comparingLong(Operation::getId);
+    private static final Comparator<Operation> BY_BANK_ACCOUNT = Comparator
+            .comparing((Operation o) -> o.getBankAccount().getId())
+            .thenComparingLong(Operation::getId);
+    private static final Comparator<Operation> BY_DATE_DESCENDING = Comparator
+            .comparing(Operation::getDate)
+            .thenComparingLong(Operation::getId)
+            .reversed();
+
+    private final OperationRepositoryImpl[] shards;
+    private final Map<Long, Integer> shardById = new ConcurrentHashMap<>();
+
+    public ShardedOperationRepository() {
+        this(0);
+    }
+
+    @Autowired
+    public ShardedOperationRepository(@Value("${onelab.operations.shards:0}") int shards) {
+        if (shards < 0) {
+            throw new IllegalArgumentException("Количество шардов не может быть отрицательным");
+        }
+        int count = shards == 0 ? Runtime.getRuntime().availableProcessors() : shards;
+        this.shards = new OperationRepositoryImpl[count];
+        for (int i = 0; i < count; i++) {
+            this.shards[i] = new OperationRepositoryImpl();
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    @Override
+    public void addListener(OperationListener listener) {
+        for (OperationRepositoryImpl shard : shards) {
+            shard.addListener(listener);
+        }
+    }
+
+    @Override
+    public Operation save(Operation operation) {
+        return shards[shardIndexOf(operation)].save(operation);
+    }
+
+    @Override
+    public List<Operation> saveAll(List<Operation> batch) {
+        if (shards.length == 1) {
+            return shards[0].saveAll(batch);
+        }
+        List<List<Operation>> groups = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            groups.add(new ArrayList<>());
+        }
+        for (Operation operation : batch) {
+            groups.get(shardIndexOf(operation)).add(operation);
+        }
+        IntStream indexes = IntStream.range(0, shards.length).filter(i -> !groups.get(i).isEmpty());
+        if (batch.size() >= PARALLEL_SAVE_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> shards[i].saveAll(groups.get(i)));
+        return batch;
+    }
+
+    @Override
+    public Optional<Operation> findById(Long id) {
+        if (shards.length == 1) {
+            return shards[0].findById(id);
+        }
+        Integer index = shardById.get(id);
+        return index == null ? Optional.empty() : shards[index].findById(id);
+    }
+
+    @Override
+    public List<Operation> findAll() {
+        return recorded(FIND_ALL, gather(OperationRepositoryImpl::findAll, BY_ID));
+    }
+
+    @Override
+    public List<Operation> findAllOperationsByUser(User user) {
+        return shardOf(user.getId()).findAllOperationsByUser(user);
+    }
+
+    @Override
+    public List<Operation> findAllOperationsByBankAccount(BankAccount bankAccount) {
+        return shardOf(userIdOf(bankAccount)).findAllOperationsByBankAccount(bankAccount);
+    }
+
+    @Override
+    public List<Operation> findAllOperationsByCostCategory(CostCategory costCategory) {
+        return recorded(BY_COST_CATEGORY, gather(s -> s.findAllOperationsByCostCategory(costCategory), BY_DATE_DESCENDING));
+    }
+
+    @Override
+    public List<Operation> findAllOperationsByCostCategoryType(CostCategory.CostCategoryType categoryType) {
+        return recorded(BY_COST_CATEGORY_TYPE, gather(s -> s.findAllOperationsByCostCategoryType(categoryType), BY_ID));
+    }
+
+    @Override
+    public List<Operation> findAllOperationsForDate(LocalDate date) {
+        return findAllOperationsBetweenDates(date, date);
+    }
+
+    @Override
+    public List<Operation> findAllOperationsBetweenDates(LocalDate startDate, LocalDate endDate) {
+        return recorded(BETWEEN_DATES, gather(s -> s.findAllOperationsBetweenDates(startDate, endDate), BY_DATE_DESCENDING));
+    }
+
+    @Override
+    public Stream<Operation> streamAll(OperationCursor after) {
+        return KWayMerge.merge(scatter(s -> s.streamAll(after)), BY_BANK_ACCOUNT);
+    }
+
+    @Override
+    public Stream<Operation> streamAllOperationsByUser(User user, OperationCursor after) {
+        return shardOf(user.getId()).streamAllOperationsByUser(user, after);
+    }
+
+    @Override
+    public Stream<Operation> streamAllOperationsByBankAccount(BankAccount bankAccount) {
+        return shardOf(userIdOf(bankAccount)).streamAllOperationsByBankAccount(bankAccount);
+    }
+
+    @Override
+    public Stream<Operation> streamAllOperationsByUserBetweenDates(User user, LocalDate startDate, LocalDate endDate) {
+        return shardOf(user.getId()).streamAllOperationsByUserBetweenDates(user, startDate, endDate);
+    }
+
+    @Override
+    public Stream<Operation> streamAllOperationsBetweenDates(LocalDate startDate, LocalDate endDate, OperationCursor after) {
+        return KWayMerge.merge(scatter(s -> s.streamAllOperationsBetweenDates(startDate, endDate, after)), BY_DATE_DESCENDING);
+    }
+
+    private List<Operation> gather(Function<OperationRepositoryImpl, List<Operation>> query, Comparator<Operation> order) {
+        if (shards.length == 1) {
+            return query.apply(shards[0]);
+        }
+        List<List<Operation>> results = Arrays.stream(shards)
+                .parallel()
+                .map(query)
+                .collect(Collectors.toList());
+        return KWayMerge.mergeLists(results, order);
+    }
+
+    private List<Stream<Operation>> scatter(Function<OperationRepositoryImpl, Stream<Operation>> query) {
+        List<Stream<Operation>> streams = new ArrayList<>(shards.length);
+        for (OperationRepositoryImpl shard : shards) {
+            streams.add(query.apply(shard));
+        }
+        return streams;
+    }
+
+    private int shardIndexOf(Operation operation) {
+        if (shards.length == 1) {
+            return 0;
+        }
+        return shardById.computeIfAbsent(operation.getId(), id -> indexOf(userIdOf(operation.getBankAccount())));
+    }
+
+    private OperationRepositoryImpl shardOf(Long userId) {
+        return shards[indexOf(userId)];
+    }
+
+    private int indexOf(Long userId) {
+        if (userId == null || shards.length == 1) {
+            return 0;
+        }
+        long h = userId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod(h ^ (h >>> 32), shards.length);
+    }
+
+    private static Long userIdOf(BankAccount bankAccount) {
+        return bankAccount == null ? null : bankAccount.getUserId();
+    }
+
+    private static List<Operation> recorded(QueryMetrics metrics, List<Operation> result) {
+        metrics.record(result.size(), result.size());
+        return result;
+    }
+}
@@ -3,4 +3,5 @@ package kz.romanb.onelabproject.repositories;
 import kz.romanb.onelabproject.entities.User;
 
 public interface UserRepository extends Repository<User, Long> {
+    void addListener(RepositoryListener<User> listener);
 }
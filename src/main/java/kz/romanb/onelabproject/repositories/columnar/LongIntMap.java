@@ -0,0 +1,84 @@
+package kz.romanb.onelabproject.repositories.columnar;
+
+import java.util.Arrays;
+
+public class LongIntMap {
+    public static final int MISSING = -1;
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+
+    public LongIntMap() {
+        this(16);
+    }
+
+    public LongIntMap(int capacity) {
+        allocate(Integer.highestOneBit(Math.max(capacity, 8) - 1) << 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(long key) {
+        int slot = slot(key);
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    public void put(long key, int value) {
+        if ((size + 1) * 4L > keys.length * 3L) {
+            grow();
+        }
+        int slot = slot(key);
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    public long allocatedBytes() {
+        return (long) keys.length * (Long.BYTES + Integer.BYTES + 1);
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(keys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        Arrays.fill(values, MISSING);
+        mask = capacity - 1;
+        size = 0;
+    }
+}
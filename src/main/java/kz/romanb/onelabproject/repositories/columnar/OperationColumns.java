@@ -0,0 +1,203 @@
+package kz.romanb.onelabproject.repositories.columnar;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+public class OperationColumns {
+    public static final int ROW_BYTES = Long.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final boolean offHeap;
+    private volatile Chunk[] chunks = new Chunk[16];
+    private volatile int size;
+
+    private OperationColumns(boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+
+    public static OperationColumns onHeap() {
+        return new OperationColumns(false);
+    }
+
+    public static OperationColumns offHeap() {
+        return new OperationColumns(true);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    public long allocatedBytes() {
+        long allocated = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk != null) {
+                allocated += (long) CHUNK_SIZE * ROW_BYTES;
+            }
+        }
+        return allocated;
+    }
+
+    public int append(long id, int epochDay, long amountMinor, int bankAccount, int costCategory) {
+        int row = size;
+        int chunkIndex = row >>> CHUNK_SHIFT;
+        Chunk[] current = chunks;
+        if (chunkIndex == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        if (current[chunkIndex] == null) {
+            current[chunkIndex] = offHeap ? new DirectChunk() : new HeapChunk();
+        }
+        chunks = current;
+        chunk(row).set(row & CHUNK_MASK, id, epochDay, amountMinor, bankAccount, costCategory);
+        size = row + 1;
+        return row;
+    }
+
+    public long id(int row) {
+        return chunk(row).id(row & CHUNK_MASK);
+    }
+
+    public int epochDay(int row) {
+        return chunk(row).epochDay(row & CHUNK_MASK);
+    }
+
+    public long amountMinor(int row) {
+        return chunk(row).amountMinor(row & CHUNK_MASK);
+    }
+
+    public int bankAccount(int row) {
+        return chunk(row).bankAccount(row & CHUNK_MASK);
+    }
+
+    public int costCategory(int row) {
+        return chunk(row).costCategory(row & CHUNK_MASK);
+    }
+
+    public void set(int row, int epochDay, long amountMinor, int bankAccount, int costCategory) {
+        chunk(row).set(row & CHUNK_MASK, id(row), epochDay, amountMinor, bankAccount, costCategory);
+    }
+
+    public void setEpochDay(int row, int epochDay) {
+        set(row, epochDay, amountMinor(row), bankAccount(row), costCategory(row));
+    }
+
+    public void setAmountMinor(int row, long amountMinor) {
+        set(row, epochDay(row), amountMinor, bankAccount(row), costCategory(row));
+    }
+
+    private Chunk chunk(int row) {
+        return chunks[row >>> CHUNK_SHIFT];
+    }
+
+    private interface Chunk {
+        long id(int i);
+
+        int epochDay(int i);
+
+        long amountMinor(int i);
+
+        int bankAccount(int i);
+
+        int costCategory(int i);
+
+        void set(int i, long id, int epochDay, long amountMinor, int bankAccount, int costCategory);
+    }
+
+    private static class HeapChunk implements Chunk {
+        private final long[] ids = new long[CHUNK_SIZE];
+        private final int[] epochDays = new int[CHUNK_SIZE];
+        private final long[] amounts = new long[CHUNK_SIZE];
+        private final int[] bankAccounts = new int[CHUNK_SIZE];
+        private final int[] costCategories = new int[CHUNK_SIZE];
+
+        @Override
+        public long id(int i) {
+            return ids[i];
+        }
+
+        @Override
+        public int epochDay(int i) {
+            return epochDays[i];
+        }
+
+        @Override
+        public long amountMinor(int i) {
+            return amounts[i];
+        }
+
+        @Override
+        public int bankAccount(int i) {
+            return bankAccounts[i];
+        }
+
+        @Override
+        public int costCategory(int i) {
+            return costCategories[i];
+        }
+
+        @Override
+        public void set(int i, long id, int epochDay, long amountMinor, int bankAccount, int costCategory) {
+            ids[i] = id;
+            epochDays[i] = epochDay;
+            amounts[i] = amountMinor;
+            bankAccounts[i] = bankAccount;
+            costCategories[i] = costCategory;
+        }
+    }
+
+    private static class DirectChunk implements Chunk {
+        private final LongBuffer ids = allocate(Long.BYTES).asLongBuffer();
+        private final IntBuffer epochDays = allocate(Integer.BYTES).asIntBuffer();
+        private final LongBuffer amounts = allocate(Long.BYTES).asLongBuffer();
+        private final IntBuffer bankAccounts = allocate(Integer.BYTES).asIntBuffer();
+        private final IntBuffer costCategories = allocate(Integer.BYTES).asIntBuffer();
+
+        private static ByteBuffer allocate(int width) {
+            return ByteBuffer.allocateDirect(CHUNK_SIZE * width).order(ByteOrder.nativeOrder());
+        }
+
+        @Override
+        public long id(int i) {
+            return ids.get(i);
+        }
+
+        @Override
+        public int epochDay(int i) {
+            return epochDays.get(i);
+        }
+
+        @Override
+        public long amountMinor(int i) {
+            return amounts.get(i);
+        }
+
+        @Override
+        public int bankAccount(int i) {
+            return bankAccounts.get(i);
+        }
+
+        @Override
+        public int costCategory(int i) {
+            return costCategories.get(i);
+        }
+
+        @Override
+        public void set(int i, long id, int epochDay, long amountMinor, int bankAccount, int costCategory) {
+            ids.put(i, id);
+            epochDays.put(i, epochDay);
+            amounts.put(i, amountMinor);
+            bankAccounts.put(i, bankAccount);
+            costCategories.put(i, costCategory);
+        }
+    }
+}
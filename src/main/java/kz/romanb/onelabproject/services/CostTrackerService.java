@@ -1,21 +1,44 @@
 package kz.romanb.onelabproject.services;
 
+import kz.romanb.onelabproject.aggregates.BalanceHistory;
+import kz.romanb.onelabproject.aggregates.OperationAggregates;
+import kz.romanb.onelabproject.budgets.BudgetRule;
+import kz.romanb.onelabproject.budgets.BudgetTracker;
+import kz.romanb.onelabproject.cache.UserQueryCache;
+import kz.romanb.onelabproject.concurrent.StripedLock;
+import kz.romanb.onelabproject.dto.BalancePoint;
+import kz.romanb.onelabproject.dto.BatchMode;
+import kz.romanb.onelabproject.dto.BatchResult;
+import kz.romanb.onelabproject.dto.OperationCursor;
+import kz.romanb.onelabproject.dto.OperationPage;
+import kz.romanb.onelabproject.dto.OperationRequest;
+import kz.romanb.onelabproject.dto.RankedTotal;
 import kz.romanb.onelabproject.entities.BankAccount;
 import kz.romanb.onelabproject.entities.CostCategory;
 import kz.romanb.onelabproject.entities.Operation;
 import kz.romanb.onelabproject.entities.User;
+import kz.romanb.onelabproject.exceptions.BudgetExceededException;
 import kz.romanb.onelabproject.exceptions.NotEnoughMoneyException;
+import kz.romanb.onelabproject.ids.IdGenerator;
+import kz.romanb.onelabproject.reports.Report;
+import kz.romanb.onelabproject.reports.ReportEngine;
+import kz.romanb.onelabproject.reports.ReportRequest;
 import kz.romanb.onelabproject.repositories.*;
+import kz.romanb.onelabproject.snapshots.OperationSnapshot;
+import kz.romanb.onelabproject.snapshots.OperationSnapshots;
+import kz.romanb.onelabproject.utils.Money;
+import kz.romanb.onelabproject.utils.TopN;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -24,6 +47,13 @@ public class CostTrackerService {
     private final BankAccountRepository bankAccountRepository;
     private final CostCategoryRepository costCategoryRepository;
     private final OperationRepository operationRepository;
+    private final OperationAggregates operationAggregates;
+    private final BalanceHistory balanceHistory;
+    private final IdGenerator idGenerator;
+    private final UserQueryCache queryCache;
+    private final OperationSnapshots operationSnapshots;
+    private final BudgetTracker budgetTracker;
+    private final StripedLock accountLocks = new StripedLock(256);
 
     public User createNewUser(User user) {
         return userRepository.save(user);
@@ -43,17 +73,19 @@ public class CostTrackerService {
                 .ifPresent(b -> {
                     throw new IllegalArgumentException("Счет с id " + b.getId() + " уже существует");
                 });
-        user.getBankAccounts().stream()
-                .filter(b -> Objects.equals(b.getId(), bankAccount.getId()) || b.getName().equals(bankAccount.getName()))
-                .findAny()
+        bankAccountRepository.findByUserIdAndName(user.getId(), bankAccount.getName())
                 .ifPresent(b -> {
                     throw new IllegalArgumentException("У пользователя уже есть такой счет");
                 });
-        if (bankAccount.getBalance() == null || bankAccount.getBalance().compareTo(BigDecimal.ZERO) < 0) {
+        if (bankAccount.getBalanceMinor() < 0) {
             throw new NotEnoughMoneyException("Баланс на счете меньше нуля");
         }
-        user.getBankAccounts().add(bankAccount);
+        Long previousOwner = bankAccount.getUserId();
+        bankAccount.setUserId(user.getId());
         bankAccountRepository.save(bankAccount);
+        user.getBankAccounts().add(bankAccount);
+        queryCache.invalidate(previousOwner);
+        queryCache.invalidate(user.getId());
         return bankAccount;
     }
 
@@ -63,44 +95,236 @@ public class CostTrackerService {
                 .ifPresent(c -> {
                     throw new IllegalArgumentException("Категория с id " + costCategory.getId() + " уже существует");
                 });
+        Long previousOwner = costCategory.getUserId();
+        costCategory.setUserId(user.getId());
         user.getCostCategories().add(costCategory);
         costCategoryRepository.save(costCategory);
+        queryCache.invalidate(previousOwner);
+        queryCache.invalidate(user.getId());
         return costCategory;
     }
 
+    public void setBudget(CostCategory costCategory, BudgetRule rule) {
+        budgetTracker.setRule(costCategory, rule);
+    }
+
+    public void removeBudget(CostCategory costCategory) {
+        budgetTracker.removeRule(costCategory);
+    }
+
+    public BigDecimal getBudgetSpent(CostCategory costCategory, YearMonth month) {
+        return Money.toBigDecimal(budgetTracker.getSpentMinor(costCategory, month));
+    }
+
     public Operation createOperation(BankAccount bankAccount, CostCategory costCategory, BigDecimal amount) {
-        if (costCategory.getCategoryType().equals(CostCategory.CostCategoryType.EXPENSE)) {
-            createExpenseOperation(bankAccount, amount);
-        } else {
-            createIncomeOperation(bankAccount, amount);
-        }
-        Operation operation = Operation.builder()
-                .id(OperationRepository.operationId.incrementAndGet())
-                .costCategory(costCategory)
-                .bankAccount(bankAccount)
-                .amount(amount)
-                .build();
-        operationRepository.save(operation);
-        return operation;
-    }
-
-    private void createIncomeOperation(BankAccount bankAccount, BigDecimal amount) {
-        bankAccount.setBalance(bankAccount.getBalance().add(amount));
-        if (bankAccount.getBalance().compareTo(BigDecimal.ZERO) < 0) {
-            bankAccount.setBalance(bankAccount.getBalance().subtract(amount));
-            throw new NotEnoughMoneyException("На счете не достаточно средств");
+        long amountMinor = Money.toMinorUnits(amount);
+        LocalDate date = LocalDate.now();
+        List<? extends Lock> budgetLocks = budgetTracker.locksFor(List.of(costCategory));
+        budgetLocks.forEach(Lock::lock);
+        Lock lock = accountLocks.get(bankAccount.getId());
+        lock.lock();
+        try {
+            budgetTracker.check(costCategory, date, 0, amountMinor);
+            bankAccount.setBalanceMinor(applyOperation(costCategory.getCategoryType(), bankAccount.getBalanceMinor(), amountMinor));
+            Operation operation = Operation.builder()
+                    .id(idGenerator.nextId())
+                    .costCategory(costCategory)
+                    .bankAccount(bankAccount)
+                    .amountMinor(amountMinor)
+                    .date(date)
+                    .balanceAfterMinor(bankAccount.getBalanceMinor())
+                    .build();
+            operationRepository.save(operation);
+            return operation;
+        } finally {
+            lock.unlock();
+            budgetLocks.forEach(Lock::unlock);
         }
     }
 
-    private void createExpenseOperation(BankAccount bankAccount, BigDecimal amount) {
-        if (bankAccount.getBalance().compareTo(amount) < 0) {
+    public BatchResult createOperations(List<OperationRequest> requests, BatchMode mode) {
+        List<BatchResult.Failure> failures = new ArrayList<>();
+        long[] amounts = new long[requests.size()];
+        long[] balancesAfter = new long[requests.size()];
+        boolean[] accepted = new boolean[requests.size()];
+        Map<Long, List<Integer>> requestsByAccount = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            OperationRequest request = requests.get(i);
+            try {
+                if (request.getBankAccount() == null || request.getCostCategory() == null) {
+                    throw new IllegalArgumentException("Не указан счет или категория");
+                }
+                amounts[i] = Money.toMinorUnits(request.getAmount());
+            } catch (IllegalArgumentException e) {
+                if (mode == BatchMode.ALL_OR_NOTHING) {
+                    throw new IllegalArgumentException("Операция " + i + ": " + e.getMessage(), e);
+                }
+                failures.add(new BatchResult.Failure(i, request, e.getMessage()));
+                continue;
+            }
+            requestsByAccount.computeIfAbsent(request.getBankAccount().getId(), k -> new ArrayList<>()).add(i);
+        }
+
+        List<? extends Lock> budgetLocks = budgetTracker.locksFor(requestsByAccount.values().stream()
+                .flatMap(List::stream)
+                .map(i -> requests.get(i).getCostCategory())
+                .collect(Collectors.toList()));
+        budgetLocks.forEach(Lock::lock);
+        try {
+            Map<Long, Map<YearMonth, Long>> pendingBudgets = new HashMap<>();
+            Operation[] created = new Operation[requests.size()];
+            if (mode == BatchMode.ALL_OR_NOTHING) {
+                List<? extends Lock> locks = accountLocks.getAll(requestsByAccount.keySet());
+                locks.forEach(Lock::lock);
+                try {
+                    Map<BankAccount, Long> balances = new LinkedHashMap<>();
+                    requestsByAccount.values().forEach(indexes -> balances.put(
+                            requests.get(indexes.get(0)).getBankAccount(),
+                            applyOperations(requests, indexes, amounts, balancesAfter, accepted, failures, pendingBudgets, mode)));
+                    balances.forEach(BankAccount::setBalanceMinor);
+                    saveAccepted(requests, requestsByAccount.values().stream().flatMap(List::stream).toList(), amounts, balancesAfter, accepted, created);
+                } finally {
+                    locks.forEach(Lock::unlock);
+                }
+            } else {
+                for (Map.Entry<Long, List<Integer>> group : requestsByAccount.entrySet()) {
+                    BankAccount bankAccount = requests.get(group.getValue().get(0)).getBankAccount();
+                    Lock lock = accountLocks.get(group.getKey());
+                    lock.lock();
+                    try {
+                        bankAccount.setBalanceMinor(applyOperations(requests, group.getValue(), amounts, balancesAfter, accepted, failures, pendingBudgets, mode));
+                        saveAccepted(requests, group.getValue(), amounts, balancesAfter, accepted, created);
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }
+
+            List<Operation> operations = new ArrayList<>();
+            for (Operation operation : created) {
+                if (operation != null) {
+                    operations.add(operation);
+                }
+            }
+            failures.sort(Comparator.comparingInt(BatchResult.Failure::getIndex));
+            return new BatchResult(operations, failures);
+        } finally {
+            budgetLocks.forEach(Lock::unlock);
+        }
+    }
+
+    private void saveAccepted(List<OperationRequest> requests, List<Integer> indexes, long[] amounts,
+                              long[] balancesAfter, boolean[] accepted, Operation[] created) {
+        int acceptedCount = 0;
+        for (int i : indexes) {
+            if (accepted[i]) {
+                acceptedCount++;
+            }
+        }
+        if (acceptedCount == 0) {
+            return;
+        }
+        long[] ids = idGenerator.nextIds(acceptedCount);
+        List<Operation> operations = new ArrayList<>(acceptedCount);
+        for (int i : indexes) {
+            if (accepted[i]) {
+                OperationRequest request = requests.get(i);
+                created[i] = Operation.builder()
+                        .id(ids[operations.size()])
+                        .costCategory(request.getCostCategory())
+                        .bankAccount(request.getBankAccount())
+                        .amountMinor(amounts[i])
+                        .date(request.getDate())
+                        .balanceAfterMinor(balancesAfter[i])
+                        .build();
+                operations.add(created[i]);
+            }
+        }
+        operationRepository.saveAll(operations);
+    }
+
+    private long applyOperations(List<OperationRequest> requests, List<Integer> indexes, long[] amounts,
+                                 long[] balancesAfter, boolean[] accepted, List<BatchResult.Failure> failures,
+                                 Map<Long, Map<YearMonth, Long>> pendingBudgets, BatchMode mode) {
+        long balance = requests.get(indexes.get(0)).getBankAccount().getBalanceMinor();
+        for (int i : indexes) {
+            OperationRequest request = requests.get(i);
+            try {
+                CostCategory costCategory = request.getCostCategory();
+                LocalDate date = request.getDate() == null ? LocalDate.now() : request.getDate();
+                Map<YearMonth, Long> pending = costCategory.getId() == null
+                        ? new HashMap<>()
+                        : pendingBudgets.computeIfAbsent(costCategory.getId(), k -> new HashMap<>());
+                long pendingMinor = pending.getOrDefault(YearMonth.from(date), 0L);
+                budgetTracker.check(costCategory, date, pendingMinor, amounts[i]);
+                balance = applyOperation(costCategory.getCategoryType(), balance, amounts[i]);
+                if (costCategory.getCategoryType() == CostCategory.CostCategoryType.EXPENSE) {
+                    pending.put(YearMonth.from(date), pendingMinor + amounts[i]);
+                }
+                balancesAfter[i] = balance;
+                accepted[i] = true;
+            } catch (BudgetExceededException e) {
+                if (mode == BatchMode.ALL_OR_NOTHING) {
+                    throw new BudgetExceededException("Операция " + i + ": " + e.getMessage());
+                }
+                failures.add(new BatchResult.Failure(i, request, e.getMessage()));
+            } catch (NotEnoughMoneyException e) {
+                if (mode == BatchMode.ALL_OR_NOTHING) {
+                    throw new NotEnoughMoneyException("Операция " + i + ": " + e.getMessage());
+                }
+                failures.add(new BatchResult.Failure(i, request, e.getMessage()));
+            } catch (ArithmeticException e) {
+                if (mode == BatchMode.ALL_OR_NOTHING) {
+                    throw new ArithmeticException("Операция " + i + ": " + e.getMessage());
+                }
+                failures.add(new BatchResult.Failure(i, request, e.getMessage()));
+            }
+        }
+        return balance;
+    }
+
+    private static long applyOperation(CostCategory.CostCategoryType categoryType, long balance, long amount) {
+        if (categoryType == CostCategory.CostCategoryType.EXPENSE && balance < amount) {
             throw new NotEnoughMoneyException("На счете не достаточно средств");
         }
-        bankAccount.setBalance(bankAccount.getBalance().subtract(amount));
-        if (bankAccount.getBalance().compareTo(BigDecimal.ZERO) < 0) {
-            bankAccount.setBalance(bankAccount.getBalance().add(amount));
+        try {
+            balance = categoryType == CostCategory.CostCategoryType.EXPENSE
+                    ? Money.subtract(balance, amount)
+                    : Money.add(balance, amount);
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("Переполнение баланса счета");
+        }
+        if (balance < 0) {
             throw new NotEnoughMoneyException("На счете не достаточно средств");
         }
+        return balance;
+    }
+
+    public BigDecimal getBalanceAsOf(BankAccount bankAccount, LocalDate date) {
+        Lock lock = accountLocks.get(bankAccount.getId());
+        lock.lock();
+        try {
+            return Money.toBigDecimal(balanceHistory.getBalanceAsOf(bankAccount.getId(), bankAccount.getBalanceMinor(), date));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<BalancePoint> getBalanceSeries(BankAccount bankAccount, LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Некорректный период");
+        }
+        Lock lock = accountLocks.get(bankAccount.getId());
+        lock.lock();
+        try {
+            return balanceHistory.getBalanceSeries(bankAccount.getId(), bankAccount.getBalanceMinor(), startDate, endDate);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public OperationSnapshot getOperationSnapshot() {
+        return operationSnapshots.current();
     }
 
     public Optional<Operation> findOperationById(Long id) {
@@ -108,40 +332,164 @@ public class CostTrackerService {
     }
 
     public List<Operation> findAllOperations() {
-        return operationRepository.findAll().stream()
-                .sorted(Comparator.comparing(o -> o.getBankAccount().getId()))
-                .collect(Collectors.toList());
+        return operationRepository.streamAll(null).collect(Collectors.toList());
     }
 
     public List<Operation> findAllOperationsByUser(User user) {
-        return operationRepository.findAllOperationsByUser(user).stream()
-                .sorted(Comparator.comparing(Operation::getDate).reversed())
-                .collect(Collectors.toList());
+        return queryCache.get(user.getId(), "findAllOperationsByUser", List.of(),
+                () -> operationRepository.findAllOperationsByUser(user));
     }
 
     public List<Operation> findAllOperationsByCostCategory(CostCategory costCategory) {
-        return operationRepository.findAllOperationsByCostCategory(costCategory).stream()
-                .sorted(Comparator.comparing(Operation::getDate).reversed())
-                .collect(Collectors.toList());
+        return queryCache.get(costCategory.getUserId(), "findAllOperationsByCostCategory", Arrays.asList(costCategory.getId()),
+                () -> operationRepository.findAllOperationsByCostCategory(costCategory));
     }
 
     public List<Operation> findAllOperationsForDate(LocalDate date) {
-        return operationRepository.findAllOperationsForDate(date).stream()
-                .sorted(Comparator.comparing(Operation::getDate).reversed())
-                .collect(Collectors.toList());
+        return operationSnapshots.current().findAllOperationsBetweenDates(date, date);
     }
 
     public List<Operation> findAllOperationsBetweenDates(LocalDate startDate, LocalDate endDate) {
-        return operationRepository.findAllOperationsBetweenDates(startDate, endDate).stream()
-                .sorted(Comparator.comparing(Operation::getDate).reversed())
-                .collect(Collectors.toList());
+        return operationSnapshots.current().findAllOperationsBetweenDates(startDate, endDate);
+    }
+
+    public OperationPage findOperationsPage(OperationCursor after, int size) {
+        return page(operationRepository.streamAll(after), size, OperationCursor::byBankAccount);
+    }
+
+    public OperationPage findOperationsPageByUser(User user, OperationCursor after, int size) {
+        return page(operationRepository.streamAllOperationsByUser(user, after), size, OperationCursor::byDate);
+    }
+
+    public OperationPage findOperationsPageBetweenDates(LocalDate startDate, LocalDate endDate, OperationCursor after, int size) {
+        return page(operationRepository.streamAllOperationsBetweenDates(startDate, endDate, after), size, OperationCursor::byDate);
+    }
+
+    public Stream<Operation> streamAllOperations() {
+        return operationRepository.streamAll(null);
+    }
+
+    public Stream<Operation> streamAllOperationsByUser(User user) {
+        return operationRepository.streamAllOperationsByUser(user, null);
+    }
+
+    public Stream<Operation> streamAllOperationsBetweenDates(LocalDate startDate, LocalDate endDate) {
+        return operationRepository.streamAllOperationsBetweenDates(startDate, endDate, null);
+    }
+
+    public Report buildReport(ReportRequest request) {
+        if (request.getUser() == null || request.getStartDate() == null || request.getEndDate() == null) {
+            throw new IllegalArgumentException("Не указан пользователь или период отчета");
+        }
+        return queryCache.get(request.getUser().getId(), "buildReport",
+                Arrays.asList(request.getStartDate(), request.getEndDate(), List.copyOf(request.getGroupBy()), Set.copyOf(request.getMeasures())),
+                () -> ReportEngine.build(request, operationSnapshots.current()
+                        .findAllOperationsByUserBetweenDates(request.getUser(), request.getStartDate(), request.getEndDate())));
+    }
+
+    public List<Operation> findTopOperations(User user, CostCategory.CostCategoryType categoryType,
+                                             LocalDate startDate, LocalDate endDate, int limit) {
+        return queryCache.get(user.getId(), "findTopOperations", Arrays.asList(categoryType, startDate, endDate, limit),
+                () -> operationSnapshots.current().findAllOperationsByUserBetweenDates(user, startDate, endDate).stream()
+                        .filter(o -> o.getCostCategory() != null && o.getCostCategory().getCategoryType() == categoryType)
+                        .collect(TopN.collector(limit, Comparator.comparingLong(Operation::getAmountMinor)
+                                .thenComparing(Operation::getId, Comparator.reverseOrder()))));
+    }
+
+    public List<RankedTotal<CostCategory>> findTopCostCategories(User user, LocalDate startDate, LocalDate endDate, int limit) {
+        return queryCache.get(user.getId(), "findTopCostCategories", Arrays.asList(startDate, endDate, limit),
+                () -> topCostCategories(user, startDate, endDate, limit));
+    }
+
+    public List<RankedTotal<BankAccount>> findTopBankAccountsByOutflow(User user, LocalDate startDate, LocalDate endDate, int limit) {
+        return queryCache.get(user.getId(), "findTopBankAccountsByOutflow", Arrays.asList(startDate, endDate, limit),
+                () -> topBankAccountsByOutflow(user, startDate, endDate, limit));
+    }
+
+    private List<RankedTotal<CostCategory>> topCostCategories(User user, LocalDate startDate, LocalDate endDate, int limit) {
+        TopN<RankedTotal<CostCategory>> top = new TopN<>(limit, rankedTotalOrder(CostCategory::getId));
+        for (CostCategory costCategory : user.getCostCategories()) {
+            if (costCategory.getCategoryType() == CostCategory.CostCategoryType.EXPENSE) {
+                long total = operationAggregates.getSum(OperationAggregates.Dimension.COST_CATEGORY, costCategory.getId(),
+                        CostCategory.CostCategoryType.EXPENSE, startDate, endDate);
+                if (total > 0) {
+                    top.add(new RankedTotal<>(costCategory, total));
+                }
+            }
+        }
+        return top.toList();
+    }
+
+    private List<RankedTotal<BankAccount>> topBankAccountsByOutflow(User user, LocalDate startDate, LocalDate endDate, int limit) {
+        TopN<RankedTotal<BankAccount>> top = new TopN<>(limit, rankedTotalOrder(BankAccount::getId));
+        for (BankAccount bankAccount : user.getBankAccounts()) {
+            long total = operationAggregates.getSum(OperationAggregates.Dimension.BANK_ACCOUNT, bankAccount.getId(),
+                    CostCategory.CostCategoryType.EXPENSE, startDate, endDate);
+            if (total > 0) {
+                top.add(new RankedTotal<>(bankAccount, total));
+            }
+        }
+        return top.toList();
+    }
+
+    private static <T> Comparator<RankedTotal<T>> rankedTotalOrder(Function<T, Long> idOf) {
+        return Comparator.<RankedTotal<T>>comparingLong(RankedTotal::getTotalMinor)
+                .thenComparing(r -> idOf.apply(r.getItem()), Comparator.reverseOrder());
+    }
+
+    private static OperationPage page(Stream<Operation> operations, int size, Function<Operation, OperationCursor> cursor) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть больше нуля");
+        }
+        List<Operation> page = operations.limit(size + 1L).collect(Collectors.toList());
+        if (page.size() <= size) {
+            return new OperationPage(page, null);
+        }
+        page.remove(size);
+        return new OperationPage(page, cursor.apply(page.get(size - 1)));
     }
 
 
     public BigDecimal getSum(List<Operation> operations, CostCategory.CostCategoryType categoryType) {
-        return operations.stream()
-                .filter(o -> o.getCostCategory().getCategoryType().equals(categoryType))
-                .map(Operation::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return Money.toBigDecimal(getSumMinor(operations, categoryType));
+    }
+
+    public long getSumMinor(List<Operation> operations, CostCategory.CostCategoryType categoryType) {
+        long sum = 0;
+        for (Operation operation : operations) {
+            if (operation.getCostCategory().getCategoryType() == categoryType) {
+                sum = Money.add(sum, operation.getAmountMinor());
+            }
+        }
+        return sum;
+    }
+
+    public BigDecimal getSum(User user, CostCategory.CostCategoryType categoryType) {
+        return queryCache.get(user.getId(), "getSum", Arrays.asList(categoryType),
+                () -> Money.toBigDecimal(operationAggregates.getSum(OperationAggregates.Dimension.USER, user.getId(), categoryType)));
+    }
+
+    public BigDecimal getSum(User user, CostCategory.CostCategoryType categoryType, LocalDate startDate, LocalDate endDate) {
+        return queryCache.get(user.getId(), "getSum", Arrays.asList(categoryType, startDate, endDate),
+                () -> Money.toBigDecimal(operationAggregates.getSum(OperationAggregates.Dimension.USER, user.getId(), categoryType, startDate, endDate)));
+    }
+
+    public BigDecimal getSum(BankAccount bankAccount, CostCategory.CostCategoryType categoryType, LocalDate startDate, LocalDate endDate) {
+        return queryCache.get(bankAccount.getUserId(), "getSumByBankAccount", Arrays.asList(bankAccount.getId(), categoryType, startDate, endDate),
+                () -> Money.toBigDecimal(operationAggregates.getSum(OperationAggregates.Dimension.BANK_ACCOUNT, bankAccount.getId(), categoryType, startDate, endDate)));
+    }
+
+    public BigDecimal getSum(CostCategory costCategory) {
+        return queryCache.get(costCategory.getUserId(), "getSumByCostCategory", Arrays.asList(costCategory.getId()),
+                () -> Money.toBigDecimal(operationAggregates.getSum(OperationAggregates.Dimension.COST_CATEGORY, costCategory.getId(), costCategory.getCategoryType())));
+    }
+
+    public BigDecimal getSum(CostCategory costCategory, LocalDate startDate, LocalDate endDate) {
+        return queryCache.get(costCategory.getUserId(), "getSumByCostCategory", Arrays.asList(costCategory.getId(), startDate, endDate),
+                () -> Money.toBigDecimal(operationAggregates.getSum(OperationAggregates.Dimension.COST_CATEGORY, costCategory.getId(), costCategory.getCategoryType(), startDate, endDate)));
+    }
+
+    public BigDecimal getSum(CostCategory.CostCategoryType categoryType, LocalDate startDate, LocalDate endDate) {
+        return Money.toBigDecimal(operationAggregates.getSum(OperationAggregates.Dimension.CATEGORY_TYPE, 0L, categoryType, startDate, endDate));
     }
 }
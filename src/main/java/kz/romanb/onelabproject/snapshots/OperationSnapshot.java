@@ -0,0 +1,470 @@
+package kz.romanb.onelabproject.snapshots;
+
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.User;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+public final class OperationSnapshot {
+    static final int STRIPES = 64;
+    static final Stripe EMPTY_STRIPE = new Stripe(0, null);
+
+    private static final long NO_USER = Long.MIN_VALUE;
+    private static final Comparator<DescendingCursor> NEWEST_FIRST = (a, b) -> Node.compare(b.peek().day, b.peek().id, a.peek().day, a.peek().id);
+
+    private final Stripe[] stripes;
+
+    OperationSnapshot(Stripe[] stripes) {
+        this.stripes = stripes;
+    }
+
+    public long getVersion() {
+        long version = 0;
+        for (Stripe stripe : stripes) {
+            version += stripe.version;
+        }
+        return version;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += UserNode.size(stripe.users);
+        }
+        return size;
+    }
+
+    public long getBalanceMinor(BankAccount bankAccount) {
+        UserState user = user(bankAccount.getUserId());
+        int index = user == null ? -1 : user.indexOf(bankAccount.getId());
+        return index < 0 ? bankAccount.getBalanceMinor() : user.balances[index];
+    }
+
+    public List<Operation> findAll() {
+        return findAllOperationsBetweenDates(LocalDate.MIN, LocalDate.MAX);
+    }
+
+    public List<Operation> findAllOperationsBetweenDates(LocalDate startDate, LocalDate endDate) {
+        long fromDay = startDate.toEpochDay();
+        long toDay = endDate.toEpochDay();
+        PriorityQueue<DescendingCursor> cursors = new PriorityQueue<>(NEWEST_FIRST);
+        forEachUser(user -> {
+            DescendingCursor cursor = new DescendingCursor(user.operations, fromDay, toDay);
+            if (cursor.hasNext()) {
+                cursors.add(cursor);
+            }
+        });
+        List<Operation> operations = new ArrayList<>();
+        while (!cursors.isEmpty()) {
+            DescendingCursor cursor = cursors.poll();
+            operations.add(cursor.next().toOperation());
+            if (cursor.hasNext()) {
+                cursors.add(cursor);
+            }
+        }
+        return operations;
+    }
+
+    public List<Operation> findAllOperationsByUserBetweenDates(User user, LocalDate startDate, LocalDate endDate) {
+        List<Operation> operations = new ArrayList<>();
+        forEachOperation(user.getId(), startDate, endDate, n -> operations.add(n.toOperation()));
+        return operations;
+    }
+
+    public long getSum(CostCategory.CostCategoryType categoryType) {
+        long sum = 0;
+        for (Stripe stripe : stripes) {
+            sum = Math.addExact(sum, UserNode.sum(stripe.users, categoryType));
+        }
+        return sum;
+    }
+
+    public long getSum(CostCategory.CostCategoryType categoryType, LocalDate startDate, LocalDate endDate) {
+        long[] sum = new long[1];
+        forEachUser(user -> sum[0] = Math.addExact(sum[0], user.getSum(categoryType, startDate, endDate)));
+        return sum[0];
+    }
+
+    public long getSum(User user, CostCategory.CostCategoryType categoryType) {
+        UserState state = user(user.getId());
+        return state == null ? 0 : Node.sum(state.operations, categoryType);
+    }
+
+    public long getSum(User user, CostCategory.CostCategoryType categoryType, LocalDate startDate, LocalDate endDate) {
+        UserState state = user(user.getId());
+        return state == null ? 0 : state.getSum(categoryType, startDate, endDate);
+    }
+
+    private UserState user(Long userId) {
+        long key = keyOf(userId);
+        return UserNode.get(stripes[stripeOf(key)].users, key);
+    }
+
+    private void forEachOperation(Long userId, LocalDate startDate, LocalDate endDate, Consumer<Node> action) {
+        UserState user = user(userId);
+        if (user != null) {
+            Node.forEachDescending(user.operations, startDate.toEpochDay(), endDate.toEpochDay(), action);
+        }
+    }
+
+    private void forEachUser(Consumer<UserState> action) {
+        for (Stripe stripe : stripes) {
+            UserNode.forEach(stripe.users, action);
+        }
+    }
+
+    static long keyOf(Long userId) {
+        return userId == null ? NO_USER : userId;
+    }
+
+    static int stripeOf(long userKey) {
+        return (int) Math.floorMod(userKey, (long) STRIPES);
+    }
+
+    static final class Stripe {
+        private final long version;
+        private final UserNode users;
+
+        private Stripe(long version, UserNode users) {
+            this.version = version;
+            this.users = users;
+        }
+
+        Stripe update(long userKey, UnaryOperator<UserState> change) {
+            UserState user = UserNode.get(users, userKey);
+            return new Stripe(version + 1, UserNode.put(users, userKey, change.apply(user == null ? UserState.EMPTY : user)));
+        }
+    }
+
+    static final class UserState {
+        private static final UserState EMPTY = new UserState(null, new long[0], new long[0]);
+
+        private final Node operations;
+        private final long[] bankAccountIds;
+        private final long[] balances;
+
+        private UserState(Node operations, long[] bankAccountIds, long[] balances) {
+            this.operations = operations;
+            this.bankAccountIds = bankAccountIds;
+            this.balances = balances;
+        }
+
+        UserState replace(long id, LocalDate previousDate, Operation operation) {
+            Node result = previousDate == null ? operations : Node.delete(operations, previousDate.toEpochDay(), id);
+            if (operation.getDate() != null) {
+                result = Node.insert(result, new Node(operation, operation.getDate().toEpochDay()));
+            }
+            return new UserState(result, bankAccountIds, balances);
+        }
+
+        UserState remove(long id, LocalDate date) {
+            return date == null ? this : new UserState(Node.delete(operations, date.toEpochDay(), id), bankAccountIds, balances);
+        }
+
+        UserState withBalance(Long bankAccountId, Long balanceMinor) {
+            if (bankAccountId == null || balanceMinor == null) {
+                return this;
+            }
+            int index = indexOf(bankAccountId);
+            if (index < 0) {
+                long[] ids = Arrays.copyOf(bankAccountIds, bankAccountIds.length + 1);
+                long[] values = Arrays.copyOf(balances, balances.length + 1);
+                ids[ids.length - 1] = bankAccountId;
+                values[values.length - 1] = balanceMinor;
+                return new UserState(operations, ids, values);
+            }
+            long[] values = balances.clone();
+            values[index] = balanceMinor;
+            return new UserState(operations, bankAccountIds, values);
+        }
+
+        private int indexOf(Long bankAccountId) {
+            for (int i = 0; i < bankAccountIds.length; i++) {
+                if (bankAccountId != null && bankAccountIds[i] == bankAccountId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private long getSum(CostCategory.CostCategoryType categoryType, LocalDate startDate, LocalDate endDate) {
+            if (startDate.isAfter(endDate)) {
+                return 0;
+            }
+            return Math.subtractExact(
+                    Node.prefixSum(operations, endDate.toEpochDay(), Long.MAX_VALUE, categoryType),
+                    Node.prefixSum(operations, startDate.toEpochDay(), Long.MIN_VALUE, categoryType));
+        }
+    }
+
+    private static final class UserNode {
+        private final long userKey;
+        private final int priority;
+        private final UserState state;
+        private final UserNode left;
+        private final UserNode right;
+        private final int size;
+        private final long incomeSum;
+        private final long expenseSum;
+
+        private UserNode(long userKey, UserState state, UserNode left, UserNode right) {
+            this.userKey = userKey;
+            this.priority = Node.mix(userKey);
+            this.state = state;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + size(right) + Node.size(state.operations);
+            this.incomeSum = sum(left, CostCategory.CostCategoryType.INCOME) + sum(right, CostCategory.CostCategoryType.INCOME)
+                    + Node.sum(state.operations, CostCategory.CostCategoryType.INCOME);
+            this.expenseSum = sum(left, CostCategory.CostCategoryType.EXPENSE) + sum(right, CostCategory.CostCategoryType.EXPENSE)
+                    + Node.sum(state.operations, CostCategory.CostCategoryType.EXPENSE);
+        }
+
+        private static int size(UserNode node) {
+            return node == null ? 0 : node.size;
+        }
+
+        private static long sum(UserNode node, CostCategory.CostCategoryType categoryType) {
+            if (node == null) {
+                return 0;
+            }
+            return categoryType == CostCategory.CostCategoryType.INCOME ? node.incomeSum : node.expenseSum;
+        }
+
+        private static UserState get(UserNode node, long userKey) {
+            while (node != null) {
+                if (userKey == node.userKey) {
+                    return node.state;
+                }
+                node = userKey < node.userKey ? node.left : node.right;
+            }
+            return null;
+        }
+
+        private static UserNode put(UserNode node, long userKey, UserState state) {
+            if (node == null) {
+                return new UserNode(userKey, state, null, null);
+            }
+            if (userKey == node.userKey) {
+                return new UserNode(userKey, state, node.left, node.right);
+            }
+            if (userKey < node.userKey) {
+                UserNode left = put(node.left, userKey, state);
+                return left.priority > node.priority
+                        ? new UserNode(left.userKey, left.state, left.left, new UserNode(node.userKey, node.state, left.right, node.right))
+                        : new UserNode(node.userKey, node.state, left, node.right);
+            }
+            UserNode right = put(node.right, userKey, state);
+            return right.priority > node.priority
+                    ? new UserNode(right.userKey, right.state, new UserNode(node.userKey, node.state, node.left, right.left), right.right)
+                    : new UserNode(node.userKey, node.state, node.left, right);
+        }
+
+        private static void forEach(UserNode node, Consumer<UserState> action) {
+            while (node != null) {
+                forEach(node.left, action);
+                action.accept(node.state);
+                node = node.right;
+            }
+        }
+    }
+
+    private static final class DescendingCursor {
+        private final Deque<Node> stack = new ArrayDeque<>();
+        private final long fromDay;
+        private final long toDay;
+
+        private DescendingCursor(Node root, long fromDay, long toDay) {
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            push(root);
+        }
+
+        private boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        private Node peek() {
+            return stack.peek();
+        }
+
+        private Node next() {
+            Node node = stack.pop();
+            push(node.left);
+            return node;
+        }
+
+        private void push(Node node) {
+            while (node != null) {
+                if (node.day < fromDay) {
+                    node = node.right;
+                } else if (node.day > toDay) {
+                    node = node.left;
+                } else {
+                    stack.push(node);
+                    node = node.right;
+                }
+            }
+        }
+    }
+
+    private static final class Node {
+        private final long day;
+        private final long id;
+        private final int priority;
+        private final long amountMinor;
+        private final BankAccount bankAccount;
+        private final CostCategory costCategory;
+        private final Node left;
+        private final Node right;
+        private final int size;
+        private final long incomeSum;
+        private final long expenseSum;
+
+        private Node(Operation operation, long day) {
+            this(day, operation.getId(), operation.getAmountMinor(), operation.getBankAccount(), operation.getCostCategory(), null, null);
+        }
+
+        private Node(long day, long id, long amountMinor, BankAccount bankAccount, CostCategory costCategory, Node left, Node right) {
+            this.day = day;
+            this.id = id;
+            this.priority = mix(day * 31 + id);
+            this.amountMinor = amountMinor;
+            this.bankAccount = bankAccount;
+            this.costCategory = costCategory;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + size(right) + 1;
+            this.incomeSum = sum(left, CostCategory.CostCategoryType.INCOME) + sum(right, CostCategory.CostCategoryType.INCOME)
+                    + amountOf(CostCategory.CostCategoryType.INCOME);
+            this.expenseSum = sum(left, CostCategory.CostCategoryType.EXPENSE) + sum(right, CostCategory.CostCategoryType.EXPENSE)
+                    + amountOf(CostCategory.CostCategoryType.EXPENSE);
+        }
+
+        private Node with(Node left, Node right) {
+            return new Node(day, id, amountMinor, bankAccount, costCategory, left, right);
+        }
+
+        private long amountOf(CostCategory.CostCategoryType categoryType) {
+            return costCategory != null && costCategory.getCategoryType() == categoryType ? amountMinor : 0;
+        }
+
+        private Operation toOperation() {
+            return Operation.builder()
+                    .id(id)
+                    .amountMinor(amountMinor)
+                    .date(LocalDate.ofEpochDay(day))
+                    .bankAccount(bankAccount)
+                    .costCategory(costCategory)
+                    .build();
+        }
+
+        private static int size(Node node) {
+            return node == null ? 0 : node.size;
+        }
+
+        private static long sum(Node node, CostCategory.CostCategoryType categoryType) {
+            if (node == null) {
+                return 0;
+            }
+            return categoryType == CostCategory.CostCategoryType.INCOME ? node.incomeSum : node.expenseSum;
+        }
+
+        private static int compare(long day, long id, long otherDay, long otherId) {
+            int result = Long.compare(day, otherDay);
+            return result != 0 ? result : Long.compare(id, otherId);
+        }
+
+        private static void forEachDescending(Node node, long fromDay, long toDay, Consumer<Node> action) {
+            while (node != null) {
+                if (node.day < fromDay) {
+                    node = node.right;
+                } else if (node.day > toDay) {
+                    node = node.left;
+                } else {
+                    forEachDescending(node.right, fromDay, toDay, action);
+                    action.accept(node);
+                    node = node.left;
+                }
+            }
+        }
+
+        private static long prefixSum(Node node, long day, long id, CostCategory.CostCategoryType categoryType) {
+            long sum = 0;
+            while (node != null) {
+                if (compare(node.day, node.id, day, id) <= 0) {
+                    sum += sum(node.left, categoryType) + node.amountOf(categoryType);
+                    node = node.right;
+                } else {
+                    node = node.left;
+                }
+            }
+            return sum;
+        }
+
+        private static Node insert(Node node, Node leaf) {
+            if (node == null) {
+                return leaf;
+            }
+            int comparison = compare(leaf.day, leaf.id, node.day, node.id);
+            if (comparison == 0) {
+                return leaf.with(node.left, node.right);
+            }
+            if (comparison < 0) {
+                Node left = insert(node.left, leaf);
+                return left.priority > node.priority
+                        ? left.with(left.left, node.with(left.right, node.right))
+                        : node.with(left, node.right);
+            }
+            Node right = insert(node.right, leaf);
+            return right.priority > node.priority
+                    ? right.with(node.with(node.left, right.left), right.right)
+                    : node.with(node.left, right);
+        }
+
+        private static Node delete(Node node, long day, long id) {
+            if (node == null) {
+                return null;
+            }
+            int comparison = compare(day, id, node.day, node.id);
+            if (comparison == 0) {
+                return merge(node.left, node.right);
+            }
+            if (comparison < 0) {
+                Node left = delete(node.left, day, id);
+                return left == node.left ? node : node.with(left, node.right);
+            }
+            Node right = delete(node.right, day, id);
+            return right == node.right ? node : node.with(node.left, right);
+        }
+
+        private static Node merge(Node left, Node right) {
+            if (left == null) {
+                return right;
+            }
+            if (right == null) {
+                return left;
+            }
+            return left.priority > right.priority
+                    ? left.with(left.left, merge(left.right, right))
+                    : right.with(merge(left, right.left), right.right);
+        }
+
+        private static int mix(long key) {
+            key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+            key = (key ^ (key >>> 33)) * 0xc4ceb9f64a7fe83bL;
+            return (int) (key ^ (key >>> 33));
+        }
+    }
+}
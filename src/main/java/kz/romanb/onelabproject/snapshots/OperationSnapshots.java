@@ -0,0 +1,80 @@
+package kz.romanb.onelabproject.snapshots;
+
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.OperationListener;
+import kz.romanb.onelabproject.repositories.BankAccountRepository;
+import kz.romanb.onelabproject.repositories.OperationRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.UnaryOperator;
+
+@Component
+public class OperationSnapshots implements OperationListener {
+    private final AtomicReferenceArray<OperationSnapshot.Stripe> stripes = new AtomicReferenceArray<>(OperationSnapshot.STRIPES);
+
+    public OperationSnapshots(OperationRepository operationRepository, BankAccountRepository bankAccountRepository) {
+        for (int i = 0; i < OperationSnapshot.STRIPES; i++) {
+            stripes.set(i, OperationSnapshot.EMPTY_STRIPE);
+        }
+        operationRepository.addListener(this);
+        bankAccountRepository.addListener(this::onBankAccountSaved);
+    }
+
+    // Stripes are pinned one after another: each user's operations and balances are consistent,
+    // but a write to another user's stripe that lands during pinning may or may not be included.
+    public OperationSnapshot current() {
+        OperationSnapshot.Stripe[] pinned = new OperationSnapshot.Stripe[OperationSnapshot.STRIPES];
+        for (int i = 0; i < pinned.length; i++) {
+            pinned[i] = stripes.get(i);
+        }
+        return new OperationSnapshot(pinned);
+    }
+
+    @Override
+    public void onSaved(Operation operation, Operation previous) {
+        Long userId = userIdOf(operation);
+        LocalDate previousDate = null;
+        if (previous != null) {
+            Long previousUserId = userIdOf(previous);
+            if (OperationSnapshot.keyOf(previousUserId) == OperationSnapshot.keyOf(userId)) {
+                previousDate = previous.getDate();
+            } else {
+                publish(previousUserId, u -> u.remove(previous.getId(), previous.getDate()));
+            }
+        }
+        LocalDate replacedDate = previousDate;
+        Long balanceAfterMinor = previous == null ? operation.getBalanceAfterMinor() : null;
+        Long bankAccountId = operation.getBankAccount() == null ? null : operation.getBankAccount().getId();
+        publish(userId, u -> u.replace(operation.getId(), replacedDate, operation).withBalance(bankAccountId, balanceAfterMinor));
+    }
+
+    @Override
+    public void onDateChanged(Operation operation, LocalDate oldDate) {
+        publish(userIdOf(operation), u -> u.replace(operation.getId(), oldDate, operation));
+    }
+
+    @Override
+    public void onAmountChanged(Operation operation, long oldAmountMinor) {
+        publish(userIdOf(operation), u -> u.replace(operation.getId(), operation.getDate(), operation));
+    }
+
+    private void onBankAccountSaved(BankAccount bankAccount) {
+        publish(bankAccount.getUserId(), u -> u.withBalance(bankAccount.getId(), bankAccount.getBalanceMinor()));
+    }
+
+    private void publish(Long userId, UnaryOperator<OperationSnapshot.UserState> change) {
+        long userKey = OperationSnapshot.keyOf(userId);
+        int index = OperationSnapshot.stripeOf(userKey);
+        OperationSnapshot.Stripe stripe;
+        do {
+            stripe = stripes.get(index);
+        } while (!stripes.compareAndSet(index, stripe, stripe.update(userKey, change)));
+    }
+
+    private static Long userIdOf(Operation operation) {
+        return operation.getBankAccount() == null ? null : operation.getBankAccount().getUserId();
+    }
+}
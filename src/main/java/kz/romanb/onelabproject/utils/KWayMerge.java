@@ -0,0 +1,83 @@
+package kz.romanb.onelabproject.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public final class KWayMerge<T> implements Iterator<T> {
+    private final PriorityQueue<Head<T>> heads;
+
+    private KWayMerge(List<? extends Iterator<? extends T>> sources, Comparator<? super T> comparator) {
+        this.heads = new PriorityQueue<>(Math.max(sources.size(), 1), (a, b) -> {
+            int result = comparator.compare(a.value, b.value);
+            return result != 0 ? result : Integer.compare(a.source, b.source);
+        });
+        for (int i = 0; i < sources.size(); i++) {
+            Iterator<? extends T> source = sources.get(i);
+            if (source.hasNext()) {
+                heads.add(new Head<>(i, source, source.next()));
+            }
+        }
+    }
+
+    public static <T> Stream<T> merge(List<Stream<T>> sources, Comparator<? super T> comparator) {
+        if (sources.size() == 1) {
+            return sources.get(0);
+        }
+        List<Iterator<T>> iterators = new ArrayList<>(sources.size());
+        sources.forEach(s -> iterators.add(s.iterator()));
+        Stream<T> merged = StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                new KWayMerge<>(iterators, comparator), Spliterator.ORDERED | Spliterator.NONNULL), false);
+        return merged.onClose(() -> sources.forEach(Stream::close));
+    }
+
+    public static <T> List<T> mergeLists(List<List<T>> sources, Comparator<? super T> comparator) {
+        int size = 0;
+        List<Iterator<T>> iterators = new ArrayList<>(sources.size());
+        for (List<T> source : sources) {
+            size += source.size();
+            iterators.add(source.iterator());
+        }
+        List<T> result = new ArrayList<>(size);
+        new KWayMerge<>(iterators, comparator).forEachRemaining(result::add);
+        return result;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !heads.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        Head<T> head = heads.poll();
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+        T value = head.value;
+        if (head.iterator.hasNext()) {
+            head.value = head.iterator.next();
+            heads.add(head);
+        }
+        return value;
+    }
+
+    private static final class Head<T> {
+        private final int source;
+        private final Iterator<? extends T> iterator;
+        private T value;
+
+        private Head(int source, Iterator<? extends T> iterator, T value) {
+            this.source = source;
+            this.iterator = iterator;
+            this.value = value;
+        }
+    }
+}
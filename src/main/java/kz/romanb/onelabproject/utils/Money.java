@@ -0,0 +1,33 @@
+package kz.romanb.onelabproject.utils;
+
+import java.math.BigDecimal;
+
+public final class Money {
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    public static long toMinorUnits(BigDecimal amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Сумма не задана");
+        }
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Некорректная сумма " + amount.toPlainString(), e);
+        }
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+}
@@ -0,0 +1,51 @@
+package kz.romanb.onelabproject.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collector;
+
+public final class TopN<T> {
+    private final int limit;
+    private final Comparator<? super T> comparator;
+    private final PriorityQueue<T> heap;
+
+    public TopN(int limit, Comparator<? super T> comparator) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Количество должно быть больше нуля");
+        }
+        this.limit = limit;
+        this.comparator = comparator;
+        this.heap = new PriorityQueue<>(Math.min(limit, 1024), comparator);
+    }
+
+    public static <T> Collector<T, ?, List<T>> collector(int limit, Comparator<? super T> comparator) {
+        return Collector.of(
+                () -> new TopN<T>(limit, comparator),
+                TopN::add,
+                TopN::merge,
+                TopN::toList
+        );
+    }
+
+    public void add(T item) {
+        if (heap.size() < limit) {
+            heap.add(item);
+        } else if (comparator.compare(item, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(item);
+        }
+    }
+
+    public TopN<T> merge(TopN<T> other) {
+        other.heap.forEach(this::add);
+        return this;
+    }
+
+    public List<T> toList() {
+        List<T> result = new ArrayList<>(heap);
+        result.sort(comparator.reversed());
+        return result;
+    }
+}
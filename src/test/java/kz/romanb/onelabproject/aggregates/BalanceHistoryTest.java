@@ -0,0 +1,76 @@
+package kz.romanb.onelabproject.aggregates;
+
+import kz.romanb.onelabproject.dto.BalancePoint;
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.repositories.OperationRepositoryImpl;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BalanceHistoryTest {
+    private static final LocalDate START = LocalDate.of(2023, 11, 1);
+    private static final long OPENING_BALANCE = 1_000_000;
+
+    @Test
+    void balanceAsOfMatchesReplay() {
+        OperationRepositoryImpl operationRepository = new OperationRepositoryImpl();
+        BalanceHistory balanceHistory = new BalanceHistory(operationRepository);
+        BankAccount kaspi = BankAccount.builder().id(1L).userId(1L).name("Kaspi").build();
+        CostCategory salary = CostCategory.builder().id(1L).name("Salary").categoryType(CostCategory.CostCategoryType.INCOME).build();
+        CostCategory food = CostCategory.builder().id(2L).name("Food").categoryType(CostCategory.CostCategoryType.EXPENSE).build();
+
+        Random random = new Random(11);
+        List<Operation> operations = new ArrayList<>();
+        for (long id = 1; id <= 2_000; id++) {
+            operations.add(Operation.builder()
+                    .id(id)
+                    .bankAccount(kaspi)
+                    .costCategory(random.nextInt(3) == 0 ? salary : food)
+                    .amountMinor(1 + random.nextInt(10_000))
+                    .date(START.plusDays(random.nextInt(400)))
+                    .build());
+        }
+        operationRepository.saveAll(operations.subList(0, 1_000));
+        operations.subList(1_000, operations.size()).forEach(operationRepository::save);
+        operations.get(5).setDate(START.minusDays(3));
+        operations.get(6).setAmountMinor(77);
+
+        long current = replay(operations, LocalDate.MAX);
+        for (LocalDate date = START.minusDays(10); date.isBefore(START.plusDays(410)); date = date.plusDays(13)) {
+            assertThat(balanceHistory.getBalanceAsOf(1L, current, date)).isEqualTo(replay(operations, date));
+        }
+
+        LocalDate from = START.plusDays(25);
+        LocalDate to = START.plusDays(95);
+        List<BalancePoint> series = balanceHistory.getBalanceSeries(1L, current, from, to);
+        assertThat(series).hasSize(71);
+        for (BalancePoint point : series) {
+            assertThat(point.getBalanceMinor()).isEqualTo(replay(operations, point.getDate()));
+        }
+        assertThat(balanceHistory.getBalanceAsOf(2L, 500, START)).isEqualTo(500);
+        assertThat(balanceHistory.getBalanceSeries(2L, 500, START, START.plusDays(BalanceHistory.MAX_SERIES_DAYS - 1)))
+                .hasSize(BalanceHistory.MAX_SERIES_DAYS);
+        assertThatThrownBy(() -> balanceHistory.getBalanceSeries(1L, current, LocalDate.MIN, LocalDate.MAX))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("не может превышать");
+    }
+
+    private static long replay(List<Operation> operations, LocalDate date) {
+        long balance = OPENING_BALANCE;
+        for (Operation operation : operations) {
+            if (!operation.getDate().isAfter(date)) {
+                boolean expense = operation.getCostCategory().getCategoryType() == CostCategory.CostCategoryType.EXPENSE;
+                balance += expense ? -operation.getAmountMinor() : operation.getAmountMinor();
+            }
+        }
+        return balance;
+    }
+}
@@ -0,0 +1,111 @@
+package kz.romanb.onelabproject.async;
+
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.User;
+import kz.romanb.onelabproject.services.CostTrackerFixture;
+import kz.romanb.onelabproject.services.CostTrackerService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncCostTrackerServiceTest {
+    @Test
+    void dashboardFansOutAndCallsTimeOut() {
+        CostTrackerService costTrackerService = new CostTrackerFixture().getCostTrackerService();
+        User user = costTrackerService.createNewUser(User.builder().id(1L).name("Async").build());
+        BankAccount kaspi = costTrackerService.addNewBankAccountToUser(user,
+                BankAccount.builder().id(1L).name("Kaspi").balance(new BigDecimal("1000.00")).build());
+        CostCategory salary = costTrackerService.addNewCostCategoryToUser(user,
+                CostCategory.builder().id(1L).name("Salary").categoryType(CostCategory.CostCategoryType.INCOME).build());
+        CostCategory food = costTrackerService.addNewCostCategoryToUser(user,
+                CostCategory.builder().id(2L).name("Food").categoryType(CostCategory.CostCategoryType.EXPENSE).build());
+
+        AsyncProperties properties = new AsyncProperties();
+        properties.setExecutor(AsyncProperties.ExecutorType.PLATFORM);
+        properties.setPoolSize(4);
+        properties.setRecentOperations(3);
+        AsyncCostTrackerService asyncService = new AsyncCostTrackerService(costTrackerService, properties);
+        try {
+            for (int i = 1; i <= 5; i++) {
+                asyncService.createOperation(kaspi, i % 2 == 0 ? salary : food, BigDecimal.valueOf(i)).join();
+            }
+            Operation old = costTrackerService.createOperation(kaspi, food, BigDecimal.TEN);
+            old.setDate(LocalDate.now().minusMonths(2));
+
+            UserDashboard dashboard = asyncService.loadDashboard(1L, YearMonth.now()).join();
+            assertThat(dashboard.getBankAccounts()).containsExactly(kaspi);
+            assertThat(dashboard.getCostCategories()).containsExactly(salary, food);
+            assertThat(dashboard.getRecentOperations()).hasSize(3).doesNotContain(old);
+            assertThat(dashboard.getIncome()).isEqualByComparingTo("6.00");
+            assertThat(dashboard.getExpense()).isEqualByComparingTo("9.00");
+
+            assertThatThrownBy(() -> asyncService.loadDashboard(42L, YearMonth.now()).join())
+                    .isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> asyncService.call(s -> {
+                try {
+                    Thread.sleep(1_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return s.findAllUsers();
+            }, Duration.ofMillis(20)).join())
+                    .isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(TimeoutException.class);
+        } finally {
+            asyncService.shutdown();
+        }
+    }
+
+    @Test
+    void writesAreNotFailedByTimeout() {
+        CostTrackerService costTrackerService = new CostTrackerFixture().getCostTrackerService();
+        User user = costTrackerService.createNewUser(User.builder().id(1L).name("Async").build());
+        BankAccount kaspi = costTrackerService.addNewBankAccountToUser(user,
+                BankAccount.builder().id(1L).name("Kaspi").build());
+        CostCategory salary = costTrackerService.addNewCostCategoryToUser(user,
+                CostCategory.builder().id(1L).name("Salary").categoryType(CostCategory.CostCategoryType.INCOME).build());
+
+        AsyncProperties properties = new AsyncProperties();
+        properties.setExecutor(AsyncProperties.ExecutorType.PLATFORM);
+        properties.setPoolSize(1);
+        properties.setTimeout(Duration.ofMillis(20));
+        AsyncCostTrackerService asyncService = new AsyncCostTrackerService(costTrackerService, properties);
+        try {
+            asyncService.write(s -> {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            });
+            Operation operation = asyncService.createOperation(kaspi, salary, BigDecimal.TEN).join();
+            assertThat(costTrackerService.findOperationById(operation.getId())).containsSame(operation);
+            assertThat(kaspi.getBalance()).isEqualByComparingTo("10.00");
+        } finally {
+            asyncService.shutdown();
+        }
+    }
+
+    @Test
+    void virtualThreadsRequireSupportingRuntime() {
+        AsyncProperties properties = new AsyncProperties();
+        properties.setExecutor(AsyncProperties.ExecutorType.VIRTUAL);
+        if (Runtime.version().feature() >= 21) {
+            AsyncExecutors.create(properties).shutdown();
+        } else {
+            assertThatThrownBy(() -> AsyncExecutors.create(properties)).isInstanceOf(IllegalStateException.class);
+        }
+    }
+}
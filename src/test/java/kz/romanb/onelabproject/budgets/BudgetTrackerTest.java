@@ -0,0 +1,144 @@
+package kz.romanb.onelabproject.budgets;
+
+import kz.romanb.onelabproject.dto.BatchMode;
+import kz.romanb.onelabproject.dto.BatchResult;
+import kz.romanb.onelabproject.dto.OperationRequest;
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.User;
+import kz.romanb.onelabproject.exceptions.BudgetExceededException;
+import kz.romanb.onelabproject.services.CostTrackerFixture;
+import kz.romanb.onelabproject.services.CostTrackerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BudgetTrackerTest {
+    private final List<BudgetWarning> warnings = new CopyOnWriteArrayList<>();
+    private CostTrackerService costTrackerService;
+    private User user;
+    private CostCategory shopping;
+    private CostCategory salary;
+
+    @BeforeEach
+    void setUp() {
+        CostTrackerFixture fixture = new CostTrackerFixture();
+        fixture.getBudgetTracker().addListener(warnings::add);
+        costTrackerService = fixture.getCostTrackerService();
+        user = costTrackerService.createNewUser(User.builder().id(1L).name("Budget").build());
+        shopping = costTrackerService.addNewCostCategoryToUser(user,
+                CostCategory.builder().id(1L).name("Shopping").categoryType(CostCategory.CostCategoryType.EXPENSE).build());
+        salary = costTrackerService.addNewCostCategoryToUser(user,
+                CostCategory.builder().id(2L).name("Salary").categoryType(CostCategory.CostCategoryType.INCOME).build());
+    }
+
+    @Test
+    void rejectsOperationsOverMonthlyLimitAndWarnsAtThreshold() {
+        BankAccount kaspi = account(1L, "1000.00");
+        costTrackerService.setBudget(shopping, BudgetRule.builder().limit(new BigDecimal("100.00")).build());
+
+        costTrackerService.createOperation(kaspi, shopping, new BigDecimal("70.00"));
+        assertThat(warnings).isEmpty();
+        costTrackerService.createOperation(kaspi, shopping, new BigDecimal("15.00"));
+        assertThat(warnings).singleElement().satisfies(w -> {
+            assertThat(w.isExceeded()).isFalse();
+            assertThat(w.getSpent()).isEqualByComparingTo("85.00");
+            assertThat(w.getMonth()).isEqualTo(YearMonth.now());
+        });
+
+        assertThatThrownBy(() -> costTrackerService.createOperation(kaspi, shopping, new BigDecimal("20.00")))
+                .isInstanceOf(BudgetExceededException.class);
+        assertThat(kaspi.getBalance()).isEqualByComparingTo("915.00");
+        costTrackerService.createOperation(kaspi, shopping, new BigDecimal("15.00"));
+        assertThat(costTrackerService.getBudgetSpent(shopping, YearMonth.now())).isEqualByComparingTo("100.00");
+
+        LocalDate lastMonth = LocalDate.now().minusMonths(1);
+        BatchResult result = costTrackerService.createOperations(List.of(
+                request(kaspi, shopping, "60.00", lastMonth),
+                request(kaspi, shopping, "30.00", lastMonth),
+                request(kaspi, shopping, "20.00", lastMonth),
+                request(kaspi, shopping, "0.01", null)), BatchMode.PER_ITEM);
+        assertThat(result.getFailures()).extracting(BatchResult.Failure::getIndex).containsExactly(2, 3);
+        assertThat(costTrackerService.getBudgetSpent(shopping, YearMonth.from(lastMonth))).isEqualByComparingTo("90.00");
+        assertThatThrownBy(() -> costTrackerService.createOperations(List.of(
+                request(kaspi, shopping, "10.00", lastMonth),
+                request(kaspi, shopping, "0.01", lastMonth)), BatchMode.ALL_OR_NOTHING))
+                .isInstanceOf(BudgetExceededException.class)
+                .hasMessageStartingWith("Операция 1");
+        assertThat(kaspi.getBalance()).isEqualByComparingTo("810.00");
+
+        costTrackerService.removeBudget(shopping);
+        costTrackerService.createOperation(kaspi, shopping, new BigDecimal("50.00"));
+        assertThatThrownBy(() -> costTrackerService.setBudget(salary, BudgetRule.builder().limit(BigDecimal.TEN).build()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void warnPolicyAcceptsOperationsAndReportsBreach() {
+        BankAccount kaspi = account(1L, "1000.00");
+        costTrackerService.setBudget(shopping, BudgetRule.builder()
+                .limit(new BigDecimal("50.00"))
+                .warningPercent(50)
+                .policy(BudgetPolicy.WARN)
+                .build());
+
+        costTrackerService.createOperation(kaspi, shopping, new BigDecimal("30.00"));
+        costTrackerService.createOperation(kaspi, shopping, new BigDecimal("30.00"));
+        costTrackerService.createOperation(kaspi, shopping, new BigDecimal("30.00"));
+        assertThat(warnings).extracting(BudgetWarning::isExceeded).containsExactly(false, true);
+        assertThat(warnings.get(1).getSpent()).isEqualByComparingTo("60.00");
+        assertThat(costTrackerService.getBudgetSpent(shopping, YearMonth.now())).isEqualByComparingTo("90.00");
+    }
+
+    @Test
+    void concurrentWritersFromDifferentAccountsStayWithinLimit() {
+        List<BankAccount> accounts = new ArrayList<>();
+        for (long id = 1; id <= 8; id++) {
+            accounts.add(account(id, "1000.00"));
+        }
+        costTrackerService.setBudget(shopping, BudgetRule.builder().limit(new BigDecimal("500.00")).build());
+
+        List<CompletableFuture<Long>> writers = accounts.stream()
+                .map(account -> CompletableFuture.supplyAsync(() -> IntStream.range(0, 100)
+                        .filter(i -> {
+                            try {
+                                costTrackerService.createOperation(account, shopping, BigDecimal.ONE);
+                                return true;
+                            } catch (BudgetExceededException e) {
+                                return false;
+                            }
+                        })
+                        .count()))
+                .collect(Collectors.toList());
+        long accepted = writers.stream().mapToLong(CompletableFuture::join).sum();
+
+        assertThat(accepted).isEqualTo(500);
+        assertThat(costTrackerService.getBudgetSpent(shopping, YearMonth.now())).isEqualByComparingTo("500.00");
+    }
+
+    private BankAccount account(long id, String balance) {
+        return costTrackerService.addNewBankAccountToUser(user,
+                BankAccount.builder().id(id).name("Account " + id).balance(new BigDecimal(balance)).build());
+    }
+
+    private static OperationRequest request(BankAccount bankAccount, CostCategory costCategory, String amount, LocalDate date) {
+        return OperationRequest.builder()
+                .bankAccount(bankAccount)
+                .costCategory(costCategory)
+                .amount(new BigDecimal(amount))
+                .date(date)
+                .build();
+    }
+}
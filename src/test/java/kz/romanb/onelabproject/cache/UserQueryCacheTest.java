@@ -0,0 +1,72 @@
+package kz.romanb.onelabproject.cache;
+
+import kz.romanb.onelabproject.dto.OperationPage;
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.User;
+import kz.romanb.onelabproject.reports.Report;
+import kz.romanb.onelabproject.reports.ReportDimension;
+import kz.romanb.onelabproject.reports.ReportMeasure;
+import kz.romanb.onelabproject.reports.ReportRow;
+import kz.romanb.onelabproject.services.CostTrackerFixture;
+import kz.romanb.onelabproject.services.CostTrackerService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserQueryCacheTest {
+    @Test
+    void servesRepeatedQueriesFromCacheUntilUserDataChanges() {
+        CostTrackerFixture fixture = new CostTrackerFixture();
+        UserQueryCache cache = fixture.getQueryCache();
+        CostTrackerService costTrackerService = fixture.getCostTrackerService();
+        User first = costTrackerService.createNewUser(User.builder().id(9100L).name("First").build());
+        User second = costTrackerService.createNewUser(User.builder().id(9101L).name("Second").build());
+        BankAccount firstAccount = costTrackerService.addNewBankAccountToUser(first,
+                BankAccount.builder().id(9100L).name("Kaspi").balance(new BigDecimal("1000.00")).build());
+        BankAccount secondAccount = costTrackerService.addNewBankAccountToUser(second,
+                BankAccount.builder().id(9101L).name("Kaspi").balance(new BigDecimal("1000.00")).build());
+        CostCategory food = costTrackerService.addNewCostCategoryToUser(first,
+                CostCategory.builder().id(9100L).name("Food").categoryType(CostCategory.CostCategoryType.EXPENSE).build());
+        CostCategory taxi = costTrackerService.addNewCostCategoryToUser(second,
+                CostCategory.builder().id(9101L).name("Taxi").categoryType(CostCategory.CostCategoryType.EXPENSE).build());
+
+        costTrackerService.createOperation(firstAccount, food, new BigDecimal("10.00"));
+        assertThat(costTrackerService.getSum(first, CostCategory.CostCategoryType.EXPENSE)).isEqualByComparingTo("10.00");
+        assertThat(costTrackerService.getSum(first, CostCategory.CostCategoryType.EXPENSE)).isEqualByComparingTo("10.00");
+        List<Operation> operations = costTrackerService.findAllOperationsByUser(first);
+        assertThat(costTrackerService.findAllOperationsByUser(first)).isSameAs(operations);
+        assertThat(cache.stats().hitCount()).isEqualTo(2);
+        assertThatThrownBy(() -> operations.add(operations.get(0))).isInstanceOf(UnsupportedOperationException.class);
+
+        costTrackerService.createOperation(secondAccount, taxi, new BigDecimal("5.00"));
+        assertThat(costTrackerService.findAllOperationsByUser(first)).isSameAs(operations);
+
+        costTrackerService.createOperation(firstAccount, food, new BigDecimal("2.50"));
+        assertThat(costTrackerService.getSum(first, CostCategory.CostCategoryType.EXPENSE)).isEqualByComparingTo("12.50");
+        assertThat(costTrackerService.findAllOperationsByUser(first)).hasSize(2);
+
+        operations.get(0).setAmount(new BigDecimal("20.00"));
+        assertThat(costTrackerService.getSum(first, CostCategory.CostCategoryType.EXPENSE)).isEqualByComparingTo("22.50");
+    }
+
+    @Test
+    void weighsCompositeValuesBySize() {
+        List<ReportRow> rows = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            rows.add(new ReportRow(Map.of(ReportDimension.MONTH, i), 1, i, i, i));
+        }
+        assertThat(UserQueryCache.weigh(new Report(List.of(ReportDimension.MONTH), Set.of(ReportMeasure.SUM), rows))).isEqualTo(1_001);
+        assertThat(UserQueryCache.weigh(new OperationPage(List.of(new Operation(), new Operation()), null))).isEqualTo(3);
+        assertThat(UserQueryCache.weigh(List.of(1, 2, 3))).isEqualTo(4);
+        assertThat(UserQueryCache.weigh(BigDecimal.TEN)).isEqualTo(1);
+    }
+}
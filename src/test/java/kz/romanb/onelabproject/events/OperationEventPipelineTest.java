@@ -0,0 +1,221 @@
+package kz.romanb.onelabproject.events;
+
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.OperationListener;
+import kz.romanb.onelabproject.repositories.OperationRepositoryImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OperationEventPipelineTest {
+    private static final int PRODUCERS = 4;
+    private static final int OPERATIONS_PER_PRODUCER = 2_000;
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategy.class)
+    void deliversEveryEventInOrderUnderBackpressure(WaitStrategy waitStrategy) throws Exception {
+        OperationRepositoryImpl operationRepository = new OperationRepositoryImpl();
+        EventProperties properties = new EventProperties();
+        properties.setBufferSize(64);
+        properties.setMaxBatchSize(16);
+        properties.setWaitStrategy(waitStrategy);
+        OperationEventPipeline pipeline = new OperationEventPipeline(operationRepository, properties);
+
+        List<Long> sequences = new ArrayList<>();
+        AtomicLong savedAmount = new AtomicLong();
+        AtomicLong dateChanges = new AtomicLong();
+        pipeline.addConsumer("audit", (event, endOfBatch) -> sequences.add(event.getSequence()));
+        pipeline.addConsumer("totals", new OperationListener() {
+            @Override
+            public void onSaved(Operation operation, Operation previous) {
+                savedAmount.addAndGet(operation.getAmountMinor());
+            }
+
+            @Override
+            public void onDateChanged(Operation operation, LocalDate oldDate) {
+                dateChanges.incrementAndGet();
+            }
+        });
+
+        BankAccount bankAccount = BankAccount.builder().id(1L).userId(1L).name("Kaspi").build();
+        CostCategory food = CostCategory.builder().id(1L).name("Food").categoryType(CostCategory.CostCategoryType.EXPENSE).build();
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            long firstId = (long) p * OPERATIONS_PER_PRODUCER;
+            producers.add(executor.submit(() -> {
+                start.await();
+                for (long id = firstId; id < firstId + OPERATIONS_PER_PRODUCER; id++) {
+                    Operation operation = operationRepository.save(Operation.builder()
+                            .id(id)
+                            .bankAccount(bankAccount)
+                            .costCategory(food)
+                            .amountMinor(3)
+                            .build());
+                    if (id % 10 == 0) {
+                        operation.setDate(LocalDate.of(2024, 1, 1));
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> producer : producers) {
+            producer.get();
+        }
+        executor.shutdown();
+
+        int events = PRODUCERS * OPERATIONS_PER_PRODUCER * 11 / 10;
+        assertThat(pipeline.awaitConsumers(Duration.ofSeconds(30))).isTrue();
+        assertThat(pipeline.getLag("audit")).isZero();
+        assertThat(sequences).hasSize(events);
+        for (int i = 0; i < sequences.size(); i++) {
+            assertThat(sequences.get(i)).isEqualTo(i);
+        }
+        assertThat(savedAmount.get()).isEqualTo(3L * PRODUCERS * OPERATIONS_PER_PRODUCER);
+        assertThat(dateChanges.get()).isEqualTo(PRODUCERS * OPERATIONS_PER_PRODUCER / 10);
+        pipeline.shutdown();
+    }
+
+    @Test
+    void eventsKeepValuesOfTheirMomentAfterOperationChanges() throws Exception {
+        OperationRepositoryImpl operationRepository = new OperationRepositoryImpl();
+        OperationEventPipeline pipeline = new OperationEventPipeline(operationRepository, new EventProperties());
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> seen = new ArrayList<>();
+        pipeline.addConsumer("slow", new OperationListener() {
+            @Override
+            public void onSaved(Operation operation, Operation previous) {
+                await(release);
+                seen.add("saved " + operation.getAmountMinor() + " " + operation.getDate());
+            }
+
+            @Override
+            public void onAmountChanged(Operation operation, long oldAmountMinor) {
+                seen.add("amount " + oldAmountMinor + "->" + operation.getAmountMinor());
+            }
+
+            @Override
+            public void onDateChanged(Operation operation, LocalDate oldDate) {
+                seen.add("date " + oldDate + "->" + operation.getDate());
+            }
+        });
+
+        BankAccount bankAccount = BankAccount.builder().id(1L).userId(1L).name("Kaspi").build();
+        CostCategory food = CostCategory.builder().id(1L).name("Food").categoryType(CostCategory.CostCategoryType.EXPENSE).build();
+        Operation operation = operationRepository.save(Operation.builder()
+                .id(1L)
+                .bankAccount(bankAccount)
+                .costCategory(food)
+                .amountMinor(5)
+                .date(LocalDate.of(2024, 1, 1))
+                .build());
+        operation.setAmountMinor(7);
+        operation.setDate(LocalDate.of(2024, 2, 1));
+        release.countDown();
+
+        assertThat(pipeline.awaitConsumers(Duration.ofSeconds(10))).isTrue();
+        assertThat(seen).containsExactly("saved 5 2024-01-01", "amount 5->7", "date 2024-01-01->2024-02-01");
+        pipeline.shutdown();
+    }
+
+    @Test
+    void consumerFailureStopsFurtherWrites() {
+        OperationRepositoryImpl operationRepository = new OperationRepositoryImpl();
+        OperationEventPipeline pipeline = new OperationEventPipeline(operationRepository, new EventProperties());
+        pipeline.addConsumer("journal", (event, endOfBatch) -> {
+            throw new IllegalStateException("Диск заполнен");
+        });
+        BankAccount bankAccount = BankAccount.builder().id(1L).userId(1L).name("Kaspi").build();
+        CostCategory food = CostCategory.builder().id(1L).name("Food").categoryType(CostCategory.CostCategoryType.EXPENSE).build();
+        operationRepository.save(Operation.builder().id(1L).bankAccount(bankAccount).costCategory(food).amountMinor(5).build());
+
+        assertThat(pipeline.awaitConsumers(Duration.ofMillis(200))).isFalse();
+        assertThat(pipeline.getLag("journal")).isEqualTo(1);
+        assertThatThrownBy(() -> operationRepository.save(Operation.builder()
+                .id(2L)
+                .bankAccount(bankAccount)
+                .costCategory(food)
+                .amountMinor(5)
+                .build()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("journal")
+                .hasRootCauseMessage("Диск заполнен");
+        pipeline.shutdown();
+    }
+
+    @Test
+    void shutdownDrainsPublishedEventsAndRejectsLaterWrites() throws Exception {
+        OperationRepositoryImpl operationRepository = new OperationRepositoryImpl();
+        EventProperties properties = new EventProperties();
+        properties.setBufferSize(4);
+        OperationEventPipeline pipeline = new OperationEventPipeline(operationRepository, properties);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> seen = new ArrayList<>();
+        pipeline.addConsumer("slow", new OperationListener() {
+            @Override
+            public void onSaved(Operation operation, Operation previous) {
+                await(release);
+                seen.add(operation.getId());
+            }
+        });
+        BankAccount bankAccount = BankAccount.builder().id(1L).userId(1L).name("Kaspi").build();
+        CostCategory food = CostCategory.builder().id(1L).name("Food").categoryType(CostCategory.CostCategoryType.EXPENSE).build();
+        for (long id = 1; id <= 4; id++) {
+            operationRepository.save(Operation.builder().id(id).bankAccount(bankAccount).costCategory(food).amountMinor(5).build());
+        }
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> overflow = executor.submit(() -> operationRepository.save(Operation.builder()
+                .id(5L)
+                .bankAccount(bankAccount)
+                .costCategory(food)
+                .amountMinor(5)
+                .build()));
+        Thread.sleep(100);
+        assertThat(overflow).isNotDone();
+        Thread stopper = new Thread(pipeline::shutdown);
+        stopper.start();
+        while (pipeline.isRunning()) {
+            Thread.onSpinWait();
+        }
+        assertThatThrownBy(() -> operationRepository.save(Operation.builder()
+                .id(6L)
+                .bankAccount(bankAccount)
+                .costCategory(food)
+                .amountMinor(5)
+                .build()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("остановлен");
+        release.countDown();
+        overflow.get();
+        stopper.join();
+        executor.shutdown();
+
+        assertThat(seen).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
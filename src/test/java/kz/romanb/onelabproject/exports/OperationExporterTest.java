@@ -0,0 +1,89 @@
+package kz.romanb.onelabproject.exports;
+
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.User;
+import kz.romanb.onelabproject.repositories.OperationRepositoryImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OperationExporterTest {
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void exportsMatchingOperationsAsCsvAndBinary() throws IOException {
+        User user = User.builder().id(1L).name("Export").build();
+        BankAccount kaspi = BankAccount.builder().id(1L).userId(1L).name("Kaspi").build();
+        BankAccount foreign = BankAccount.builder().id(2L).userId(2L).name("Jusan").build();
+        CostCategory food = CostCategory.builder().id(7L).name("Food").categoryType(CostCategory.CostCategoryType.EXPENSE).build();
+        OperationRepositoryImpl operationRepository = new OperationRepositoryImpl();
+        Random random = new Random(3);
+        List<Operation> operations = new ArrayList<>();
+        for (long id = 1; id <= 100_000; id++) {
+            operations.add(Operation.builder()
+                    .id(id)
+                    .bankAccount(random.nextBoolean() ? kaspi : foreign)
+                    .costCategory(food)
+                    .amountMinor(random.nextInt(10_000_000))
+                    .date(START.plusDays(random.nextInt(365)))
+                    .build());
+        }
+        operationRepository.saveAll(operations);
+        OperationExporter exporter = new OperationExporter(operationRepository);
+        ExportRequest request = ExportRequest.builder()
+                .user(user)
+                .startDate(START.plusDays(30))
+                .endDate(START.plusDays(60))
+                .build();
+        List<Operation> expected = operations.stream()
+                .filter(o -> o.getBankAccount() == kaspi)
+                .filter(o -> !o.getDate().isBefore(request.getStartDate()) && !o.getDate().isAfter(request.getEndDate()))
+                .collect(Collectors.toList());
+
+        Path csv = directory.resolve("operations.csv");
+        ExportResult csvResult = exporter.export(request, ExportFormat.CSV, csv);
+        List<String> lines = Files.readAllLines(csv);
+        assertThat(csvResult.getRows()).isEqualTo(expected.size());
+        assertThat(csvResult.getBytes()).isEqualTo(Files.size(csv));
+        assertThat(lines.get(0)).isEqualTo("id,date,bank_account_id,cost_category_id,category_type,amount");
+        assertThat(lines.subList(1, lines.size())).containsExactlyInAnyOrderElementsOf(expected.stream()
+                .map(o -> o.getId() + "," + o.getDate() + ",1,7,EXPENSE," + o.getAmount().toPlainString())
+                .collect(Collectors.toList()));
+
+        Path binary = directory.resolve("operations.bin");
+        ExportResult binaryResult = exporter.export(request, ExportFormat.BINARY, binary);
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(binary));
+        assertThat(buffer.getInt()).isEqualTo(ExportFormat.BINARY_MAGIC);
+        assertThat(buffer.getShort()).isEqualTo(ExportFormat.BINARY_VERSION);
+        assertThat(buffer.getShort()).isEqualTo((short) ExportFormat.BINARY_ROW_SIZE);
+        assertThat(buffer.getLong()).isEqualTo(binaryResult.getRows()).isEqualTo(expected.size());
+        assertThat(buffer.remaining()).isEqualTo(expected.size() * ExportFormat.BINARY_ROW_SIZE);
+        List<Long> amounts = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            Operation operation = operationRepository.findById(buffer.getLong()).get();
+            assertThat(buffer.getInt()).isEqualTo(operation.getDate().toEpochDay());
+            assertThat(buffer.getLong()).isEqualTo(1L);
+            assertThat(buffer.getLong()).isEqualTo(7L);
+            assertThat(buffer.get()).isEqualTo((byte) CostCategory.CostCategoryType.EXPENSE.ordinal());
+            amounts.add(buffer.getLong());
+        }
+        assertThat(amounts).containsExactlyInAnyOrderElementsOf(expected.stream().map(Operation::getAmountMinor).collect(Collectors.toList()));
+        assertThat(Files.exists(directory.resolve("operations.bin.tmp"))).isFalse();
+    }
+}
@@ -0,0 +1,72 @@
+package kz.romanb.onelabproject.ids;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnowflakeIdGeneratorTest {
+    @Test
+    void idsStayMonotonicWhenSequenceOverflowsWithinOneMillisecond() {
+        Clock frozen = Clock.fixed(Instant.parse("2024-10-17T00:00:00Z"), ZoneOffset.UTC);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5, frozen);
+        long previous = 0;
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            assertThat(id & SnowflakeIdGenerator.MAX_NODE_ID).isEqualTo(5);
+            previous = id;
+        }
+        long[] batch = generator.nextIds(100);
+        assertThat(batch[0]).isGreaterThan(previous);
+        assertThat(batch[99] - batch[0]).isEqualTo(99 * SnowflakeIdGenerator.SEQUENCE_STEP);
+    }
+
+    @Test
+    void advanceToSkipsPastRecoveredHighWaterMark() {
+        Clock epoch = Clock.fixed(Instant.ofEpochMilli(SnowflakeIdGenerator.EPOCH), ZoneOffset.UTC);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, epoch);
+        long highWaterMark = new SnowflakeIdGenerator(7).nextId();
+        generator.advanceTo(highWaterMark);
+        long id = generator.nextId();
+        assertThat(id).isGreaterThan(highWaterMark);
+        assertThat(id & SnowflakeIdGenerator.MAX_NODE_ID).isEqualTo(1);
+    }
+
+    @Test
+    void threadLocalBlocksNeverCollide() throws Exception {
+        IdGenerator generator = new ThreadLocalBlockIdGenerator(new SnowflakeIdGenerator(3), 64);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                long[] ids = new long[20_000];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = generator.nextId();
+                    if (i > 0) {
+                        assertThat(ids[i]).isGreaterThan(ids[i - 1]);
+                    }
+                }
+                return ids;
+            }));
+        }
+        Set<Long> unique = new HashSet<>();
+        for (Future<long[]> future : futures) {
+            for (long id : future.get()) {
+                unique.add(id);
+            }
+        }
+        executor.shutdown();
+        assertThat(unique).hasSize(8 * 20_000);
+    }
+}
@@ -0,0 +1,72 @@
+package kz.romanb.onelabproject.imports;
+
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.User;
+import kz.romanb.onelabproject.services.CostTrackerFixture;
+import kz.romanb.onelabproject.services.CostTrackerService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementImporterTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void importsValidLinesAndReportsMalformedOnes() throws IOException {
+        CostTrackerFixture fixture = new CostTrackerFixture();
+        CostTrackerService costTrackerService = fixture.getCostTrackerService();
+        User user = costTrackerService.createNewUser(User.builder().id(1L).name("Import").build());
+        BankAccount kaspi = costTrackerService.addNewBankAccountToUser(user,
+                BankAccount.builder().id(1L).name("Kaspi").balance(new BigDecimal("100.00")).build());
+        BankAccount jusan = costTrackerService.addNewBankAccountToUser(user,
+                BankAccount.builder().id(2L).name("Jusan").balance(BigDecimal.ZERO).build());
+        costTrackerService.addNewCostCategoryToUser(user,
+                CostCategory.builder().id(1L).name("Salary").categoryType(CostCategory.CostCategoryType.INCOME).build());
+        costTrackerService.addNewCostCategoryToUser(user,
+                CostCategory.builder().id(2L).name("Food").categoryType(CostCategory.CostCategoryType.EXPENSE).build());
+
+        List<String> lines = new ArrayList<>();
+        lines.add("date,bank_account_id,cost_category_id,amount");
+        for (int i = 0; i < 500; i++) {
+            lines.add("2024-03-" + String.format("%02d", 1 + i % 28) + ",2,1,1.50");
+        }
+        lines.add("2024-02-30,1,2,1");
+        lines.add("2024-04-01;1;2;1");
+        lines.add("2024-04-01,9,2,1");
+        lines.add("2024-04-01,1,2,abc");
+        lines.add("2024-04-01,1,2,1000.00");
+        lines.add("2024-04-01,1,2,10.00\r");
+        lines.add("2024-04-01,1,1," + "0".repeat(200) + "5.00");
+        Path file = directory.resolve("statement.csv");
+        Files.writeString(file, String.join("\n", lines));
+
+        ImportProperties properties = new ImportProperties();
+        properties.setChunkSize(DataSize.ofBytes(64));
+        properties.setParserThreads(3);
+        properties.setMaxChunksInFlight(2);
+        properties.setBatchSize(7);
+        properties.setMaxReportedErrors(3);
+        ImportResult result = new StatementImporter(costTrackerService, fixture.getBankAccountRepository(), fixture.getCostCategoryRepository(), properties)
+                .importFile(file);
+
+        assertThat(result.getBytes()).isEqualTo(Files.size(file));
+        assertThat(result.getLines()).isEqualTo(lines.size());
+        assertThat(result.getImported()).isEqualTo(502);
+        assertThat(result.getRejected()).isEqualTo(5);
+        assertThat(result.getErrors()).extracting(ImportError::getLine).containsExactly(502L, 503L, 504L);
+        assertThat(kaspi.getBalance()).isEqualByComparingTo("95.00");
+        assertThat(jusan.getBalance()).isEqualByComparingTo("750.00");
+        assertThat(costTrackerService.findAllOperations()).hasSize(502);
+    }
+}
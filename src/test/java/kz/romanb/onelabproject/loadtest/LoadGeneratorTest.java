@@ -0,0 +1,57 @@
+package kz.romanb.onelabproject.loadtest;
+
+import kz.romanb.onelabproject.services.CostTrackerFixture;
+import kz.romanb.onelabproject.services.CostTrackerService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadGeneratorTest {
+    @Test
+    void zipfSamplerSkewsTowardsFirstRanks() {
+        SplittableRandom random = new SplittableRandom(1);
+        ZipfSampler skewed = new ZipfSampler(1_000, 1.0);
+        ZipfSampler uniform = new ZipfSampler(1_000, 0);
+        int[] skewedCounts = new int[1_000];
+        int[] uniformCounts = new int[1_000];
+        for (int i = 0; i < 100_000; i++) {
+            skewedCounts[skewed.sample(random)]++;
+            uniformCounts[uniform.sample(random)]++;
+        }
+        assertThat(skewedCounts[0]).isBetween(12_500, 14_500);
+        assertThat(skewedCounts[0]).isGreaterThan(skewedCounts[1]).isGreaterThan(skewedCounts[999]);
+        assertThat(uniformCounts[0]).isBetween(50, 150);
+    }
+
+    @Test
+    void drivesServiceAndReportsLatencies() {
+        CostTrackerFixture fixture = new CostTrackerFixture();
+        CostTrackerService costTrackerService = fixture.getCostTrackerService();
+        LoadTestProperties properties = new LoadTestProperties();
+        properties.setUsers(200);
+        properties.setOperationsPerUser(20);
+        properties.setThreads(2);
+        properties.setWarmup(Duration.ofMillis(100));
+        properties.setDuration(Duration.ofMillis(500));
+
+        CapacityReport report = new LoadGenerator(costTrackerService, fixture.getBankAccountRepository(), fixture.getCostCategoryRepository(), properties).run();
+
+        assertThat(report.getUsers()).isEqualTo(200);
+        assertThat(report.getSeededOperations()).isEqualTo(4_000);
+        assertThat(report.getOperations()).extracting(OperationStats::getOperation).containsExactly(LoadOperation.values());
+        assertThat(report.getOperations()).allSatisfy(stats -> {
+            assertThat(stats.getCount()).isPositive();
+            assertThat(stats.getErrors()).isZero();
+            assertThat(stats.getP50()).isLessThanOrEqualTo(stats.getP99());
+            assertThat(stats.getP99()).isLessThanOrEqualTo(stats.getP999());
+            assertThat(stats.getP999()).isLessThanOrEqualTo(stats.getMax());
+        });
+        assertThat(report.getThroughput()).isPositive();
+        assertThat(report.getHeapMax()).isPositive();
+        assertThat(report.format()).contains("CREATE_OPERATION", "TOTAL", "GC:");
+        assertThat(costTrackerService.findAllOperations()).hasSizeGreaterThan(4_000);
+    }
+}
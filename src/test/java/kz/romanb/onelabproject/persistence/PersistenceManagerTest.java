@@ -0,0 +1,195 @@
+package kz.romanb.onelabproject.persistence;
+
+import kz.romanb.onelabproject.dto.BatchMode;
+import kz.romanb.onelabproject.dto.OperationRequest;
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.User;
+import kz.romanb.onelabproject.ids.IdGenerator;
+import kz.romanb.onelabproject.ids.SnowflakeIdGenerator;
+import kz.romanb.onelabproject.repositories.BankAccountRepositoryImpl;
+import kz.romanb.onelabproject.repositories.CostCategoryRepositoryImpl;
+import kz.romanb.onelabproject.repositories.OperationRepositoryImpl;
+import kz.romanb.onelabproject.repositories.UserRepositoryImpl;
+import kz.romanb.onelabproject.services.CostTrackerFixture;
+import kz.romanb.onelabproject.services.CostTrackerService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PersistenceManagerTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoveryStopsAtRecordTruncatedMidWrite() throws IOException {
+        Node node = new Node(properties(0));
+        node.manager.recover();
+        node.manager.start();
+        User user = node.service.createNewUser(User.builder().id(100L).name("Recovery").build());
+        BankAccount bankAccount = node.service.addNewBankAccountToUser(user,
+                BankAccount.builder().id(100L).name("Kaspi").balance(new BigDecimal("1000.00")).build());
+        CostCategory shopping = node.service.addNewCostCategoryToUser(user,
+                CostCategory.builder().id(100L).name("Shopping").categoryType(CostCategory.CostCategoryType.EXPENSE).build());
+        Operation first = node.service.createOperation(bankAccount, shopping, new BigDecimal("100.50"));
+        first.setDate(LocalDate.of(2024, 10, 3));
+        Operation second = node.service.createOperation(bankAccount, shopping, new BigDecimal("200.25"));
+        BigDecimal balanceAfterSecond = bankAccount.getBalance();
+        node.service.createOperation(bankAccount, shopping, new BigDecimal("300.00"));
+        node.manager.close();
+
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 10);
+        }
+
+        Clock stoppedAtEpoch = Clock.fixed(Instant.ofEpochMilli(SnowflakeIdGenerator.EPOCH), ZoneOffset.UTC);
+        Node recovered = new Node(properties(0), new SnowflakeIdGenerator(0, stoppedAtEpoch));
+        recovered.manager.recover();
+        List<Operation> operations = recovered.operations.findAll();
+        assertThat(operations).extracting(Operation::getId).containsExactly(first.getId(), second.getId());
+        assertThat(recovered.operations.findById(first.getId()).get().getDate()).isEqualTo(LocalDate.of(2024, 10, 3));
+        BankAccount recoveredAccount = operations.get(1).getBankAccount();
+        assertThat(recoveredAccount.getBalance()).isEqualByComparingTo(balanceAfterSecond);
+        assertThat(recoveredAccount.getUserId()).isEqualTo(100L);
+
+        recovered.manager.start();
+        Operation third = recovered.service.createOperation(recoveredAccount, operations.get(0).getCostCategory(), new BigDecimal("50.00"));
+        assertThat(third.getId()).isGreaterThan(second.getId());
+        recovered.manager.close();
+
+        Node restarted = new Node(properties(0));
+        restarted.manager.recover();
+        assertThat(restarted.operations.findAll()).extracting(Operation::getId)
+                .containsExactly(first.getId(), second.getId(), third.getId());
+        assertThat(restarted.operations.findById(third.getId()).get().getBankAccount().getBalance())
+                .isEqualByComparingTo(balanceAfterSecond.subtract(new BigDecimal("50.00")));
+    }
+
+    @Test
+    void recoversBalanceOfPartiallyJournaledBatch() throws IOException {
+        Node node = new Node(properties(0));
+        node.manager.recover();
+        node.manager.start();
+        User user = node.service.createNewUser(User.builder().id(120L).name("Batch").build());
+        BankAccount bankAccount = node.service.addNewBankAccountToUser(user,
+                BankAccount.builder().id(120L).name("Halyk").balance(new BigDecimal("100.00")).build());
+        CostCategory food = node.service.addNewCostCategoryToUser(user,
+                CostCategory.builder().id(120L).name("Food").categoryType(CostCategory.CostCategoryType.EXPENSE).build());
+        node.service.createOperations(List.of(
+                new OperationRequest(bankAccount, food, new BigDecimal("10.00"), null),
+                new OperationRequest(bankAccount, food, new BigDecimal("20.00"), null),
+                new OperationRequest(bankAccount, food, new BigDecimal("30.00"), null)), BatchMode.ALL_OR_NOTHING);
+        node.manager.close();
+
+        try (FileChannel channel = FileChannel.open(segments().get(0), StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 10);
+        }
+
+        Node recovered = new Node(properties(0));
+        recovered.manager.recover();
+        List<Operation> operations = recovered.operations.findAll();
+        assertThat(operations).hasSize(2);
+        assertThat(operations.get(1).getBankAccount().getBalance()).isEqualByComparingTo(new BigDecimal("70.00"));
+    }
+
+    @Test
+    void journalFailureStopsFurtherWrites() throws IOException {
+        JournalProperties properties = properties(0);
+        properties.setSegmentSize(DataSize.ofKilobytes(160));
+        Node node = new Node(properties);
+        node.manager.recover();
+        node.manager.start();
+        User user = node.service.createNewUser(User.builder().id(140L).name("Failure").build());
+        BankAccount bankAccount = node.service.addNewBankAccountToUser(user,
+                BankAccount.builder().id(140L).name("Kaspi").build());
+        CostCategory salary = node.service.addNewCostCategoryToUser(user,
+                CostCategory.builder().id(140L).name("Salary").categoryType(CostCategory.CostCategoryType.INCOME).build());
+        Files.createFile(directory.resolve(String.format("journal-%020d.log", 2)));
+
+        assertThatThrownBy(() -> {
+            for (int i = 0; i < 100_000; i++) {
+                node.service.createOperation(bankAccount, salary, BigDecimal.ONE);
+            }
+        }).isInstanceOf(UncheckedIOException.class);
+        assertThatThrownBy(() -> node.service.createOperation(bankAccount, salary, BigDecimal.ONE))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Журнал операций остановлен после ошибки записи");
+    }
+
+    @Test
+    void snapshotCompactsJournalAndReplaysTail() throws IOException {
+        Node node = new Node(properties(0));
+        node.manager.recover();
+        node.manager.start();
+        User user = node.service.createNewUser(User.builder().id(110L).name("Snapshot").build());
+        BankAccount bankAccount = node.service.addNewBankAccountToUser(user,
+                BankAccount.builder().id(110L).name("Jusan").balance(new BigDecimal("500.00")).build());
+        CostCategory work = node.service.addNewCostCategoryToUser(user,
+                CostCategory.builder().id(110L).name("Work").categoryType(CostCategory.CostCategoryType.INCOME).build());
+        node.service.createOperation(bankAccount, work, new BigDecimal("10.00"));
+        node.manager.snapshot();
+        node.service.createOperation(bankAccount, work, new BigDecimal("20.00"));
+        node.manager.close();
+
+        assertThat(segments()).hasSize(1);
+
+        Node recovered = new Node(properties(0));
+        recovered.manager.recover();
+        assertThat(recovered.operations.findAll()).hasSize(2);
+        assertThat(recovered.operations.findAll().get(1).getBankAccount().getBalance())
+                .isEqualByComparingTo(new BigDecimal("530.00"));
+    }
+
+    private JournalProperties properties(long snapshotEvery) {
+        JournalProperties properties = new JournalProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory);
+        properties.setSegmentSize(DataSize.ofMegabytes(1));
+        properties.setFsyncEvery(1);
+        properties.setSnapshotEvery(snapshotEvery);
+        return properties;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+
+    private static class Node {
+        private final OperationRepositoryImpl operations = new OperationRepositoryImpl();
+        private final CostTrackerService service;
+        private final PersistenceManager manager;
+
+        private Node(JournalProperties properties) {
+            this(properties, new SnowflakeIdGenerator(0));
+        }
+
+        private Node(JournalProperties properties, IdGenerator ids) {
+            UserRepositoryImpl users = new UserRepositoryImpl();
+            BankAccountRepositoryImpl bankAccounts = new BankAccountRepositoryImpl();
+            CostCategoryRepositoryImpl costCategories = new CostCategoryRepositoryImpl();
+            service = new CostTrackerFixture(users, bankAccounts, costCategories, operations, ids).getCostTrackerService();
+            manager = new PersistenceManager(users, bankAccounts, costCategories, operations, ids, properties);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package kz.romanb.onelabproject.repositories;
+
+import kz.romanb.onelabproject.entities.BankAccount;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BankAccountRepositoryImplTest {
+    @Test
+    void findsByIdAndKeepsUserAccountNamesUnique() {
+        BankAccountRepositoryImpl repository = new BankAccountRepositoryImpl();
+        LongStream.of(1000, 5, 300, 128).forEach(id -> repository.save(BankAccount.builder()
+                .id(id)
+                .userId(id % 2)
+                .name("Account " + id)
+                .build()));
+
+        assertThat(repository.findById(1000L)).isPresent();
+        assertThat(repository.findById(Long.valueOf(300))).get().extracting(BankAccount::getName).isEqualTo("Account 300");
+        assertThat(repository.findById(7L)).isEmpty();
+        assertThat(repository.findAll().stream().map(BankAccount::getId).collect(Collectors.toList()))
+                .containsExactly(5L, 128L, 300L, 1000L);
+
+        assertThatThrownBy(() -> repository.save(BankAccount.builder().id(2000L).userId(0L).name("Account 300").build()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(repository.findById(2000L)).isEmpty();
+        assertThat(repository.save(BankAccount.builder().id(2000L).userId(1L).name("Account 300").build())).isNotNull();
+
+        BankAccount renamed = repository.findById(300L).get();
+        renamed.setName("Deposit");
+        repository.save(renamed);
+        assertThat(repository.findByUserIdAndName(0L, "Account 300")).isEmpty();
+        assertThat(repository.findByUserIdAndName(0L, "Deposit")).containsSame(renamed);
+        assertThat(repository.save(BankAccount.builder().id(2001L).userId(0L).name("Account 300").build())).isNotNull();
+        assertThat(repository.findAll()).hasSize(6);
+    }
+}
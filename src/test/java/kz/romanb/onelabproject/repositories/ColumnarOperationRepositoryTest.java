@@ -0,0 +1,120 @@
+package kz.romanb.onelabproject.repositories;
+
+import kz.romanb.onelabproject.dto.OperationCursor;
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.User;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnarOperationRepositoryTest {
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void answersQueriesLikeIndexedRepository(boolean offHeap) {
+        OperationRepositoryImpl indexed = new OperationRepositoryImpl();
+        ColumnarOperationRepository columnar = new ColumnarOperationRepository(offHeap);
+        List<User> users = new ArrayList<>();
+        List<CostCategory> categories = new ArrayList<>();
+        for (long u = 1; u <= 3; u++) {
+            User user = User.builder().id(u).name("User " + u).build();
+            for (long a = 0; a < 2; a++) {
+                user.getBankAccounts().add(BankAccount.builder().id(u * 10 + a).userId(u).name("Account " + a).build());
+            }
+            users.add(user);
+        }
+        categories.add(CostCategory.builder().id(1L).name("Salary").categoryType(CostCategory.CostCategoryType.INCOME).build());
+        categories.add(CostCategory.builder().id(2L).name("Food").categoryType(CostCategory.CostCategoryType.EXPENSE).build());
+        categories.add(CostCategory.builder().id(3L).name("Taxi").categoryType(CostCategory.CostCategoryType.EXPENSE).build());
+
+        Random random = new Random(42);
+        List<Operation> batch = new ArrayList<>();
+        for (long id = 500; id > 0; id--) {
+            User user = users.get(random.nextInt(users.size()));
+            batch.add(Operation.builder()
+                    .id(id)
+                    .bankAccount(user.getBankAccounts().get(random.nextInt(2)))
+                    .costCategory(categories.get(random.nextInt(categories.size())))
+                    .amountMinor(1 + random.nextInt(100_000))
+                    .date(START.plusDays(random.nextInt(30)))
+                    .build());
+        }
+        indexed.saveAll(batch);
+        List<Operation> copies = batch.stream().map(ColumnarOperationRepositoryTest::copy).collect(Collectors.toList());
+        columnar.saveAll(copies.subList(0, 250));
+        copies.subList(250, copies.size()).forEach(columnar::save);
+
+        columnar.findById(7L).get().setDate(START.plusDays(40));
+        indexed.findById(7L).get().setDate(START.plusDays(40));
+
+        assertThat(ids(columnar.findAll())).isEqualTo(ids(indexed.findAll()));
+        for (User user : users) {
+            assertThat(ids(columnar.findAllOperationsByUser(user))).isEqualTo(ids(indexed.findAllOperationsByUser(user)));
+            for (BankAccount bankAccount : user.getBankAccounts()) {
+                assertThat(ids(columnar.findAllOperationsByBankAccount(bankAccount)))
+                        .isEqualTo(ids(indexed.findAllOperationsByBankAccount(bankAccount)));
+                assertThat(ids(columnar.streamAllOperationsByBankAccount(bankAccount).collect(Collectors.toList())))
+                        .isEqualTo(ids(indexed.findAllOperationsByBankAccount(bankAccount)));
+            }
+            assertThat(paged(c -> columnar.streamAllOperationsByUser(user, c), OperationCursor::byDate))
+                    .isEqualTo(ids(indexed.findAllOperationsByUser(user)));
+            assertThat(ids(columnar.streamAllOperationsByUserBetweenDates(user, START.plusDays(5), START.plusDays(20)).collect(Collectors.toList())))
+                    .isEqualTo(ids(indexed.streamAllOperationsByUserBetweenDates(user, START.plusDays(5), START.plusDays(20)).collect(Collectors.toList())));
+        }
+        for (CostCategory category : categories) {
+            assertThat(ids(columnar.findAllOperationsByCostCategory(category)))
+                    .isEqualTo(ids(indexed.findAllOperationsByCostCategory(category)));
+            assertThat(indexed.findAllOperationsByCostCategory(category))
+                    .isSortedAccordingTo(Comparator.comparing(Operation::getDate).thenComparing(Operation::getId).reversed());
+        }
+        assertThat(ids(columnar.findAllOperationsByCostCategoryType(CostCategory.CostCategoryType.EXPENSE)))
+                .isEqualTo(ids(indexed.findAllOperationsByCostCategoryType(CostCategory.CostCategoryType.EXPENSE)));
+        assertThat(ids(columnar.findAllOperationsBetweenDates(START.plusDays(5), START.plusDays(40))))
+                .isEqualTo(ids(indexed.findAllOperationsBetweenDates(START.plusDays(5), START.plusDays(40))));
+        assertThat(paged(c -> columnar.streamAllOperationsBetweenDates(START, START.plusDays(40), c), OperationCursor::byDate))
+                .isEqualTo(ids(indexed.findAllOperationsBetweenDates(START, START.plusDays(40))));
+        assertThat(paged(columnar::streamAll, OperationCursor::byBankAccount))
+                .isEqualTo(ids(indexed.streamAll(null).collect(Collectors.toList())));
+        assertThat(columnar.findById(7L).get().getDate()).isEqualTo(START.plusDays(40));
+    }
+
+    private static List<Long> paged(Function<OperationCursor, Stream<Operation>> query, Function<Operation, OperationCursor> cursor) {
+        List<Long> ids = new ArrayList<>();
+        OperationCursor after = null;
+        while (true) {
+            List<Operation> page = query.apply(after).limit(17).collect(Collectors.toList());
+            if (page.isEmpty()) {
+                return ids;
+            }
+            ids.addAll(ids(page));
+            after = cursor.apply(page.get(page.size() - 1));
+        }
+    }
+
+    private static Operation copy(Operation operation) {
+        return Operation.builder()
+                .id(operation.getId())
+                .bankAccount(operation.getBankAccount())
+                .costCategory(operation.getCostCategory())
+                .amountMinor(operation.getAmountMinor())
+                .date(operation.getDate())
+                .build();
+    }
+
+    private static List<Long> ids(List<Operation> operations) {
+        return operations.stream().map(Operation::getId).collect(Collectors.toList());
+    }
+}
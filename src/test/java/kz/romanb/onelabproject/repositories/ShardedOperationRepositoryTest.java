@@ -0,0 +1,149 @@
+package kz.romanb.onelabproject.repositories;
+
+import kz.romanb.onelabproject.dto.OperationCursor;
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.OperationListener;
+import kz.romanb.onelabproject.entities.User;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardedOperationRepositoryTest {
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4, 7})
+    void answersQueriesLikeIndexedRepository(int shards) {
+        OperationRepositoryImpl indexed = new OperationRepositoryImpl();
+        ShardedOperationRepository sharded = new ShardedOperationRepository(shards);
+        AtomicLong saved = new AtomicLong();
+        AtomicLong moved = new AtomicLong();
+        sharded.addListener(new OperationListener() {
+            @Override
+            public void onSaved(Operation operation, Operation previous) {
+                saved.incrementAndGet();
+            }
+
+            @Override
+            public void onDateChanged(Operation operation, LocalDate oldDate) {
+                moved.incrementAndGet();
+            }
+        });
+        List<User> users = new ArrayList<>();
+        List<CostCategory> categories = new ArrayList<>();
+        for (long u = 1; u <= 9; u++) {
+            User user = User.builder().id(u).name("User " + u).build();
+            for (long a = 0; a < 2; a++) {
+                user.getBankAccounts().add(BankAccount.builder().id(u * 10 + a).userId(u).name("Account " + a).build());
+            }
+            users.add(user);
+        }
+        categories.add(CostCategory.builder().id(1L).name("Salary").categoryType(CostCategory.CostCategoryType.INCOME).build());
+        categories.add(CostCategory.builder().id(2L).name("Food").categoryType(CostCategory.CostCategoryType.EXPENSE).build());
+        categories.add(CostCategory.builder().id(3L).name("Taxi").categoryType(CostCategory.CostCategoryType.EXPENSE).build());
+
+        Random random = new Random(42);
+        List<Operation> batch = new ArrayList<>();
+        for (long id = 6_000; id > 0; id--) {
+            User user = users.get(random.nextInt(users.size()));
+            batch.add(Operation.builder()
+                    .id(id)
+                    .bankAccount(user.getBankAccounts().get(random.nextInt(2)))
+                    .costCategory(categories.get(random.nextInt(categories.size())))
+                    .amountMinor(1 + random.nextInt(100_000))
+                    .date(START.plusDays(random.nextInt(30)))
+                    .build());
+        }
+        indexed.saveAll(batch);
+        List<Operation> copies = batch.stream().map(ShardedOperationRepositoryTest::copy).collect(Collectors.toList());
+        sharded.saveAll(copies.subList(0, 5_000));
+        copies.subList(5_000, copies.size()).forEach(sharded::save);
+
+        sharded.findById(7L).get().setDate(START.plusDays(40));
+        indexed.findById(7L).get().setDate(START.plusDays(40));
+
+        assertThat(sharded.getShardCount()).isEqualTo(shards);
+        assertThat(saved.get()).isEqualTo(6_000);
+        assertThat(moved.get()).isEqualTo(1);
+        assertThat(ids(sharded.findAll())).isEqualTo(ids(indexed.findAll()));
+        for (User user : users) {
+            assertThat(ids(sharded.findAllOperationsByUser(user))).isEqualTo(ids(indexed.findAllOperationsByUser(user)));
+            for (BankAccount bankAccount : user.getBankAccounts()) {
+                assertThat(ids(sharded.findAllOperationsByBankAccount(bankAccount)))
+                        .isEqualTo(ids(indexed.findAllOperationsByBankAccount(bankAccount)));
+                assertThat(ids(sharded.streamAllOperationsByBankAccount(bankAccount).collect(Collectors.toList())))
+                        .isEqualTo(ids(indexed.findAllOperationsByBankAccount(bankAccount)));
+            }
+            assertThat(ids(sharded.streamAllOperationsByUserBetweenDates(user, START.plusDays(3), START.plusDays(9)).collect(Collectors.toList())))
+                    .isEqualTo(ids(indexed.streamAllOperationsByUserBetweenDates(user, START.plusDays(3), START.plusDays(9)).collect(Collectors.toList())));
+            assertThat(paged(c -> sharded.streamAllOperationsByUser(user, c), OperationCursor::byDate))
+                    .isEqualTo(ids(indexed.findAllOperationsByUser(user)));
+        }
+        for (CostCategory category : categories) {
+            assertThat(ids(sharded.findAllOperationsByCostCategory(category)))
+                    .isEqualTo(ids(indexed.findAllOperationsByCostCategory(category)));
+        }
+        assertThat(ids(sharded.findAllOperationsByCostCategoryType(CostCategory.CostCategoryType.EXPENSE)))
+                .isEqualTo(ids(indexed.findAllOperationsByCostCategoryType(CostCategory.CostCategoryType.EXPENSE)));
+        assertThat(ids(sharded.findAllOperationsForDate(START.plusDays(4))))
+                .isEqualTo(ids(indexed.findAllOperationsForDate(START.plusDays(4))));
+        assertThat(ids(sharded.findAllOperationsBetweenDates(START.plusDays(5), START.plusDays(40))))
+                .isEqualTo(ids(indexed.findAllOperationsBetweenDates(START.plusDays(5), START.plusDays(40))));
+        assertThat(paged(c -> sharded.streamAllOperationsBetweenDates(START, START.plusDays(40), c), OperationCursor::byDate))
+                .isEqualTo(ids(indexed.findAllOperationsBetweenDates(START, START.plusDays(40))));
+        assertThat(paged(sharded::streamAll, OperationCursor::byBankAccount))
+                .isEqualTo(ids(indexed.streamAll(null).collect(Collectors.toList())));
+        assertThat(sharded.findById(7L).get().getDate()).isEqualTo(START.plusDays(40));
+        assertThat(sharded.findById(6_001L)).isEmpty();
+
+        Operation reassigned = sharded.findById(1L).get();
+        for (User user : users) {
+            reassigned.setBankAccount(user.getBankAccounts().get(0));
+            sharded.save(reassigned);
+        }
+        assertThat(sharded.findAll()).hasSize(6_000);
+        assertThat(sharded.findById(1L).get().getBankAccount()).isEqualTo(users.get(users.size() - 1).getBankAccounts().get(0));
+    }
+
+    private static List<Long> paged(Function<OperationCursor, Stream<Operation>> query, Function<Operation, OperationCursor> cursor) {
+        List<Long> ids = new ArrayList<>();
+        OperationCursor after = null;
+        while (true) {
+            List<Operation> page;
+            try (Stream<Operation> stream = query.apply(after)) {
+                page = stream.limit(251).collect(Collectors.toList());
+            }
+            if (page.isEmpty()) {
+                return ids;
+            }
+            ids.addAll(ids(page));
+            after = cursor.apply(page.get(page.size() - 1));
+        }
+    }
+
+    private static Operation copy(Operation operation) {
+        return Operation.builder()
+                .id(operation.getId())
+                .bankAccount(operation.getBankAccount())
+                .costCategory(operation.getCostCategory())
+                .amountMinor(operation.getAmountMinor())
+                .date(operation.getDate())
+                .build();
+    }
+
+    private static List<Long> ids(List<Operation> operations) {
+        return operations.stream().map(Operation::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,60 @@
+package kz.romanb.onelabproject.services;
+
+import kz.romanb.onelabproject.aggregates.BalanceHistory;
+import kz.romanb.onelabproject.aggregates.OperationAggregates;
+import kz.romanb.onelabproject.budgets.BudgetTracker;
+import kz.romanb.onelabproject.cache.QueryCacheProperties;
+import kz.romanb.onelabproject.cache.UserQueryCache;
+import kz.romanb.onelabproject.ids.IdGenerator;
+import kz.romanb.onelabproject.ids.SnowflakeIdGenerator;
+import kz.romanb.onelabproject.repositories.BankAccountRepositoryImpl;
+import kz.romanb.onelabproject.repositories.CostCategoryRepositoryImpl;
+import kz.romanb.onelabproject.repositories.OperationRepository;
+import kz.romanb.onelabproject.repositories.OperationRepositoryImpl;
+import kz.romanb.onelabproject.repositories.UserRepositoryImpl;
+import kz.romanb.onelabproject.snapshots.OperationSnapshots;
+import lombok.Getter;
+
+@Getter
+public class CostTrackerFixture {
+    private final UserRepositoryImpl userRepository;
+    private final BankAccountRepositoryImpl bankAccountRepository;
+    private final CostCategoryRepositoryImpl costCategoryRepository;
+    private final OperationRepository operationRepository;
+    private final IdGenerator idGenerator;
+    private final OperationAggregates operationAggregates;
+    private final BalanceHistory balanceHistory;
+    private final UserQueryCache queryCache;
+    private final OperationSnapshots operationSnapshots;
+    private final BudgetTracker budgetTracker;
+    private final CostTrackerService costTrackerService;
+
+    public CostTrackerFixture() {
+        this(new OperationRepositoryImpl());
+    }
+
+    public CostTrackerFixture(OperationRepository operationRepository) {
+        this(new UserRepositoryImpl(), new BankAccountRepositoryImpl(), new CostCategoryRepositoryImpl(),
+                operationRepository, new SnowflakeIdGenerator(0));
+    }
+
+    public CostTrackerFixture(UserRepositoryImpl userRepository,
+                              BankAccountRepositoryImpl bankAccountRepository,
+                              CostCategoryRepositoryImpl costCategoryRepository,
+                              OperationRepository operationRepository,
+                              IdGenerator idGenerator) {
+        this.userRepository = userRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.costCategoryRepository = costCategoryRepository;
+        this.operationRepository = operationRepository;
+        this.idGenerator = idGenerator;
+        this.operationAggregates = new OperationAggregates(operationRepository);
+        this.balanceHistory = new BalanceHistory(operationRepository);
+        this.operationSnapshots = new OperationSnapshots(operationRepository, bankAccountRepository);
+        this.budgetTracker = new BudgetTracker(operationRepository, operationAggregates);
+        this.queryCache = new UserQueryCache(operationRepository, new QueryCacheProperties());
+        this.costTrackerService = new CostTrackerService(userRepository, bankAccountRepository, costCategoryRepository,
+                operationRepository, operationAggregates, balanceHistory, idGenerator, queryCache,
+                operationSnapshots, budgetTracker);
+    }
+}
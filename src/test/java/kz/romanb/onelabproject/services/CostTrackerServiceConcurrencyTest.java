@@ -0,0 +1,140 @@
+package kz.romanb.onelabproject.services;
+
+import kz.romanb.onelabproject.dto.BatchMode;
+import kz.romanb.onelabproject.dto.BatchResult;
+import kz.romanb.onelabproject.dto.OperationRequest;
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.exceptions.NotEnoughMoneyException;
+import kz.romanb.onelabproject.repositories.OperationRepositoryImpl;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CostTrackerServiceConcurrencyTest {
+    private static final int ACCOUNTS = 8;
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 5_000;
+
+    @Test
+    void concurrentOperationsKeepBalancesConsistent() throws Exception {
+        OperationRepositoryImpl operationRepository = new OperationRepositoryImpl();
+        CostTrackerService costTrackerService = new CostTrackerFixture(operationRepository).getCostTrackerService();
+
+        List<BankAccount> bankAccounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            bankAccounts.add(BankAccount.builder()
+                    .id(1000L + i)
+                    .name("Account " + i)
+                    .balance(new BigDecimal("100.00"))
+                    .build());
+        }
+        CostCategory expense = CostCategory.builder()
+                .id(1000L)
+                .name("Expense")
+                .categoryType(CostCategory.CostCategoryType.EXPENSE)
+                .build();
+        CostCategory income = CostCategory.builder()
+                .id(1001L)
+                .name("Income")
+                .categoryType(CostCategory.CostCategoryType.INCOME)
+                .build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> rejected = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Random random = new Random(t);
+            rejected.add(executor.submit(() -> {
+                start.await();
+                int rejectedOperations = 0;
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    BankAccount bankAccount = bankAccounts.get(random.nextInt(ACCOUNTS));
+                    CostCategory costCategory = random.nextBoolean() ? expense : income;
+                    BigDecimal amount = BigDecimal.valueOf(1 + random.nextInt(50));
+                    try {
+                        costTrackerService.createOperation(bankAccount, costCategory, amount);
+                    } catch (NotEnoughMoneyException e) {
+                        rejectedOperations++;
+                    }
+                }
+                return rejectedOperations;
+            }));
+        }
+        start.countDown();
+        int rejectedTotal = 0;
+        for (Future<Integer> future : rejected) {
+            rejectedTotal += future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        List<Operation> operations = operationRepository.findAll();
+        assertThat(operations).hasSize(THREADS * OPERATIONS_PER_THREAD - rejectedTotal);
+        for (BankAccount bankAccount : bankAccounts) {
+            BigDecimal expected = new BigDecimal("100.00");
+            for (Operation operation : operationRepository.findAllOperationsByBankAccount(bankAccount)) {
+                expected = operation.getCostCategory().getCategoryType() == CostCategory.CostCategoryType.EXPENSE
+                        ? expected.subtract(operation.getAmount())
+                        : expected.add(operation.getAmount());
+            }
+            assertThat(bankAccount.getBalance()).isEqualByComparingTo(expected);
+            assertThat(bankAccount.getBalance().signum()).isGreaterThanOrEqualTo(0);
+        }
+    }
+
+    @Test
+    void batchBalanceIsNeverVisibleWithoutItsOperations() throws Exception {
+        CostTrackerService costTrackerService = new CostTrackerFixture().getCostTrackerService();
+        BankAccount bankAccount = BankAccount.builder().id(1L).name("Kaspi").balance(new BigDecimal("100.00")).build();
+        CostCategory income = CostCategory.builder().id(1L).name("Income").categoryType(CostCategory.CostCategoryType.INCOME).build();
+        List<OperationRequest> batch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            batch.add(new OperationRequest(bankAccount, income, BigDecimal.ONE, null));
+        }
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> writer = executor.submit(() -> {
+            for (int i = 0; i < 2_000; i++) {
+                costTrackerService.createOperations(batch, BatchMode.PER_ITEM);
+            }
+        });
+        while (!writer.isDone()) {
+            assertThat(costTrackerService.getBalanceAsOf(bankAccount, yesterday)).isEqualByComparingTo("100.00");
+        }
+        writer.get(1, TimeUnit.MINUTES);
+        executor.shutdown();
+        assertThat(bankAccount.getBalance()).isEqualByComparingTo("10100.00");
+    }
+
+    @Test
+    void batchOverflowIsNotReportedAsMissingMoney() {
+        CostTrackerService costTrackerService = new CostTrackerFixture().getCostTrackerService();
+        BankAccount bankAccount = BankAccount.builder().id(1L).name("Kaspi").balance(new BigDecimal("100.00")).build();
+        CostCategory income = CostCategory.builder().id(1L).name("Income").categoryType(CostCategory.CostCategoryType.INCOME).build();
+        List<OperationRequest> batch = List.of(
+                new OperationRequest(bankAccount, income, BigDecimal.ONE, null),
+                new OperationRequest(bankAccount, income, new BigDecimal("92233720368547758.07"), null));
+
+        BatchResult result = costTrackerService.createOperations(batch, BatchMode.PER_ITEM);
+        assertThat(result.getOperations()).hasSize(1);
+        assertThat(result.getFailures().get(0).getMessage()).isEqualTo("Переполнение баланса счета");
+        assertThatThrownBy(() -> costTrackerService.createOperations(batch, BatchMode.ALL_OR_NOTHING))
+                .isInstanceOf(ArithmeticException.class)
+                .hasMessage("Операция 1: Переполнение баланса счета");
+        assertThat(bankAccount.getBalance()).isEqualByComparingTo("101.00");
+    }
+}
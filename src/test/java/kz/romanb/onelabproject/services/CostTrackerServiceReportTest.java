@@ -0,0 +1,121 @@
+package kz.romanb.onelabproject.services;
+
+import kz.romanb.onelabproject.dto.RankedTotal;
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.User;
+import kz.romanb.onelabproject.reports.Report;
+import kz.romanb.onelabproject.reports.ReportDimension;
+import kz.romanb.onelabproject.reports.ReportMeasure;
+import kz.romanb.onelabproject.reports.ReportRequest;
+import kz.romanb.onelabproject.reports.ReportRow;
+import kz.romanb.onelabproject.repositories.OperationRepositoryImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CostTrackerServiceReportTest {
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    private CostTrackerService costTrackerService;
+    private User user;
+    private List<Operation> operations;
+
+    @BeforeEach
+    void setUp() {
+        OperationRepositoryImpl operationRepository = new OperationRepositoryImpl();
+        costTrackerService = new CostTrackerFixture(operationRepository).getCostTrackerService();
+        user = User.builder().id(1L).name("Report").build();
+        user.getBankAccounts().add(BankAccount.builder().id(1L).userId(1L).name("Kaspi").build());
+        user.getBankAccounts().add(BankAccount.builder().id(2L).userId(1L).name("Jusan").build());
+        user.getCostCategories().add(CostCategory.builder().id(1L).name("Work").categoryType(CostCategory.CostCategoryType.INCOME).build());
+        user.getCostCategories().add(CostCategory.builder().id(2L).name("Food").categoryType(CostCategory.CostCategoryType.EXPENSE).build());
+        user.getCostCategories().add(CostCategory.builder().id(3L).name("Sport").categoryType(CostCategory.CostCategoryType.EXPENSE).build());
+
+        Random random = new Random(7);
+        operations = new ArrayList<>();
+        for (long id = 1; id <= 20_000; id++) {
+            operations.add(Operation.builder()
+                    .id(id)
+                    .bankAccount(user.getBankAccounts().get(random.nextInt(2)))
+                    .costCategory(user.getCostCategories().get(random.nextInt(3)))
+                    .amountMinor(1 + random.nextInt(1_000_000))
+                    .date(START.plusDays(random.nextInt(365)))
+                    .build());
+        }
+        operationRepository.saveAll(operations);
+    }
+
+    @Test
+    void pivotMatchesNaiveGrouping() {
+        LocalDate startDate = LocalDate.of(2024, 3, 10);
+        LocalDate endDate = LocalDate.of(2024, 8, 20);
+        Report report = costTrackerService.buildReport(ReportRequest.builder()
+                .user(user)
+                .startDate(startDate)
+                .endDate(endDate)
+                .groupBy(ReportDimension.MONTH)
+                .groupBy(ReportDimension.COST_CATEGORY)
+                .build());
+
+        Map<String, List<Operation>> expected = operations.stream()
+                .filter(o -> !o.getDate().isBefore(startDate) && !o.getDate().isAfter(endDate))
+                .collect(Collectors.groupingBy(o -> o.getDate().withDayOfMonth(1) + "/" + o.getCostCategory().getId()));
+        assertThat(report.getMeasures()).containsExactlyInAnyOrder(ReportMeasure.values());
+        assertThat(report.getRows()).hasSize(expected.size());
+        LocalDate previousMonth = LocalDate.MIN;
+        for (ReportRow row : report.getRows()) {
+            LocalDate month = (LocalDate) row.get(ReportDimension.MONTH);
+            CostCategory category = (CostCategory) row.get(ReportDimension.COST_CATEGORY);
+            assertThat(month).isAfterOrEqualTo(previousMonth);
+            previousMonth = month;
+            List<Operation> group = expected.get(month + "/" + category.getId());
+            assertThat(row.getCount()).isEqualTo(group.size());
+            assertThat(row.getSum()).isEqualTo(group.stream().map(Operation::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add));
+            assertThat(row.getMinMinor()).isEqualTo(group.stream().mapToLong(Operation::getAmountMinor).min().getAsLong());
+            assertThat(row.getMaxMinor()).isEqualTo(group.stream().mapToLong(Operation::getAmountMinor).max().getAsLong());
+        }
+    }
+
+    @Test
+    void topQueriesMatchFullSort() {
+        LocalDate startDate = LocalDate.of(2024, 5, 1);
+        LocalDate endDate = LocalDate.of(2024, 5, 31);
+        List<Operation> expenses = operations.stream()
+                .filter(o -> !o.getDate().isBefore(startDate) && !o.getDate().isAfter(endDate))
+                .filter(o -> o.getCostCategory().getCategoryType() == CostCategory.CostCategoryType.EXPENSE)
+                .collect(Collectors.toList());
+
+        List<Operation> top = costTrackerService.findTopOperations(user, CostCategory.CostCategoryType.EXPENSE, startDate, endDate, 10);
+        assertThat(top).extracting(Operation::getAmountMinor).containsExactlyElementsOf(expenses.stream()
+                .map(Operation::getAmountMinor)
+                .sorted(Comparator.reverseOrder())
+                .limit(10)
+                .collect(Collectors.toList()));
+
+        Map<Long, Long> byCategory = expenses.stream()
+                .collect(Collectors.groupingBy(o -> o.getCostCategory().getId(), Collectors.summingLong(Operation::getAmountMinor)));
+        List<RankedTotal<CostCategory>> categories = costTrackerService.findTopCostCategories(user, startDate, endDate, 1);
+        assertThat(categories).hasSize(1);
+        assertThat(categories.get(0).getTotalMinor()).isEqualTo(Collections.max(byCategory.values()));
+
+        Map<Long, Long> byAccount = expenses.stream()
+                .collect(Collectors.groupingBy(o -> o.getBankAccount().getId(), Collectors.summingLong(Operation::getAmountMinor)));
+        List<RankedTotal<BankAccount>> accounts = costTrackerService.findTopBankAccountsByOutflow(user, startDate, endDate, 5);
+        assertThat(accounts).extracting(RankedTotal::getTotalMinor).containsExactlyElementsOf(byAccount.values().stream()
+                .sorted(Comparator.reverseOrder())
+                .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,136 @@
+package kz.romanb.onelabproject.snapshots;
+
+import kz.romanb.onelabproject.entities.BankAccount;
+import kz.romanb.onelabproject.entities.CostCategory;
+import kz.romanb.onelabproject.entities.Operation;
+import kz.romanb.onelabproject.entities.User;
+import kz.romanb.onelabproject.repositories.BankAccountRepositoryImpl;
+import kz.romanb.onelabproject.repositories.OperationRepositoryImpl;
+import kz.romanb.onelabproject.services.CostTrackerFixture;
+import kz.romanb.onelabproject.services.CostTrackerService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OperationSnapshotsTest {
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final long TOTAL = 10_000_000;
+
+    @Test
+    void readersSeeConsistentVersionsWhileWritersMoveMoney() {
+        OperationRepositoryImpl operationRepository = new OperationRepositoryImpl();
+        OperationSnapshots snapshots = new OperationSnapshots(operationRepository, new BankAccountRepositoryImpl());
+        BankAccount kaspi = BankAccount.builder().id(1L).userId(1L).name("Kaspi").build();
+        BankAccount jusan = BankAccount.builder().id(2L).userId(2L).name("Jusan").build();
+        CostCategory food = CostCategory.builder().id(1L).name("Food").categoryType(CostCategory.CostCategoryType.EXPENSE).build();
+        CostCategory salary = CostCategory.builder().id(2L).name("Salary").categoryType(CostCategory.CostCategoryType.INCOME).build();
+        Random random = new Random(5);
+        List<Operation> operations = new ArrayList<>();
+        for (long id = 1; id <= 1_000; id++) {
+            operations.add(Operation.builder()
+                    .id(id)
+                    .bankAccount(id % 2 == 0 ? kaspi : jusan)
+                    .costCategory(id <= 500 ? food : salary)
+                    .amountMinor(TOTAL / 500)
+                    .date(START.plusDays(random.nextInt(365)))
+                    .build());
+        }
+        operationRepository.saveAll(operations);
+        OperationSnapshot initial = snapshots.current();
+        assertThat(initial.size()).isEqualTo(1_000);
+        assertThat(initial.getSum(CostCategory.CostCategoryType.EXPENSE)).isEqualTo(TOTAL);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            Random writes = new Random(7);
+            while (running.get()) {
+                Operation from = operations.get(writes.nextInt(500));
+                Operation to = operations.get(writes.nextInt(500));
+                long amount = Math.min(from.getAmountMinor(), 1 + writes.nextInt(100));
+                synchronized (operations) {
+                    from.setAmountMinor(from.getAmountMinor() - amount);
+                    to.setAmountMinor(to.getAmountMinor() + amount);
+                }
+                operations.get(writes.nextInt(operations.size())).setDate(START.plusDays(writes.nextInt(365)));
+            }
+        });
+
+        LocalDate yearEnd = START.plusDays(364);
+        long previousVersion = initial.getVersion();
+        for (int i = 0; i < 2_000; i++) {
+            OperationSnapshot snapshot = snapshots.current();
+            assertThat(snapshot.getVersion()).isGreaterThanOrEqualTo(previousVersion);
+            previousVersion = snapshot.getVersion();
+            List<Operation> year = snapshot.findAllOperationsBetweenDates(START, yearEnd);
+            assertThat(year).hasSize(1_000);
+            long listed = year.stream()
+                    .filter(o -> o.getCostCategory() == food)
+                    .mapToLong(Operation::getAmountMinor)
+                    .sum();
+            assertThat(listed).isEqualTo(snapshot.getSum(CostCategory.CostCategoryType.EXPENSE, START, yearEnd));
+            LocalDate from = START.plusDays(i % 200);
+            LocalDate to = from.plusDays(90);
+            assertThat(snapshot.findAllOperationsBetweenDates(from, to).stream()
+                    .filter(o -> o.getCostCategory() == food)
+                    .mapToLong(Operation::getAmountMinor)
+                    .sum()).isEqualTo(snapshot.getSum(CostCategory.CostCategoryType.EXPENSE, from, to));
+        }
+        running.set(false);
+        writer.join();
+
+        assertThat(initial.getSum(CostCategory.CostCategoryType.EXPENSE)).isEqualTo(TOTAL);
+        assertThat(initial.findAll()).extracting(Operation::getAmountMinor).containsOnly(TOTAL / 500);
+
+        OperationSnapshot last = snapshots.current();
+        User user = User.builder().id(1L).name("Kaspi").build();
+        assertThat(last.getSum(CostCategory.CostCategoryType.EXPENSE, START, yearEnd)).isEqualTo(TOTAL);
+        assertThat(last.findAll().stream().map(o -> o.getId() + "@" + o.getDate() + "=" + o.getAmountMinor()).collect(Collectors.toList()))
+                .containsExactlyInAnyOrderElementsOf(operations.stream()
+                        .map(o -> o.getId() + "@" + o.getDate() + "=" + o.getAmountMinor())
+                        .collect(Collectors.toList()));
+        assertThat(last.findAllOperationsBetweenDates(START, yearEnd).stream().map(Operation::getId).collect(Collectors.toList()))
+                .isEqualTo(operationRepository.findAllOperationsBetweenDates(START, yearEnd).stream()
+                        .map(Operation::getId)
+                        .collect(Collectors.toList()));
+        assertThat(last.findAllOperationsByUserBetweenDates(user, START, yearEnd)).hasSize(500).allMatch(o -> o.getBankAccount() == kaspi);
+        assertThat(last.getSum(user, CostCategory.CostCategoryType.INCOME, START, yearEnd)).isEqualTo(250 * (TOTAL / 500));
+    }
+
+    @Test
+    void balancesBecomeVisibleTogetherWithTheirOperations() {
+        CostTrackerFixture fixture = new CostTrackerFixture();
+        CostTrackerService costTrackerService = fixture.getCostTrackerService();
+        User user = costTrackerService.createNewUser(User.builder().id(1L).name("Roman").build());
+        BankAccount kaspi = costTrackerService.addNewBankAccountToUser(user,
+                BankAccount.builder().id(1L).name("Kaspi").balanceMinor(10_000).build());
+        CostCategory salary = costTrackerService.addNewCostCategoryToUser(user,
+                CostCategory.builder().id(1L).name("Salary").categoryType(CostCategory.CostCategoryType.INCOME).build());
+        OperationSnapshots snapshots = fixture.getOperationSnapshots();
+        assertThat(snapshots.current().getBalanceMinor(kaspi)).isEqualTo(10_000);
+
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < 5_000; i++) {
+                costTrackerService.createOperation(kaspi, salary, BigDecimal.ONE);
+            }
+        });
+        while (!writer.isDone()) {
+            OperationSnapshot snapshot = snapshots.current();
+            assertThat(snapshot.getBalanceMinor(kaspi))
+                    .isEqualTo(10_000 + snapshot.getSum(user, CostCategory.CostCategoryType.INCOME));
+        }
+        writer.join();
+
+        OperationSnapshot last = snapshots.current();
+        assertThat(last.getBalanceMinor(kaspi)).isEqualTo(kaspi.getBalanceMinor()).isEqualTo(10_000 + 5_000 * 100);
+        assertThat(last.findAllOperationsByUserBetweenDates(user, LocalDate.MIN, LocalDate.MAX)).hasSize(5_000);
+    }
+}